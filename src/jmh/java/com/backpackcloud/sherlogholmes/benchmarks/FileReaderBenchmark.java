@@ -0,0 +1,103 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Marcelo "Ataxexe" Guimarães
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.backpackcloud.sherlogholmes.benchmarks;
+
+import com.backpackcloud.sherlogholmes.model.DataReader;
+import com.backpackcloud.sherlogholmes.model.readers.FileLineReader;
+import com.backpackcloud.sherlogholmes.model.readers.MappedFileLineReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FileReaderBenchmark {
+
+  @Param({"1000000"})
+  int lines;
+
+  @Param({"lines", "mapped"})
+  String reader;
+
+  private Path file;
+  private DataReader<String> dataReader;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    file = Files.createTempFile("sherlog-benchmark", ".log");
+    try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+      for (int i = 0; i < lines; i++) {
+        writer.write("2024-03-11 14:22:05,");
+        writer.write(String.format("%03d", i % 1000));
+        writer.write(" INFO  [org.acme.service.OrderService] (executor-thread-");
+        writer.write(Integer.toString(i % 16));
+        writer.write(") Processed order ");
+        writer.write(Integer.toString(i));
+        writer.write(" for customer ação-");
+        writer.write(Integer.toString(i % 977));
+        writer.newLine();
+      }
+    }
+    dataReader = switch (reader) {
+      case "mapped" -> new MappedFileLineReader(StandardCharsets.UTF_8);
+      default -> new FileLineReader(StandardCharsets.UTF_8);
+    };
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(file);
+  }
+
+  @Benchmark
+  public long read() {
+    LongAdder chars = new LongAdder();
+    dataReader.read(file.toString(), (metadata, line) -> chars.add(line.length()));
+    return chars.sum();
+  }
+
+}
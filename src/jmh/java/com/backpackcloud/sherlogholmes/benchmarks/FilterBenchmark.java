@@ -0,0 +1,103 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Marcelo "Ataxexe" Guimarães
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.backpackcloud.sherlogholmes.benchmarks;
+
+import com.backpackcloud.sherlogholmes.model.DataEntry;
+import com.backpackcloud.sherlogholmes.model.DataFilter;
+import com.backpackcloud.sherlogholmes.model.DataModel;
+import com.backpackcloud.sherlogholmes.model.FilterFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FilterBenchmark {
+
+  private static final int ENTRIES = 1024;
+
+  @Param({"level == ERROR", "line > 500", "message ~= order 1\\d+", "message == Processed order {line}"})
+  String expression;
+
+  private DataEntry[] entries;
+  private DataFilter filter;
+  private DataFilter compiled;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    DataModel model = StorageBenchmark.model();
+    entries = new DataEntry[ENTRIES];
+    for (int i = 0; i < ENTRIES; i++) {
+      entries[i] = StorageBenchmark.entry(model, i);
+    }
+    filter = new FilterFactory().create(expression);
+    compiled = filter.compile();
+  }
+
+  /**
+   * Time to test a single entry with the filter as it's created.
+   */
+  @Benchmark
+  @OperationsPerInvocation(ENTRIES)
+  public int interpreted() {
+    return count(filter);
+  }
+
+  /**
+   * Time to test a single entry with the compiled filter.
+   */
+  @Benchmark
+  @OperationsPerInvocation(ENTRIES)
+  public int compiled() {
+    return count(compiled);
+  }
+
+  private int count(DataFilter filter) {
+    int count = 0;
+    for (DataEntry entry : entries) {
+      if (filter.test(entry)) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+}
@@ -0,0 +1,90 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Marcelo "Ataxexe" Guimarães
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.backpackcloud.sherlogholmes.benchmarks;
+
+import com.backpackcloud.sherlogholmes.model.DataEntry;
+import com.backpackcloud.sherlogholmes.model.DataModel;
+import com.backpackcloud.sherlogholmes.model.GroupBy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class GroupByBenchmark {
+
+  private static final int ENTRIES = 1_000_000;
+
+  // from a handful of groups to one per entry
+  @Param({"level", "thread:level", "message"})
+  String keys;
+
+  @Param({"count", "max(line)", "distinct(thread)"})
+  String aggregation;
+
+  // enough for every group, or few enough to drop the smallest ones
+  @Param({"10000000", "100000"})
+  long limit;
+
+  private List<DataEntry> entries;
+  private GroupBy groupBy;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    DataModel model = StorageBenchmark.model();
+    entries = new ArrayList<>(ENTRIES);
+    for (int i = 0; i < ENTRIES; i++) {
+      entries.add(StorageBenchmark.entry(model, i));
+    }
+    groupBy = new GroupBy(Arrays.asList(keys.split(":")), GroupBy.Aggregation.parse(aggregation), limit);
+  }
+
+  /**
+   * Time to aggregate all the entries.
+   */
+  @Benchmark
+  public int aggregate() {
+    return groupBy.aggregate(entries).groups().size();
+  }
+
+}
@@ -0,0 +1,113 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Marcelo "Ataxexe" Guimarães
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.backpackcloud.sherlogholmes.benchmarks;
+
+import com.backpackcloud.sherlogholmes.util.MultiTextMatcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares looking for each text on its own, like the extract step used to do, against a single pass
+ * looking for all of them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MultiTextBenchmark {
+
+  private static final String[] PACKAGES = {"java.lang", "java.io", "java.util", "org.acme.service", "org.hibernate"};
+
+  @Param({"2", "8", "16", "200"})
+  int texts;
+
+  @Param({"1000"})
+  int values;
+
+  private List<String> candidates;
+  private String[] messages;
+  private MultiTextMatcher matcher;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    candidates = new ArrayList<>();
+    for (int i = 0; i < texts; i++) {
+      candidates.add(PACKAGES[i % PACKAGES.length] + ".Failure" + i + "Exception");
+    }
+    matcher = MultiTextMatcher.of(candidates);
+    messages = new String[values];
+    for (int i = 0; i < values; i++) {
+      // one in ten messages has one of the texts, the others have only similar ones
+      String exception = i % 10 == 0
+        ? candidates.get(i % texts)
+        : PACKAGES[i % PACKAGES.length] + ".Failure" + (texts + i) + "Exception";
+      messages[i] = "Unexpected error while processing order " + i + " for customer " + (i % 977)
+        + ": " + exception + ": connection reset by peer";
+    }
+  }
+
+  @Benchmark
+  public int eachText() {
+    int found = 0;
+    for (String message : messages) {
+      for (int i = 0; i < candidates.size(); i++) {
+        if (message.contains(candidates.get(i))) {
+          found += i;
+          break;
+        }
+      }
+    }
+    return found;
+  }
+
+  @Benchmark
+  public int singlePass() {
+    int found = 0;
+    for (String message : messages) {
+      int index = matcher.firstInOrder(message);
+      if (index >= 0) {
+        found += index;
+      }
+    }
+    return found;
+  }
+
+}
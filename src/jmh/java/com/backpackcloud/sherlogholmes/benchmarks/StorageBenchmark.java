@@ -0,0 +1,108 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Marcelo "Ataxexe" Guimarães
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.backpackcloud.sherlogholmes.benchmarks;
+
+import com.backpackcloud.sherlogholmes.model.Attribute;
+import com.backpackcloud.sherlogholmes.model.AttributeSpec;
+import com.backpackcloud.sherlogholmes.model.DataEntry;
+import com.backpackcloud.sherlogholmes.model.DataModel;
+import com.backpackcloud.sherlogholmes.model.DataRegistry;
+import com.backpackcloud.sherlogholmes.model.Dictionary;
+import com.backpackcloud.sherlogholmes.model.FilterStack;
+import com.backpackcloud.sherlogholmes.model.Metadata;
+import com.backpackcloud.sherlogholmes.model.storage.StorageEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class StorageBenchmark {
+
+  private static final String[] LEVELS = {"DEBUG", "INFO", "WARN", "ERROR"};
+
+  @Param({"1000000"})
+  int entries;
+
+  @Param({"OBJECTS", "COLUMNAR"})
+  StorageEngine engine;
+
+  private DataRegistry registry;
+
+  static DataModel model() {
+    Dictionary dictionary = new Dictionary();
+    return new DataModel("benchmark", null, null, dictionary)
+      .add("timestamp", AttributeSpec.create("datetime", dictionary))
+      .add("line", AttributeSpec.create("number", dictionary))
+      .add("level", AttributeSpec.create("enum | DEBUG,INFO,WARN,ERROR", dictionary))
+      .add("thread", AttributeSpec.create("text | dictionary", dictionary))
+      .add("message", AttributeSpec.create("text", dictionary));
+  }
+
+  static DataEntry entry(DataModel model, int line) {
+    DataEntry entry = model.create();
+    entry.attribute("timestamp").ifPresent(attr -> attr.assign(LocalDateTime.of(2024, 3, 11, 0, 0).plusNanos(line * 1_000_000L)));
+    new Metadata("server.log", line).attachTo(entry, model.dictionary());
+    entry.attribute("level").ifPresent(attr -> attr.assign(LEVELS[line % LEVELS.length]));
+    entry.attribute("thread").ifPresent(attr -> attr.assign("executor-thread-" + line % 16));
+    entry.attribute("message").ifPresent(attr -> attr.assign("Processed order " + line));
+    return entry;
+  }
+
+  @Setup(Level.Trial)
+  public void setup() {
+    DataModel model = model();
+    registry = new DataRegistry(new FilterStack());
+    registry.useEngine(engine);
+    for (int i = 1; i <= entries; i++) {
+      registry.add(entry(model, i));
+    }
+    registry.size();
+  }
+
+  @Benchmark
+  public long scan() {
+    return registry.entries()
+      .filter(entry -> entry.attribute("level").flatMap(Attribute::value).filter("ERROR"::equals).isPresent())
+      .count();
+  }
+
+}
@@ -0,0 +1,138 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Marcelo "Ataxexe" Guimarães
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.backpackcloud.sherlogholmes.benchmarks;
+
+import com.backpackcloud.sherlogholmes.util.ByteSearch;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the substring search on raw lines (with and without the Vector API) against decoding
+ * the lines and searching them with {@link String#contains(CharSequence)}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SubstringBenchmark {
+
+  @Param({"10000"})
+  int lines;
+
+  @Param({"ERROR", "Connection refused"})
+  String needle;
+
+  private byte[] content;
+  private int[] ends;
+  private String[] decoded;
+  private ByteSearch search;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    StringBuilder builder = new StringBuilder();
+    ends = new int[lines];
+    decoded = new String[lines];
+    for (int i = 0; i < lines; i++) {
+      String line = "2024-03-11 14:22:05," + String.format("%03d", i % 1000)
+        + (i % 100 == 0 ? " ERROR" : " INFO ")
+        + " [org.acme.service.OrderService] (executor-thread-" + (i % 16) + ") "
+        + (i % 250 == 0 ? "Connection refused by " : "Processed order ") + i
+        + " for customer ação-" + (i % 977);
+      decoded[i] = line;
+      builder.append(line).append('\n');
+    }
+    content = builder.toString().getBytes(StandardCharsets.UTF_8);
+    for (int i = 0, line = 0; i < content.length; i++) {
+      if (content[i] == '\n') {
+        ends[line++] = i;
+      }
+    }
+    search = ByteSearch.of(needle, StandardCharsets.UTF_8);
+  }
+
+  private int scanBytes() {
+    int found = 0;
+    int start = 0;
+    for (int end : ends) {
+      if (search.isIn(content, start, end)) {
+        found++;
+      }
+      start = end + 1;
+    }
+    return found;
+  }
+
+  @Benchmark
+  @Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+  public int vectorizedBytes() {
+    return scanBytes();
+  }
+
+  @Benchmark
+  @Fork(value = 1, jvmArgsAppend = "-Dsherlog.vectorized=false")
+  public int scalarBytes() {
+    return scanBytes();
+  }
+
+  @Benchmark
+  public int decodedStrings() {
+    int found = 0;
+    int start = 0;
+    for (int end : ends) {
+      if (new String(content, start, end - start, StandardCharsets.UTF_8).contains(needle)) {
+        found++;
+      }
+      start = end + 1;
+    }
+    return found;
+  }
+
+  @Benchmark
+  public int strings() {
+    int found = 0;
+    for (String line : decoded) {
+      if (line.contains(needle)) {
+        found++;
+      }
+    }
+    return found;
+  }
+
+}
@@ -35,12 +35,16 @@ import com.backpackcloud.configuration.ConfigurationSupplier;
 import com.backpackcloud.io.SerialBitter;
 import com.backpackcloud.sherlogholmes.commands.data.AssignCommand;
 import com.backpackcloud.sherlogholmes.commands.data.CountCommand;
+import com.backpackcloud.sherlogholmes.commands.data.ExplainCommand;
 import com.backpackcloud.sherlogholmes.commands.data.ExportDataCommand;
 import com.backpackcloud.sherlogholmes.commands.data.FilterCommand;
+import com.backpackcloud.sherlogholmes.commands.data.GroupCommand;
 import com.backpackcloud.sherlogholmes.commands.data.HeadCommand;
+import com.backpackcloud.sherlogholmes.commands.data.HistogramCommand;
 import com.backpackcloud.sherlogholmes.commands.data.InspectCommand;
 import com.backpackcloud.sherlogholmes.commands.data.LimitCommand;
 import com.backpackcloud.sherlogholmes.commands.data.ListDataCommand;
+import com.backpackcloud.sherlogholmes.commands.data.StatsCommand;
 import com.backpackcloud.sherlogholmes.commands.data.TailCommand;
 import com.backpackcloud.sherlogholmes.commands.stack.AndOperationCommand;
 import com.backpackcloud.sherlogholmes.commands.stack.DupCommand;
@@ -57,6 +61,7 @@ import com.backpackcloud.sherlogholmes.model.FilterStack;
 import com.backpackcloud.sherlogholmes.ui.DataPrinter;
 import com.backpackcloud.sherlogholmes.ui.prompt.DataCountPromptWriter;
 import com.backpackcloud.sherlogholmes.ui.prompt.DataTimeRangePromptWriter;
+import com.backpackcloud.sherlogholmes.ui.prompt.FilterCachePromptWriter;
 import com.backpackcloud.sherlogholmes.ui.prompt.FilterStackPromptWriter;
 import com.backpackcloud.sherlogholmes.ui.prompt.LimitPromptWriter;
 import picocli.CommandLine;
@@ -159,12 +164,16 @@ public class Application implements Callable<Integer> {
       .addCommands(
         AssignCommand.class,
         CountCommand.class,
+        ExplainCommand.class,
         FilterCommand.class,
+        GroupCommand.class,
         HeadCommand.class,
+        HistogramCommand.class,
         InspectCommand.class,
         ListDataCommand.class,
         ExportDataCommand.class,
         LimitCommand.class,
+        StatsCommand.class,
         TailCommand.class,
         AndOperationCommand.class,
         DupCommand.class,
@@ -187,7 +196,7 @@ public class Application implements Callable<Integer> {
         PromptCharWriter.class
       )
 
-      .addRightPrompt(LimitPromptWriter.class)
+      .addRightPrompt(LimitPromptWriter.class, FilterCachePromptWriter.class)
       .addDefaultRightPrompts();
 
     if (preferences != null) {
@@ -26,6 +26,7 @@ package com.backpackcloud.sherlogholmes;
 
 import com.backpackcloud.preferences.PreferenceSpec;
 import com.backpackcloud.preferences.PreferenceType;
+import com.backpackcloud.sherlogholmes.model.IngestionSettings;
 
 public final class Preferences {
 
@@ -36,6 +37,48 @@ public final class Preferences {
     "UTF-8"
   );
 
+  public static final PreferenceSpec<Boolean> MAPPED_INPUT = new PreferenceSpec<>(
+    "mapped-input",
+    "reads input files through memory mapped chunks decoded in parallel",
+    PreferenceType.FLAG,
+    "false"
+  );
+
+  public static final PreferenceSpec<Boolean> LINE_PREFILTER = new PreferenceSpec<>(
+    "line-prefilter",
+    "skips, before parsing, the lines missing the texts the filters of the stack look for",
+    PreferenceType.FLAG,
+    "false"
+  );
+
+  public static final PreferenceSpec<Integer> INGESTION_BATCH_SIZE = new PreferenceSpec<>(
+    "ingestion-batch-size",
+    "sets how many lines are handed at once to the workers that parse them",
+    PreferenceType.NUMBER,
+    String.valueOf(IngestionSettings.DEFAULT.batchSize())
+  );
+
+  public static final PreferenceSpec<Integer> INGESTION_WORKERS = new PreferenceSpec<>(
+    "ingestion-workers",
+    "sets how many workers parse the lines of each input",
+    PreferenceType.NUMBER,
+    String.valueOf(IngestionSettings.DEFAULT.workers())
+  );
+
+  public static final PreferenceSpec<Boolean> COLUMNAR_STORAGE = new PreferenceSpec<>(
+    "columnar-storage",
+    "keeps the inspected data in typed columns instead of one object per attribute",
+    PreferenceType.FLAG,
+    "false"
+  );
+
+  public static final PreferenceSpec<Integer> GROUP_LIMIT = new PreferenceSpec<>(
+    "group-limit",
+    "sets how many groups the command group keeps before dropping the smallest ones and approximating",
+    PreferenceType.NUMBER,
+    "1000000"
+  );
+
   public static final PreferenceSpec<String> OUTPUT_CHARSET = new PreferenceSpec<>(
     "output-charset",
     "sets the charset to use for writing to output files",
@@ -55,6 +55,8 @@ public class AssignCommand {
     PipelineStep attributeSet = new AttributeSetStep(assignMap);
 
     registry.entries().forEach(attributeSet::analyze);
+    // the changed entries might no longer match the filters they matched
+    registry.invalidateFilterCache();
   }
 
 }
@@ -31,17 +31,25 @@ import com.backpackcloud.cli.annotations.InputParameter;
 import com.backpackcloud.cli.annotations.ParameterSuggestion;
 import com.backpackcloud.cli.ui.Paginator;
 import com.backpackcloud.cli.ui.Suggestion;
+import com.backpackcloud.cli.ui.components.PromptSuggestion;
 import com.backpackcloud.sherlogholmes.model.Count;
 import com.backpackcloud.sherlogholmes.model.Counter;
+import com.backpackcloud.sherlogholmes.model.CounterEstimate;
+import com.backpackcloud.sherlogholmes.model.CounterSpec;
 import com.backpackcloud.sherlogholmes.model.DataRegistry;
 import com.backpackcloud.sherlogholmes.ui.suggestions.AttributeSuggester;
+import com.backpackcloud.sherlogholmes.util.SpaceSaving;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 @CommandDefinition(
   name = "count",
@@ -61,30 +69,44 @@ public class CountCommand {
   @Action
   public void execute(Writer writer,
                       Paginator paginator,
-                      @InputParameter String attribute) {
-    Map<?, AtomicInteger> valuesMap;
-
-    if (registry.hasCounter(attribute)) {
+                      @InputParameter String attribute,
+                      @InputParameter String mode) {
+    Map<?, Long> valuesMap;
+    Optional<CounterEstimate> estimate;
+
+    // a stats counter keeps a sketch of the values instead of counting them
+    boolean counted = registry.counterSpec(attribute)
+      .filter(spec -> spec.mode() != CounterSpec.Mode.STATS)
+      .isPresent();
+    if (mode == null && counted) {
       valuesMap = registry.counter(attribute);
+      estimate = registry.estimate(attribute);
     } else {
+      CounterSpec spec = mode == null ? CounterSpec.exact(attribute) : CounterSpec.parse(attribute + " | " + mode);
       Counter counter = new Counter();
-      counter.add(attribute);
+      counter.add(spec.mode() == CounterSpec.Mode.STATS ? CounterSpec.exact(attribute) : spec);
       registry.entries().parallel().forEach(counter);
       valuesMap = counter.counterFor(attribute).orElse(Collections.emptyMap());
+      estimate = counter.estimateFor(attribute);
+    }
+
+    if (estimate.isPresent()) {
+      printEstimate(writer, paginator, estimate.get());
+      return;
     }
 
     Map<String, Count<?>> countMap = new HashMap<>();
-    AtomicInteger total = new AtomicInteger();
+    AtomicLong total = new AtomicLong();
     AtomicInteger nameLength = new AtomicInteger();
 
     valuesMap.entrySet().stream()
-      .peek(entry -> total.addAndGet(entry.getValue().intValue()))
-      .map(entry -> new Count<>(entry.getKey(), entry.getValue().intValue()))
+      .peek(entry -> total.addAndGet(entry.getValue()))
+      .map(entry -> new Count<>(entry.getKey(), entry.getValue()))
       .peek(count -> nameLength.set((Math.max(nameLength.get(), count.object().toString().length()))))
       .forEach(count -> countMap.put(count.object().toString(), count));
 
     if (total.get() > 0) {
-      int valueLength = Integer.toString(total.get()).length();
+      int valueLength = Long.toString(total.get()).length();
 
       boolean subset = total.get() < registry.size();
 
@@ -120,9 +142,64 @@ public class CountCommand {
     }
   }
 
+  // the estimated counts are marked with a '~' and followed by how much they may be over the real ones
+  private void printEstimate(Writer writer, Paginator paginator, CounterEstimate estimate) {
+    long total = estimate.total();
+    List<SpaceSaving.Estimate> top = estimate.top();
+
+    if (!top.isEmpty()) {
+      int nameLength = top.stream().mapToInt(value -> String.valueOf(value.value()).length()).max().orElse(0);
+      int valueLength = Long.toString(total).length();
+
+      paginator.from(top.stream()).print((paginatorWriter, value) -> {
+        paginatorWriter
+          .withStyle("name")
+          .write(String.format("%-" + nameLength + "s", value.value()))
+          .write(" ")
+
+          .withStyle("count")
+          .write(String.format("~%" + valueLength + "d", value.count()))
+          .write(" ")
+
+          .withStyle("percentage//i")
+          .write(String.format("%7.3f%%", 100.0 * value.count() / total))
+          .write(" ");
+
+        if (value.error() > 0) {
+          paginatorWriter.withStyle("percentage")
+            .write("-" + value.error())
+            .write(" ");
+        }
+      }).paginate();
+    }
+
+    writer.write("= ")
+      .withStyle("count//b")
+      .write(total);
+    writer.newLine();
+
+    writer.write("~ ")
+      .withStyle("count//b")
+      .write(estimate.distinct())
+      .write(String.format(" distinct (±%.1f%%)", estimate.distinctError() * 100));
+    writer.newLine();
+  }
+
   @ParameterSuggestion(parameter = "attribute")
   public List<Suggestion> execute() {
     return attributeSuggester.suggestCountedAttributes();
   }
 
+  @ParameterSuggestion(parameter = "mode")
+  public List<Suggestion> suggestModes() {
+    List<Suggestion> result = new ArrayList<>();
+    for (CounterSpec.Mode mode : CounterSpec.Mode.values()) {
+      // the quantiles are shown by the stats command
+      if (mode != CounterSpec.Mode.STATS) {
+        result.add(PromptSuggestion.suggest(mode.name().toLowerCase(Locale.ROOT)));
+      }
+    }
+    return result;
+  }
+
 }
@@ -0,0 +1,153 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Marcelo "Ataxexe" Guimarães
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.backpackcloud.sherlogholmes.commands.data;
+
+import com.backpackcloud.cli.Writer;
+import com.backpackcloud.cli.annotations.Action;
+import com.backpackcloud.cli.annotations.CommandDefinition;
+import com.backpackcloud.cli.annotations.InputParameter;
+import com.backpackcloud.cli.annotations.ParameterSuggestion;
+import com.backpackcloud.cli.annotations.PreferenceValue;
+import com.backpackcloud.cli.ui.Paginator;
+import com.backpackcloud.cli.ui.Suggestion;
+import com.backpackcloud.cli.ui.components.PromptSuggestion;
+import com.backpackcloud.sherlogholmes.model.AttributeType;
+import com.backpackcloud.sherlogholmes.model.DataRegistry;
+import com.backpackcloud.sherlogholmes.model.GroupBy;
+import com.backpackcloud.sherlogholmes.ui.suggestions.AttributeSuggester;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+@CommandDefinition(
+  name = "group",
+  type = "Data Visualization",
+  description = "Aggregates the entries grouped by the values of attributes"
+)
+public class GroupCommand {
+
+  private final DataRegistry registry;
+  private final AttributeSuggester attributeSuggester;
+
+  public GroupCommand(DataRegistry registry) {
+    this.registry = registry;
+    this.attributeSuggester = new AttributeSuggester(registry);
+  }
+
+  @Action
+  public void execute(Writer writer,
+                      Paginator paginator,
+                      @PreferenceValue("group-limit") Integer groupLimit,
+                      @InputParameter String attributes,
+                      @InputParameter String aggregation,
+                      @InputParameter Integer top) {
+    GroupBy.Aggregation function = aggregation == null
+      ? GroupBy.Aggregation.COUNT
+      : GroupBy.Aggregation.parse(aggregation);
+    GroupBy.Result result = new GroupBy(Arrays.asList(attributes.split(":")), function, groupLimit)
+      .aggregate(registry.list());
+
+    List<GroupBy.Group> groups = top == null
+      ? result.groups()
+      : result.groups().subList(0, Math.min(top, result.groups().size()));
+    if (groups.isEmpty()) {
+      return;
+    }
+
+    boolean counting = function.function() == GroupBy.Function.COUNT;
+    int nameLength = groups.stream().mapToInt(group -> group.name().length()).max().orElse(0);
+    int valueLength = groups.stream().mapToInt(group -> format(group.value()).length()).max().orElse(0);
+    int countLength = Long.toString(groups.stream().mapToLong(GroupBy.Group::count).max().orElse(0)).length();
+
+    paginator.from(groups).print((paginatorWriter, group) -> {
+      paginatorWriter
+        .withStyle("name")
+        .write(String.format("%-" + nameLength + "s", group.name()))
+        .write(" ")
+
+        .withStyle("count")
+        .write(String.format("%" + valueLength + "s", format(group.value())))
+        .write(" ");
+
+      if (!counting) {
+        paginatorWriter.withStyle("percentage//i")
+          .write(String.format("%" + countLength + "d", group.count()))
+          .write(" ");
+      }
+
+      // the count of a group seen after some were dropped can be missing up to this many entries
+      if (group.error() > 0) {
+        paginatorWriter.withStyle("percentage")
+          .write("+" + group.error())
+          .write(" ");
+      }
+    }).paginate();
+
+    writer.write("= ")
+      .withStyle("count//b")
+      .write(result.groups().size())
+      .write(" groups");
+    if (result.floor() > 0) {
+      writer.withStyle("percentage//i")
+        .write(" ~ groups with up to " + result.floor() + " entries may be missing");
+    }
+    if (result.estimated()) {
+      writer.withStyle("percentage//i")
+        .write(" ~ some distinct values were estimated");
+    }
+    writer.newLine();
+  }
+
+  private static String format(double value) {
+    if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+      return Long.toString((long) value);
+    }
+    return String.format("%.3f", value);
+  }
+
+  @ParameterSuggestion(parameter = "attributes")
+  public List<Suggestion> execute() {
+    return attributeSuggester.suggestAttributeNames();
+  }
+
+  @ParameterSuggestion(parameter = "aggregation")
+  public List<Suggestion> suggestAggregations() {
+    List<Suggestion> result = new ArrayList<>();
+    result.add(PromptSuggestion.suggest(GroupBy.Aggregation.COUNT.toString()));
+    for (String attribute : registry.attributeNames()) {
+      boolean numeric = registry.typeOf(attribute)
+        .filter(type -> type == AttributeType.NUMBER || type == AttributeType.DECIMAL)
+        .isPresent();
+      for (GroupBy.Function function : GroupBy.Function.values()) {
+        if (function == GroupBy.Function.DISTINCT || (numeric && function != GroupBy.Function.COUNT)) {
+          result.add(PromptSuggestion.suggest(new GroupBy.Aggregation(function, attribute).toString()));
+        }
+      }
+    }
+    return result;
+  }
+
+}
@@ -0,0 +1,177 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Marcelo "Ataxexe" Guimarães
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.backpackcloud.sherlogholmes.commands.data;
+
+import com.backpackcloud.cli.Writer;
+import com.backpackcloud.cli.annotations.Action;
+import com.backpackcloud.cli.annotations.CommandDefinition;
+import com.backpackcloud.cli.annotations.InputParameter;
+import com.backpackcloud.cli.annotations.ParameterSuggestion;
+import com.backpackcloud.cli.ui.Paginator;
+import com.backpackcloud.cli.ui.Suggestion;
+import com.backpackcloud.cli.ui.components.PromptSuggestion;
+import com.backpackcloud.sherlogholmes.model.DataRegistry;
+import com.backpackcloud.sherlogholmes.model.Histogram;
+import com.backpackcloud.sherlogholmes.ui.suggestions.AttributeSuggester;
+
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+@CommandDefinition(
+  name = "histogram",
+  type = "Data Visualization",
+  description = "Counts the entries in each interval of time"
+)
+public class HistogramCommand {
+
+  private static final String BLOCKS = " ▏▎▍▌▋▊▉█";
+  private static final String SPARKS = "▁▂▃▄▅▆▇█";
+  private static final int BAR_WIDTH = 50;
+
+  private final DataRegistry registry;
+  private final AttributeSuggester attributeSuggester;
+
+  public HistogramCommand(DataRegistry registry) {
+    this.registry = registry;
+    this.attributeSuggester = new AttributeSuggester(registry);
+  }
+
+  @Action
+  public void execute(Writer writer,
+                      Paginator paginator,
+                      @InputParameter ChronoUnit unit,
+                      @InputParameter String attribute,
+                      @InputParameter Chart chart) {
+    Histogram histogram = registry.histogram(unit == null ? ChronoUnit.MINUTES : unit, attribute);
+    if (histogram.isEmpty()) {
+      return;
+    }
+    if (chart == Chart.SPARKLINE) {
+      sparklines(writer, histogram);
+    } else {
+      bars(paginator, histogram);
+    }
+  }
+
+  // a line per bucket, followed by a line per value of the attribute if the entries were split
+  private void bars(Paginator paginator, Histogram histogram) {
+    List<Bar> bars = new ArrayList<>();
+    for (int bucket = 0; bucket < histogram.size(); bucket++) {
+      bars.add(new Bar(histogram.start(bucket).toString(), histogram.total(bucket)));
+      for (Map.Entry<Object, long[]> series : histogram.series().entrySet()) {
+        long count = series.getValue()[bucket];
+        if (count > 0) {
+          bars.add(new Bar("  " + series.getKey(), count));
+        }
+      }
+    }
+    int nameLength = bars.stream().mapToInt(bar -> bar.name().length()).max().orElse(0);
+    int valueLength = Long.toString(histogram.max()).length();
+    long max = histogram.max();
+
+    paginator.from(bars).print((paginatorWriter, bar) -> paginatorWriter
+      .withStyle("name")
+      .write(String.format("%-" + nameLength + "s", bar.name()))
+      .write(" ")
+
+      .withStyle("count")
+      .write(String.format("%" + valueLength + "d", bar.count()))
+      .write(" ")
+
+      .withStyle("bar")
+      .write(bar(bar.count(), max))
+    ).paginate();
+  }
+
+  // a line per value of the attribute, each scaled to its own peak so the shapes can be compared
+  private void sparklines(Writer writer, Histogram histogram) {
+    Map<Object, long[]> lines = histogram.series().isEmpty()
+      ? Map.of("=", IntStream.range(0, histogram.size()).mapToLong(histogram::total).toArray())
+      : histogram.series();
+    int nameLength = lines.keySet().stream().mapToInt(name -> name.toString().length()).max().orElse(0);
+
+    writer.withStyle("name")
+      .write(String.format("%-" + nameLength + "s ", ""))
+      .write(histogram.start(0))
+      .write(" -> ")
+      .write(histogram.start(histogram.size() - 1))
+      .write(String.format(" (%d x %s)", histogram.size(), histogram.unit()));
+    writer.newLine();
+
+    lines.forEach((name, counts) -> {
+      long peak = Arrays.stream(counts).max().orElse(0);
+      StringBuilder sparkline = new StringBuilder(counts.length);
+      for (long count : counts) {
+        sparkline.append(count == 0 ? ' ' : SPARKS.charAt((int) (count * (SPARKS.length() - 1) / peak)));
+      }
+      writer.withStyle("name")
+        .write(String.format("%-" + nameLength + "s ", name))
+        .withStyle("bar")
+        .write(sparkline.toString())
+        .withStyle("count")
+        .write(" " + peak);
+      writer.newLine();
+    });
+  }
+
+  // eighths of a block give the bars a finer resolution
+  private static String bar(long count, long max) {
+    long eighths = max == 0 ? 0 : count * BAR_WIDTH * 8 / max;
+    StringBuilder bar = new StringBuilder();
+    bar.append("█".repeat((int) (eighths / 8)));
+    if (eighths % 8 != 0) {
+      bar.append(BLOCKS.charAt((int) (eighths % 8)));
+    }
+    return bar.toString();
+  }
+
+  @ParameterSuggestion(parameter = "unit")
+  public List<Suggestion> suggestUnits() {
+    return PromptSuggestion.suggest(ChronoUnit.class);
+  }
+
+  @ParameterSuggestion(parameter = "attribute")
+  public List<Suggestion> suggestAttributes() {
+    return attributeSuggester.suggestCountedAttributes();
+  }
+
+  @ParameterSuggestion(parameter = "chart")
+  public List<Suggestion> suggestCharts() {
+    return PromptSuggestion.suggest(Chart.class);
+  }
+
+  public enum Chart {
+    BARS, SPARKLINE
+  }
+
+  private record Bar(String name, long count) {
+
+  }
+
+}
@@ -24,6 +24,7 @@
 
 package com.backpackcloud.sherlogholmes.commands.data;
 
+import com.backpackcloud.cli.Writer;
 import com.backpackcloud.cli.annotations.Action;
 import com.backpackcloud.cli.annotations.CommandDefinition;
 import com.backpackcloud.cli.annotations.InputParameter;
@@ -32,11 +33,19 @@ import com.backpackcloud.cli.annotations.PreferenceValue;
 import com.backpackcloud.cli.ui.Suggestion;
 import com.backpackcloud.cli.ui.components.FileSuggester;
 import com.backpackcloud.cli.ui.components.PromptSuggestion;
+import com.backpackcloud.preferences.UserPreferences;
+import com.backpackcloud.sherlogholmes.Preferences;
 import com.backpackcloud.sherlogholmes.config.Config;
 import com.backpackcloud.sherlogholmes.model.DataReader;
 import com.backpackcloud.sherlogholmes.model.DataRegistry;
+import com.backpackcloud.sherlogholmes.model.FilterStack;
+import com.backpackcloud.sherlogholmes.model.IngestionSettings;
+import com.backpackcloud.sherlogholmes.model.LinePrefilter;
 import com.backpackcloud.sherlogholmes.model.Pipeline;
 import com.backpackcloud.sherlogholmes.model.readers.FileLineReader;
+import com.backpackcloud.sherlogholmes.model.readers.MappedFileLineReader;
+import com.backpackcloud.sherlogholmes.model.storage.StorageEngine;
+import com.backpackcloud.sherlogholmes.model.storage.TokenIndex;
 
 import java.io.File;
 import java.nio.charset.Charset;
@@ -59,40 +68,73 @@ public class InspectCommand {
   private final DataRegistry registry;
   private final Config config;
   private final FileSuggester suggester;
+  private final UserPreferences preferences;
+  private final FilterStack filterStack;
 
-  public InspectCommand(DataRegistry registry, Config config, FileSuggester suggester) {
+  public InspectCommand(DataRegistry registry,
+                        Config config,
+                        FileSuggester suggester,
+                        UserPreferences preferences,
+                        FilterStack filterStack) {
     this.registry = registry;
     this.config = config;
     this.suggester = suggester;
+    this.preferences = preferences;
+    this.filterStack = filterStack;
   }
 
   @Action
-  public void execute(@PreferenceValue("input-charset") String inputCharset,
+  public void execute(Writer writer,
+                      @PreferenceValue("input-charset") String inputCharset,
+                      @PreferenceValue("ingestion-batch-size") Integer batchSize,
+                      @PreferenceValue("ingestion-workers") Integer workers,
                       @InputParameter String pipelineId,
                       @InputParameter String location) throws InterruptedException {
-    DataReader dataReader = new FileLineReader(Charset.forName(inputCharset));
+    Charset charset = Charset.forName(inputCharset);
     Pipeline pipeline = config.pipeline(pipelineId);
+    // skipping lines would attach the continuation of a multiline entry to the wrong one
+    LinePrefilter prefilter = preferences.isEnabled(Preferences.LINE_PREFILTER) && !pipeline.multiline()
+      ? LinePrefilter.of(filterStack.filter(), pipeline, charset)
+      : LinePrefilter.NONE;
+    DataReader dataReader = preferences.isEnabled(Preferences.MAPPED_INPUT)
+      ? new MappedFileLineReader(charset, prefilter)
+      : new FileLineReader(charset, prefilter);
+    IngestionSettings settings = new IngestionSettings(batchSize, workers);
+
+    registry.useEngine(preferences.isEnabled(Preferences.COLUMNAR_STORAGE)
+      ? StorageEngine.COLUMNAR
+      : StorageEngine.OBJECTS);
 
     Path locationPath = Path.of(location);
 
-    if (locationPath.toFile().exists()) {
-      pipeline.run(dataReader, location, registry::add);
-    } else {
-      PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + location);
-      File directory = new File(location).getParentFile();
+    try (DataRegistry.Ingestion ingestion = registry.ingest()) {
+      if (locationPath.toFile().exists()) {
+        pipeline.run(dataReader, location, settings, ingestion);
+      } else {
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + location);
+        File directory = new File(location).getParentFile();
 
-      if (directory != null) {
-        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
-        for (File file : directory.listFiles()) {
-          Path path = Path.of(file.getPath());
-          if (matcher.matches(path)) {
-            executor.submit(() -> pipeline.run(dataReader, file.getPath(), registry::add));
+        if (directory != null) {
+          ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+          for (File file : directory.listFiles()) {
+            Path path = Path.of(file.getPath());
+            if (matcher.matches(path)) {
+              executor.submit(() -> pipeline.run(dataReader, file.getPath(), settings, ingestion));
+            }
           }
+          executor.shutdown();
+          executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
         }
-        executor.shutdown();
-        executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
       }
     }
+
+    for (TokenIndex index : registry.tokenIndexes().values()) {
+      writer.withStyle("name").write(index.attribute()).write(" ")
+        .withStyle("count").write(String.format("%,d", index.size())).write(" words indexed in ")
+        .withStyle("count").write(String.format("%,d", index.buildTime().toMillis())).write("ms using ")
+        .withStyle("count").write(String.format("%.1f", index.footprint() / (1024.0 * 1024.0))).write("M");
+      writer.newLine();
+    }
   }
 
   @ParameterSuggestion(parameter = "location")
@@ -26,10 +26,14 @@ package com.backpackcloud.sherlogholmes.commands.data;
 
 import com.backpackcloud.cli.annotations.Action;
 import com.backpackcloud.cli.annotations.CommandDefinition;
+import com.backpackcloud.cli.annotations.InputParameter;
 import com.backpackcloud.cli.ui.Paginator;
+import com.backpackcloud.sherlogholmes.model.DataEntry;
 import com.backpackcloud.sherlogholmes.model.DataRegistry;
 import com.backpackcloud.sherlogholmes.ui.DataPrinter;
 
+import java.util.List;
+
 @CommandDefinition(
   name = "ls",
   type = "Data Visualization",
@@ -46,8 +50,12 @@ public class ListDataCommand {
   }
 
   @Action
-  public void execute(Paginator paginator) {
-    paginator.from(registry.entries())
+  public void execute(Paginator paginator, @InputParameter Integer offset) {
+    // a negative offset counts from the end, so "ls -20" jumps right to the last entries
+    List<DataEntry> entries = offset == null
+      ? registry.list()
+      : registry.page(offset, Integer.MAX_VALUE);
+    paginator.from(entries)
       .print(printer::print)
       .paginate();
   }
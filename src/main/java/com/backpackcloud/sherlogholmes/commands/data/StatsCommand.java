@@ -0,0 +1,105 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Marcelo "Ataxexe" Guimarães
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.backpackcloud.sherlogholmes.commands.data;
+
+import com.backpackcloud.cli.Writer;
+import com.backpackcloud.cli.annotations.Action;
+import com.backpackcloud.cli.annotations.CommandDefinition;
+import com.backpackcloud.cli.annotations.InputParameter;
+import com.backpackcloud.cli.annotations.ParameterSuggestion;
+import com.backpackcloud.cli.ui.Suggestion;
+import com.backpackcloud.sherlogholmes.model.DataRegistry;
+import com.backpackcloud.sherlogholmes.ui.suggestions.AttributeSuggester;
+import com.backpackcloud.sherlogholmes.util.QuantileSketch;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@CommandDefinition(
+  name = "stats",
+  type = "Data Visualization",
+  description = "Shows the distribution of the numbers of an attribute"
+)
+public class StatsCommand {
+
+  private static final Map<String, Double> QUANTILES = new LinkedHashMap<>();
+
+  static {
+    QUANTILES.put("p50", 0.5);
+    QUANTILES.put("p90", 0.9);
+    QUANTILES.put("p99", 0.99);
+    QUANTILES.put("p999", 0.999);
+  }
+
+  private final DataRegistry registry;
+  private final AttributeSuggester attributeSuggester;
+
+  public StatsCommand(DataRegistry registry) {
+    this.registry = registry;
+    this.attributeSuggester = new AttributeSuggester(registry);
+  }
+
+  @Action
+  public void execute(Writer writer, @InputParameter String attribute) {
+    QuantileSketch sketch = registry.stats(attribute);
+    if (sketch.isEmpty()) {
+      return;
+    }
+
+    line(writer, "count", " ", Long.toString(sketch.count()));
+    line(writer, "min", " ", format(sketch.min()));
+    line(writer, "mean", " ", format(sketch.mean()));
+    // the quantiles are estimated
+    QUANTILES.forEach((name, fraction) -> line(writer, name, "~", format(sketch.quantile(fraction))));
+    line(writer, "max", " ", format(sketch.max()));
+
+    writer.withStyle("percentage//i")
+      .write(String.format("~ ±%.1f%%", sketch.accuracy() * 100));
+    writer.newLine();
+  }
+
+  private void line(Writer writer, String name, String mark, String value) {
+    writer.withStyle("name")
+      .write(String.format("%-5s ", name))
+      .write(mark)
+      .withStyle("count")
+      .write(value);
+    writer.newLine();
+  }
+
+  private static String format(double value) {
+    if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+      return Long.toString((long) value);
+    }
+    return String.format("%.3f", value);
+  }
+
+  @ParameterSuggestion(parameter = "attribute")
+  public List<Suggestion> execute() {
+    return attributeSuggester.suggestNumericAttributes();
+  }
+
+}
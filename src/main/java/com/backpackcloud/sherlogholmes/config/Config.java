@@ -38,6 +38,7 @@ import com.backpackcloud.sherlogholmes.config.parser.DataParserConfig;
 import com.backpackcloud.sherlogholmes.model.DataFilter;
 import com.backpackcloud.sherlogholmes.model.DataModel;
 import com.backpackcloud.sherlogholmes.model.DataParser;
+import com.backpackcloud.sherlogholmes.model.Dictionary;
 import com.backpackcloud.sherlogholmes.model.DataRegistry;
 import com.backpackcloud.sherlogholmes.model.Pipeline;
 import com.backpackcloud.sherlogholmes.model.PipelineStep;
@@ -50,6 +51,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class Config {
 
@@ -62,6 +64,9 @@ public class Config {
   private final Map<String, PipelineConfig> pipelines;
   private final Map<String, DataFilter> filters;
   private final List<Macro> macros;
+  private final Dictionary dictionary;
+  // the entries keep the layout of their model, so the same model is handed out for the same id
+  private final Map<String, DataModel> dataModels;
 
   @JsonCreator
   public Config(@JacksonInject UserPreferences userPreferences,
@@ -80,7 +85,7 @@ public class Config {
                 @JsonProperty("steps") Map<String, List<PipelineStep>> steps,
                 @JsonProperty("pipelines") Map<String, PipelineConfig> pipelines,
                 @JsonProperty("counters") List<String> counters) {
-    this(userPreferences, patterns, commands, macros, filters, models, parsers, steps, pipelines);
+    this(userPreferences, registry.dictionary(), patterns, commands, macros, filters, models, parsers, steps, pipelines);
 
     if (icons != null) {
       IconMap iconMap = theme.iconMap();
@@ -120,6 +125,7 @@ public class Config {
   }
 
   private Config(UserPreferences userPreferences,
+                 Dictionary dictionary,
                  Map<String, String> patterns,
                  List<String> commands,
                  List<Macro> macros,
@@ -129,6 +135,8 @@ public class Config {
                  Map<String, List<PipelineStep>> steps,
                  Map<String, PipelineConfig> pipelines) {
     this.userPreferences = userPreferences;
+    this.dictionary = dictionary;
+    this.dataModels = new ConcurrentHashMap<>();
     this.commands = commands != null ? commands : new ArrayList<>();
     this.macros = macros != null ? macros : new ArrayList<>();
     this.models = models != null ? models : new HashMap<>();
@@ -155,13 +163,29 @@ public class Config {
   }
 
   public DataModel dataModel(String id) {
-    return getObject(models, id);
+    DataModel model = dataModels.get(id);
+    if (model == null) {
+      // can't use computeIfAbsent since a model may include other ones
+      model = getObject(models, id);
+      DataModel previous = dataModels.putIfAbsent(id, model);
+      if (previous != null) {
+        model = previous;
+      }
+    }
+    return model;
   }
 
   public UserPreferences userPreferences() {
     return userPreferences;
   }
 
+  /**
+   * The dictionary of the registry, shared by every data model.
+   */
+  public Dictionary dictionary() {
+    return dictionary;
+  }
+
   public DataParser dataParser(String id) {
     return getObject(parsers, id);
   }
@@ -197,6 +221,7 @@ public class Config {
     this.commands.addAll(other.commands);
     this.macros.addAll(other.macros);
     this.models.putAll(other.models);
+    this.dataModels.clear();
     this.parsers.putAll(other.parsers);
     this.steps.putAll(other.steps);
     this.pipelines.putAll(other.pipelines);
@@ -43,7 +43,7 @@ public record DataAttributeConfig(String spec) implements ConfigObject<Attribute
   @Override
   public AttributeSpec get(String id, Config config) {
     List<AttributeSpec> specs = spec.lines()
-      .map(AttributeSpec::create)
+      .map(line -> AttributeSpec.create(line, config.dictionary()))
       .collect(Collectors.toList());
 
     if (specs.size() == 1) {
@@ -51,7 +51,7 @@ public record DataModelConfig(String format,
   }
 
   public DataModel get(String id, Config config) {
-    DataModel model = new DataModel(id, format, exportFormat);
+    DataModel model = new DataModel(id, format, exportFormat, config.dictionary());
     attributes.forEach((name, attrConfig) ->
       model.add(name, attrConfig.get(name, config)));
     if (modelsToInclude != null) {
@@ -25,11 +25,13 @@
 package com.backpackcloud.sherlogholmes.model;
 
 import com.backpackcloud.UnbelievableException;
+import com.backpackcloud.sherlogholmes.model.types.DictionaryType;
 
 import java.util.HashSet;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 public class Attribute<E> implements Comparable<Attribute<E>> {
@@ -48,6 +50,10 @@ public class Attribute<E> implements Comparable<Attribute<E>> {
   }
 
   private void setValue(E value) {
+    if (value instanceof String text && spec.type() instanceof DictionaryType type) {
+      // equal values must be the same instance
+      value = (E) type.dictionary().intern(text);
+    }
     if (spec.multivalued() && value != null) {
       this.values.add(value);
     } else {
@@ -93,6 +99,24 @@ public class Attribute<E> implements Comparable<Attribute<E>> {
     return value().map(spec.type()::format);
   }
 
+  /**
+   * The same as {@link #value()}, without wrapping it, for the code that goes through every entry.
+   */
+  E firstValue() {
+    if (spec.multivalued()) {
+      return values.isEmpty() ? null : values.iterator().next();
+    }
+    return value;
+  }
+
+  void forEachValue(Consumer<? super E> action) {
+    if (spec.multivalued()) {
+      values.forEach(action);
+    } else if (value != null) {
+      action.accept(value);
+    }
+  }
+
   public Stream<E> values() {
     if (spec.multivalued()) {
       return values.stream();
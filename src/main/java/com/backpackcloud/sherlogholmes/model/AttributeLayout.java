@@ -0,0 +1,105 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Marcelo "Ataxexe" Guimarães
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.backpackcloud.sherlogholmes.model;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Assigns a fixed slot to each attribute of a {@link DataModel}, so the entries created from it can
+ * keep their attributes in an array.
+ * <p>
+ * The attributes added by the pipelines ($source, $line and $data-model) always get a slot, even if
+ * the model doesn't declare them.
+ */
+public final class AttributeLayout {
+
+  // set by the pipeline instead of the parser
+  static final String[] RESERVED_ATTRIBUTES = {"source", "line", "data-model"};
+  private static final AtomicInteger IDS = new AtomicInteger();
+
+  private final int id;
+  private final String[] names;
+  private final AttributeSpec<?>[] specs;
+  private final Map<String, Integer> slots;
+
+  AttributeLayout(Map<String, AttributeSpec<?>> attributes) {
+    this.id = IDS.getAndIncrement();
+    this.slots = new HashMap<>();
+
+    int size = attributes.size();
+    for (String reserved : RESERVED_ATTRIBUTES) {
+      if (!attributes.containsKey(reserved)) {
+        size++;
+      }
+    }
+    this.names = new String[size];
+    this.specs = new AttributeSpec[size];
+
+    int slot = 0;
+    for (Map.Entry<String, AttributeSpec<?>> attribute : attributes.entrySet()) {
+      names[slot] = attribute.getKey();
+      specs[slot] = attribute.getValue();
+      slots.put(attribute.getKey(), slot++);
+    }
+    for (String reserved : RESERVED_ATTRIBUTES) {
+      if (!slots.containsKey(reserved)) {
+        names[slot] = reserved;
+        slots.put(reserved, slot++);
+      }
+    }
+  }
+
+  /**
+   * A sequential number that identifies this layout.
+   */
+  public int id() {
+    return id;
+  }
+
+  public int size() {
+    return names.length;
+  }
+
+  public String name(int slot) {
+    return names[slot];
+  }
+
+  /**
+   * Returns the spec declared for the given slot, or {@code null} for undeclared reserved attributes.
+   */
+  public AttributeSpec<?> spec(int slot) {
+    return specs[slot];
+  }
+
+  /**
+   * Returns the slot of the given attribute, or -1 if this layout doesn't have one for it.
+   */
+  public int slotOf(String name) {
+    return slots.getOrDefault(name, -1);
+  }
+
+}
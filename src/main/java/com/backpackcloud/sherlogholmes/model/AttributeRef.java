@@ -0,0 +1,110 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Marcelo "Ataxexe" Guimarães
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.backpackcloud.sherlogholmes.model;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * A reference to an attribute by its name, which finds the slot of the attribute only once for each
+ * {@link AttributeLayout}.
+ * <p>
+ * Code that looks up the same attributes for every entry (like filters, counters and steps) should
+ * create its references when it's built instead of looking up the attributes by name.
+ */
+public final class AttributeRef {
+
+  // the slot plus 2 for each layout id, so 0 means the layout wasn't seen and 1 means it has no slot
+  private volatile int[] slots;
+  private final String name;
+
+  public AttributeRef(String name) {
+    this.name = name;
+    this.slots = new int[0];
+  }
+
+  public String name() {
+    return name;
+  }
+
+  /**
+   * Returns the referenced attribute of the given entry, or {@code null} if the entry doesn't have it.
+   */
+  public <E> Attribute<E> find(DataEntry entry) {
+    AttributeLayout layout = entry.layout();
+    if (layout != null) {
+      int slot = slotIn(layout);
+      if (slot >= 0) {
+        return entry.attributeAt(slot);
+      }
+    }
+    return entry.<E>attribute(name).orElse(null);
+  }
+
+  public <E> Optional<Attribute<E>> from(DataEntry entry) {
+    return Optional.ofNullable(find(entry));
+  }
+
+  public boolean isPresentIn(DataEntry entry) {
+    return find(entry) != null;
+  }
+
+  /**
+   * Adds the given attribute, which must have the referenced name, to the entry.
+   */
+  public void set(DataEntry entry, Attribute<?> attribute) {
+    AttributeLayout layout = entry.layout();
+    int slot = layout == null ? -1 : slotIn(layout);
+    if (slot >= 0) {
+      entry.attributeAt(slot, attribute);
+    } else {
+      entry.addAttribute(attribute);
+    }
+  }
+
+  private int slotIn(AttributeLayout layout) {
+    int id = layout.id();
+    int[] slots = this.slots;
+    if (id < slots.length && slots[id] != 0) {
+      return slots[id] - 2;
+    }
+    int slot = layout.slotOf(name);
+    synchronized (this) {
+      slots = this.slots;
+      if (id >= slots.length) {
+        slots = Arrays.copyOf(slots, id + 1);
+      }
+      slots[id] = slot + 2;
+      this.slots = slots;
+    }
+    return slot;
+  }
+
+  @Override
+  public String toString() {
+    return name;
+  }
+
+}
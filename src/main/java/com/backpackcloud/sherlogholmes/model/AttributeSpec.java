@@ -25,6 +25,8 @@
 package com.backpackcloud.sherlogholmes.model;
 
 import com.backpackcloud.UnbelievableException;
+import com.backpackcloud.sherlogholmes.model.types.DictionaryType;
+import com.backpackcloud.sherlogholmes.model.types.IndexedType;
 import com.backpackcloud.sherlogholmes.model.types.TemporalType;
 
 import java.time.LocalDate;
@@ -40,6 +42,15 @@ public record AttributeSpec<E>(AttributeType<E> type,
                                boolean multivalued) {
 
   public static AttributeSpec<?> create(String spec) {
+    return create(spec, new Dictionary());
+  }
+
+  /**
+   * Creates a spec from its textual form, keeping the values of enums and of texts configured
+   * as {@code text | dictionary} in the given dictionary. Texts configured as {@code text | indexed}
+   * have their words indexed.
+   */
+  public static AttributeSpec<?> create(String spec, Dictionary dictionary) {
     Matcher matcher = Pattern.compile("^(?<type>[0-9a-zA-Z\\-_]+\\*?)(?<multivalued>\\[\\])?\\s*\\|?\\s*(?<config>.+)?$")
       .matcher(spec);
 
@@ -49,10 +60,17 @@ public record AttributeSpec<E>(AttributeType<E> type,
       boolean multivalued = matcher.group("multivalued") != null;
 
       return switch (type) {
-        case "text" -> new AttributeSpec<>(AttributeType.text(), multivalued);
+        case "text" -> new AttributeSpec<>(
+          switch (configuration == null ? "" : configuration) {
+            case "dictionary" -> new DictionaryType(AttributeType.text(), dictionary);
+            case "indexed" -> new IndexedType(AttributeType.text());
+            default -> AttributeType.text();
+          },
+          multivalued
+        );
         case "number" -> new AttributeSpec<>(AttributeType.number(), multivalued);
         case "decimal" -> new AttributeSpec<>(AttributeType.decimal(), multivalued);
-        case "enum" -> new AttributeSpec<>(AttributeType.enumOf(configuration.split(",")), multivalued);
+        case "enum" -> new AttributeSpec<>(new DictionaryType(AttributeType.enumOf(configuration.split(",")), dictionary), multivalued);
         case "time" -> new AttributeSpec<>(
           configuration == null ? AttributeType.time() : new TemporalType<>(DateTimeFormatter.ofPattern(configuration), LocalTime::from),
           multivalued
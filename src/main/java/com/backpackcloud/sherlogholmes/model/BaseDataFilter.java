@@ -26,7 +26,9 @@ package com.backpackcloud.sherlogholmes.model;
 
 import com.backpackcloud.cli.Writer;
 
-import java.util.regex.Matcher;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
 import java.util.regex.Pattern;
 
 public class BaseDataFilter implements DataFilter {
@@ -34,26 +36,58 @@ public class BaseDataFilter implements DataFilter {
   private static final Pattern INTERPOLATION_PATTERN = Pattern.compile("\\{\\s*(?<name>[^}]+)\\s*}");
 
   private final String attribute;
+  private final AttributeRef attributeRef;
   private final Operation operation;
   private final String reference;
+  // the same interpolation as the compiled filter, so both always agree
+  private final Template template;
 
   public BaseDataFilter(String attribute, Operation operation, String reference) {
     this.attribute = attribute;
+    this.attributeRef = new AttributeRef(attribute);
     this.operation = operation;
     this.reference = reference;
+    this.template = Template.compile(reference, INTERPOLATION_PATTERN, false);
+  }
+
+  String attribute() {
+    return attribute;
+  }
+
+  Operation operation() {
+    return operation;
+  }
+
+  String reference() {
+    return reference;
+  }
+
+  boolean isInterpolated() {
+    return !template.isConstant();
   }
 
   @Override
   public boolean test(DataEntry entry) {
-    Matcher matcher = INTERPOLATION_PATTERN.matcher(reference);
-    String value = matcher.replaceAll(
-      matchResult -> entry.attribute(matcher.group("name"))
-        .flatMap(Attribute::formattedValue)
-        .orElse("")
-    );
-    return entry.attribute(attribute)
-      .filter(attribute -> operation.execute(attribute, value.isBlank() ? null : attribute.spec().type().convert(value)))
-      .isPresent();
+    Attribute<?> target = attributeRef.find(entry);
+    if (target == null) {
+      return false;
+    }
+    String value = template.render(entry);
+    return operation.execute(target, value.isBlank() ? null : target.spec().type().convert(value));
+  }
+
+  /**
+   * Checks if the reference can be used by the operation, unless it depends on the entries.
+   */
+  void validate() {
+    if (!isInterpolated()) {
+      operation.validate(reference);
+    }
+  }
+
+  @Override
+  public DataFilter compile() {
+    return new CompiledFilter();
   }
 
   @Override
@@ -80,4 +114,75 @@ public class BaseDataFilter implements DataFilter {
     return new CompositeFilter(this, other, CompositeFilter.BooleanOperation.AND);
   }
 
+  /**
+   * Parses the reference only once for each type of attribute it's tested against, or just
+   * once at all for the interpolation if it has any placeholder.
+   */
+  private class CompiledFilter implements DataFilter {
+
+    private final boolean constant;
+    private final Map<AttributeType<?>, Predicate<Attribute<?>>> bindings;
+    // most of the time the attribute has the same type in every entry
+    private volatile Binding last;
+
+    private CompiledFilter() {
+      this.constant = template.isConstant();
+      this.bindings = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public boolean test(DataEntry entry) {
+      Attribute<?> target = attributeRef.find(entry);
+      if (target == null) {
+        return false;
+      }
+      AttributeType<?> type = target.spec().type();
+      if (constant) {
+        return bindingFor(type).test(target);
+      }
+      String value = template.render(entry);
+      return operation.execute(target, value.isBlank() ? null : type.convert(value));
+    }
+
+    private Predicate<Attribute<?>> bindingFor(AttributeType<?> type) {
+      Binding binding = last;
+      if (binding != null && binding.type() == type) {
+        return binding.predicate();
+      }
+      Predicate<Attribute<?>> predicate = bindings.get(type);
+      if (predicate == null) {
+        // a reference that can't be converted fails every time, just like when not compiled
+        predicate = operation.bind(type, reference.isBlank() ? null : type.convert(reference));
+        bindings.put(type, predicate);
+      }
+      last = new Binding(type, predicate);
+      return predicate;
+    }
+
+    @Override
+    public DataFilter negate() {
+      return BaseDataFilter.this.negate().compile();
+    }
+
+    @Override
+    public void toDisplay(Writer writer) {
+      BaseDataFilter.this.toDisplay(writer);
+    }
+
+    @Override
+    public DataFilter or(DataFilter other) {
+      return new CompositeFilter(this, other, CompositeFilter.BooleanOperation.OR);
+    }
+
+    @Override
+    public DataFilter and(DataFilter other) {
+      return new CompositeFilter(this, other, CompositeFilter.BooleanOperation.AND);
+    }
+
+  }
+
+  private record Binding(AttributeType<?> type, Predicate<Attribute<?>> predicate) {
+
+  }
+
 }
@@ -26,6 +26,11 @@ package com.backpackcloud.sherlogholmes.model;
 
 import com.backpackcloud.cli.Writer;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 public class CompositeFilter implements DataFilter {
 
   private final DataFilter left;
@@ -38,6 +43,18 @@ public class CompositeFilter implements DataFilter {
     this.operation = operation;
   }
 
+  DataFilter left() {
+    return left;
+  }
+
+  DataFilter right() {
+    return right;
+  }
+
+  BooleanOperation operation() {
+    return operation;
+  }
+
   @Override
   public boolean test(DataEntry entry) {
     return switch (operation) {
@@ -67,6 +84,53 @@ public class CompositeFilter implements DataFilter {
     return new CompositeFilter(this, other, BooleanOperation.AND);
   }
 
+  /**
+   * Compiles the filters joined by this operation, grouping the ones that look for texts in the same
+   * attribute so they're all looked for at once.
+   */
+  @Override
+  public DataFilter compile() {
+    List<DataFilter> parts = new ArrayList<>();
+    flatten(this, parts);
+    Operation grouped = operation == BooleanOperation.OR ? Operation.CONTAINS : Operation.EXCLUDES;
+    Map<String, List<BaseDataFilter>> groups = new LinkedHashMap<>();
+    for (DataFilter part : parts) {
+      if (part instanceof BaseDataFilter base && base.operation() == grouped && !base.isInterpolated()) {
+        groups.computeIfAbsent(base.attribute(), attribute -> new ArrayList<>()).add(base);
+      }
+    }
+    groups.values().removeIf(group -> group.size() < 2);
+    if (groups.isEmpty()) {
+      return new CompositeFilter(left.compile(), right.compile(), operation);
+    }
+
+    // each group takes the place of its first filter
+    DataFilter result = null;
+    for (DataFilter part : parts) {
+      List<BaseDataFilter> group = part instanceof BaseDataFilter base ? groups.get(base.attribute()) : null;
+      DataFilter compiled;
+      if (group != null && group.contains(part)) {
+        if (group.getFirst() != part) {
+          continue;
+        }
+        compiled = new ContainsAnyFilter(group);
+      } else {
+        compiled = part.compile();
+      }
+      result = result == null ? compiled : new CompositeFilter(result, compiled, operation);
+    }
+    return result;
+  }
+
+  private void flatten(DataFilter filter, List<DataFilter> parts) {
+    if (filter instanceof CompositeFilter composite && composite.operation == operation) {
+      flatten(composite.left, parts);
+      flatten(composite.right, parts);
+    } else {
+      parts.add(filter);
+    }
+  }
+
   @Override
   public DataFilter negate() {
     return switch (operation) {
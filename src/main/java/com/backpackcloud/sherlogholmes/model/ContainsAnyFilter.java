@@ -0,0 +1,110 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Marcelo "Ataxexe" Guimarães
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.backpackcloud.sherlogholmes.model;
+
+import com.backpackcloud.cli.Writer;
+import com.backpackcloud.sherlogholmes.util.MultiTextMatcher;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The {@link Operation#CONTAINS} filters on the same attribute joined by OR, or their negation (the
+ * {@link Operation#EXCLUDES} ones joined by AND), looking for all the texts in a single pass over each value.
+ */
+final class ContainsAnyFilter implements DataFilter {
+
+  private final List<BaseDataFilter> parts;
+  private final AttributeRef attributeRef;
+  private final boolean excludes;
+  private final Map<AttributeType<?>, MultiTextMatcher> matchers;
+  // most of the time the attribute has the same type in every entry
+  private volatile Binding last;
+
+  ContainsAnyFilter(List<BaseDataFilter> parts) {
+    this.parts = List.copyOf(parts);
+    this.attributeRef = new AttributeRef(parts.getFirst().attribute());
+    this.excludes = parts.getFirst().operation() == Operation.EXCLUDES;
+    this.matchers = new ConcurrentHashMap<>();
+  }
+
+  @Override
+  public boolean test(DataEntry entry) {
+    Attribute<?> target = attributeRef.find(entry);
+    if (target == null) {
+      return false;
+    }
+    MultiTextMatcher matcher = matcherFor(target.spec().type());
+    return excludes
+      ? target.formattedValues().noneMatch(matcher::containsAny)
+      : target.formattedValues().anyMatch(matcher::containsAny);
+  }
+
+  private MultiTextMatcher matcherFor(AttributeType<?> type) {
+    Binding binding = last;
+    if (binding != null && binding.type() == type) {
+      return binding.matcher();
+    }
+    // the references are turned into texts just like each filter would do on its own
+    MultiTextMatcher matcher = matchers.computeIfAbsent(type, key -> MultiTextMatcher.of(parts.stream()
+      .map(BaseDataFilter::reference)
+      .map(reference -> String.valueOf(reference.isBlank() ? null : key.convert(reference)))
+      .toList()));
+    last = new Binding(type, matcher);
+    return matcher;
+  }
+
+  @Override
+  public DataFilter negate() {
+    return new ContainsAnyFilter(parts.stream()
+      .map(part -> (BaseDataFilter) part.negate())
+      .toList());
+  }
+
+  @Override
+  public void toDisplay(Writer writer) {
+    parts.stream()
+      .map(DataFilter.class::cast)
+      .reduce(excludes ? DataFilter::and : DataFilter::or)
+      .orElseThrow()
+      .toDisplay(writer);
+  }
+
+  @Override
+  public DataFilter or(DataFilter other) {
+    return new CompositeFilter(this, other, CompositeFilter.BooleanOperation.OR);
+  }
+
+  @Override
+  public DataFilter and(DataFilter other) {
+    return new CompositeFilter(this, other, CompositeFilter.BooleanOperation.AND);
+  }
+
+  private record Binding(AttributeType<?> type, MultiTextMatcher matcher) {
+
+  }
+
+}
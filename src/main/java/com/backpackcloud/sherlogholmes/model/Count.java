@@ -27,14 +27,14 @@ package com.backpackcloud.sherlogholmes.model;
 public class Count<E> implements Comparable<Count<?>> {
 
   private final E object;
-  private final int count;
+  private final long count;
 
-  public Count(E object, int initialCount) {
+  public Count(E object, long initialCount) {
     this.object = object;
     this.count = initialCount;
   }
 
-  public int value() {
+  public long value() {
     return count;
   }
 
@@ -42,12 +42,12 @@ public class Count<E> implements Comparable<Count<?>> {
     return object;
   }
 
-  public double percentageOf(int total) {
+  public double percentageOf(long total) {
     return (100.0 * count) / total;
   }
 
   @Override
   public int compareTo(Count<?> o) {
-    return this.count - o.count;
+    return Long.compare(this.count, o.count);
   }
 }
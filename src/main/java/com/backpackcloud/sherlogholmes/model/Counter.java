@@ -1,71 +1,406 @@
 package com.backpackcloud.sherlogholmes.model;
 
+import com.backpackcloud.sherlogholmes.util.HyperLogLog;
+import com.backpackcloud.sherlogholmes.util.LongTable;
+import com.backpackcloud.sherlogholmes.util.QuantileSketch;
+import com.backpackcloud.sherlogholmes.util.SpaceSaving;
+
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Consumer;
 
+/**
+ * Counts the values of attributes while entries go through it, possibly from many threads at once.
+ * <p>
+ * Counting takes no locks and, once a value was seen, allocates nothing: the counts are striped
+ * {@link LongAdder}s and a combination of values is keyed on the codes of its values instead of their text.
+ * <p>
+ * The counters described by an estimated {@link CounterSpec} keep sketches instead of every distinct value.
+ */
 public class Counter implements Consumer<DataEntry> {
 
-  private final Map<String, Map<Object, AtomicInteger>> counters = new ConcurrentHashMap<>();
+  private final Map<String, Index> counters = new ConcurrentHashMap<>();
+  // what goes through each entry, so accepting it doesn't need to go through the map
+  private volatile Index[] indexes = new Index[0];
+
+  /**
+   * Adds the counter described by the given spec, like {@code level} or {@code message | distinct}.
+   */
+  public void add(String spec) {
+    add(CounterSpec.parse(spec));
+  }
 
-  public void add(String name) {
-    counters.putIfAbsent(name, new ConcurrentHashMap<>());
+  public synchronized void add(CounterSpec spec) {
+    Index current = counters.get(spec.name());
+    if (current == null || !current.spec().equals(spec)) {
+      counters.put(spec.name(), Index.of(spec));
+      indexes = counters.values().toArray(Index[]::new);
+    }
   }
 
-  public void remove(String name) {
-    counters.remove(name);
+  public synchronized void remove(String name) {
+    if (counters.remove(name) != null) {
+      indexes = counters.values().toArray(Index[]::new);
+    }
   }
 
   public Set<String> names() {
     return new HashSet<>(counters.keySet());
   }
 
+  public List<CounterSpec> specs() {
+    return counters.values().stream().map(Index::spec).toList();
+  }
+
+  public Optional<CounterSpec> specFor(String name) {
+    return Optional.ofNullable(this.counters.get(name)).map(Index::spec);
+  }
+
   public void accept(DataEntry entry) {
-    counters.forEach((counterName, valuesMap) -> {
-      Consumer<Object> addToIndex = value -> {
-        if (!valuesMap.containsKey(value)) {
-          valuesMap.put(value, new AtomicInteger());
-        }
-        valuesMap.get(value).incrementAndGet();
+    for (Index index : indexes) {
+      index.accept(entry);
+    }
+  }
+
+  /**
+   * Returns a snapshot of the counts of the given counter, which are only the most frequent values for
+   * an estimated one.
+   */
+  public Optional<Map<?, Long>> counterFor(String name) {
+    return Optional.ofNullable(this.counters.get(name))
+      .map(Index::counts);
+  }
+
+  /**
+   * Returns the estimates of the given counter, if it's an estimated one.
+   */
+  public Optional<CounterEstimate> estimateFor(String name) {
+    return Optional.ofNullable(this.counters.get(name))
+      .filter(EstimatedIndex.class::isInstance)
+      .map(index -> ((EstimatedIndex) index).estimate());
+  }
+
+  /**
+   * Returns the sketch of the numbers of the given counter, if it's a {@link CounterSpec.Mode#STATS stats} one.
+   */
+  public Optional<QuantileSketch> statsFor(String name) {
+    return Optional.ofNullable(this.counters.get(name))
+      .filter(StatsIndex.class::isInstance)
+      .map(index -> ((StatsIndex) index).sketch);
+  }
+
+  public Optional<Set<?>> valuesFor(String name) {
+    return counterFor(name).map(Map::keySet);
+  }
+
+  /**
+   * An estimate of the memory taken by the counters, in bytes, not counting the values the entries
+   * already hold.
+   */
+  public long footprint() {
+    long result = 0;
+    for (Index index : indexes) {
+      result += index.footprint();
+    }
+    return result;
+  }
+
+  public synchronized void clear() {
+    this.counters.replaceAll((name, index) -> Index.of(index.spec()));
+    indexes = counters.values().toArray(Index[]::new);
+  }
+
+  private interface Index {
+
+    CounterSpec spec();
+
+    void accept(DataEntry entry);
+
+    Map<?, Long> counts();
+
+    long footprint();
+
+    static Index of(CounterSpec spec) {
+      return switch (spec.mode()) {
+        case EXACT -> new ExactIndex(spec);
+        case DISTINCT, TOP -> new EstimatedIndex(spec);
+        case STATS -> new StatsIndex(spec);
       };
-      if (counterName.contains(":")) {
-        String[] attributes = counterName.split(":");
-        String[] values = new String[attributes.length];
-        for (int i = 0; i < attributes.length; i++) {
-          String attr = attributes[i];
-          if (!entry.hasAttribute(attr)) {
-            return;
-          }
-          Optional<String> value = entry.attribute(attr)
-            .flatMap(Attribute::formattedValue);
-          if (value.isEmpty()) {
-            return;
-          }
-          values[i] = value.get();
+    }
+
+  }
+
+  private static final class ExactIndex implements Index {
+
+    private final CounterSpec spec;
+
+    private final AttributeRef[] attributes;
+    private final boolean composite;
+    private final Map<Object, LongAdder> values;
+    private final Consumer<Object> increment;
+    // a code for each value of each attribute of a combination
+    private final Map<Object, Integer>[] codes;
+    // the combinations of the first attributes, coded again so any combination fits in a single long
+    private final LongTable<Integer>[] prefixes;
+    private final LongTable<Combination> combinations;
+
+    // a name like "a:b" counts the combination of the values of both attributes
+    @SuppressWarnings("unchecked")
+    private ExactIndex(CounterSpec spec) {
+      String name = spec.name();
+      this.spec = spec;
+      this.attributes = Arrays.stream(name.split(":")).map(AttributeRef::new).toArray(AttributeRef[]::new);
+      this.composite = name.contains(":");
+      this.values = new ConcurrentHashMap<>();
+      this.increment = this::increment;
+      this.codes = new Map[attributes.length];
+      this.prefixes = new LongTable[attributes.length];
+      for (int i = 0; i < attributes.length; i++) {
+        codes[i] = new ConcurrentHashMap<>();
+        prefixes[i] = new LongTable<>();
+      }
+      this.combinations = new LongTable<>();
+    }
+
+    @Override
+    public CounterSpec spec() {
+      return spec;
+    }
+
+    @Override
+    public void accept(DataEntry entry) {
+      if (composite) {
+        acceptCombination(entry);
+      } else {
+        Attribute<?> attribute = attributes[0].find(entry);
+        if (attribute != null) {
+          attribute.forEachValue(increment);
+        }
+      }
+    }
+
+    private void increment(Object value) {
+      LongAdder count = values.get(value);
+      if (count == null) {
+        count = values.computeIfAbsent(value, key -> new LongAdder());
+      }
+      count.increment();
+    }
+
+    private void acceptCombination(DataEntry entry) {
+      long key = 0;
+      for (int i = 0; i < attributes.length; i++) {
+        Attribute<?> attribute = attributes[i].find(entry);
+        Object value = attribute == null ? null : attribute.firstValue();
+        if (value == null) {
+          return;
+        }
+        int code = code(i, value);
+        key = i == 0 ? code : pack(prefix(i - 1, key), code);
+      }
+      Combination combination = combinations.get(key);
+      if (combination == null) {
+        combination = combinations.putIfAbsent(key, new Combination(format(entry), new LongAdder()));
+      }
+      combination.count().increment();
+    }
+
+    private int code(int position, Object value) {
+      Integer code = codes[position].get(value);
+      if (code == null) {
+        Map<Object, Integer> known = codes[position];
+        synchronized (known) {
+          code = known.computeIfAbsent(value, key -> known.size());
         }
-        addToIndex.accept(String.join(":", values));
+      }
+      return code;
+    }
+
+    /**
+     * The code of the combination of the first attributes up to the given one, which is the key itself for the
+     * first one.
+     */
+    private long prefix(int position, long key) {
+      if (position == 0) {
+        return key;
+      }
+      Integer code = prefixes[position].get(key);
+      if (code == null) {
+        LongTable<Integer> known = prefixes[position];
+        synchronized (known) {
+          code = known.putIfAbsent(key, known.size());
+        }
+      }
+      return code;
+    }
+
+    private static long pack(long prefix, int code) {
+      return (prefix << 32) | code;
+    }
+
+    private String format(DataEntry entry) {
+      String[] texts = new String[attributes.length];
+      for (int i = 0; i < attributes.length; i++) {
+        Attribute<?> attribute = attributes[i].find(entry);
+        texts[i] = attribute.formattedValue().orElseThrow();
+      }
+      return String.join(":", texts);
+    }
+
+    @Override
+    public Map<?, Long> counts() {
+      Map<Object, Long> result = new HashMap<>();
+      if (composite) {
+        // different values may be written the same way, just like they're shown
+        combinations.forEach((key, combination) ->
+          result.merge(combination.text(), combination.count().sum(), Long::sum));
       } else {
-        entry.attribute(counterName)
-          .ifPresent(attr -> attr.values().forEach(addToIndex));
+        values.forEach((value, count) -> result.put(value, count.sum()));
+      }
+      return result;
+    }
+
+    @Override
+    public long footprint() {
+      // the entries of the maps, their counts and, for the combinations, the texts shown for them
+      long result = values.size() * (48L + 24L) + combinations.footprint() + combinations.size() * (24L + 24L + 48L);
+      for (int i = 0; i < attributes.length; i++) {
+        result += codes[i].size() * 48L + prefixes[i].footprint();
       }
-    });
+      return result;
+    }
+
   }
 
-  public Optional<Map<?, AtomicInteger>> counterFor(String name) {
-    return Optional.ofNullable(this.counters.get(name));
+  private record Combination(String text, LongAdder count) {
+
   }
 
-  public Optional<Set<?>> valuesFor(String name) {
-    return Optional.ofNullable(this.counters.get(name))
-      .map(Map::keySet);
+  /**
+   * Keeps the distinct values in a {@link HyperLogLog} and, for the top values, the most frequent
+   * ones in a {@link SpaceSaving}, both taking a fixed amount of memory.
+   */
+  private static final class EstimatedIndex implements Index {
+
+    // the error of the distinct count when it isn't what's being estimated
+    private static final double TOP_DISTINCT_ERROR = 0.01;
+
+    private final CounterSpec spec;
+    private final AttributeRef attribute;
+    private final LongAdder total;
+    private final HyperLogLog distinct;
+    private final SpaceSaving top;
+    private final Consumer<Object> add;
+
+    private EstimatedIndex(CounterSpec spec) {
+      this.spec = spec;
+      this.attribute = new AttributeRef(spec.name());
+      this.total = new LongAdder();
+      boolean tracksTop = spec.mode() == CounterSpec.Mode.TOP;
+      this.distinct = HyperLogLog.withError(tracksTop ? TOP_DISTINCT_ERROR : spec.error());
+      this.top = tracksTop ? SpaceSaving.withError(spec.error()) : null;
+      this.add = this::add;
+    }
+
+    @Override
+    public CounterSpec spec() {
+      return spec;
+    }
+
+    @Override
+    public void accept(DataEntry entry) {
+      Attribute<?> found = attribute.find(entry);
+      if (found != null) {
+        found.forEachValue(add);
+      }
+    }
+
+    private void add(Object value) {
+      long hash = HyperLogLog.hash(value);
+      total.increment();
+      distinct.addHash(hash);
+      if (top != null) {
+        top.add(value, hash);
+      }
+    }
+
+    @Override
+    public Map<?, Long> counts() {
+      Map<Object, Long> result = new HashMap<>();
+      if (top != null) {
+        top.top(spec.top()).forEach(estimate -> result.put(estimate.value(), estimate.count()));
+      }
+      return result;
+    }
+
+    @Override
+    public long footprint() {
+      return distinct.footprint() + (top == null ? 0 : top.footprint());
+    }
+
+    private CounterEstimate estimate() {
+      return new CounterEstimate(
+        spec,
+        total.sum(),
+        distinct.estimate(),
+        distinct.error(),
+        top == null ? List.of() : top.top(spec.top())
+      );
+    }
+
   }
 
-  public void clear() {
-    this.counters.forEach((key, map) -> map.clear());
+  /**
+   * Keeps the numbers of an attribute in a {@link QuantileSketch}, ignoring any value that isn't a number.
+   */
+  private static final class StatsIndex implements Index {
+
+    private final CounterSpec spec;
+    private final AttributeRef attribute;
+    private final QuantileSketch sketch;
+    private final Consumer<Object> add;
+
+    private StatsIndex(CounterSpec spec) {
+      this.spec = spec;
+      this.attribute = new AttributeRef(spec.name());
+      this.sketch = new QuantileSketch(spec.error());
+      this.add = value -> {
+        if (value instanceof Number number) {
+          sketch.add(number.doubleValue());
+        }
+      };
+    }
+
+    @Override
+    public CounterSpec spec() {
+      return spec;
+    }
+
+    @Override
+    public void accept(DataEntry entry) {
+      Attribute<?> found = attribute.find(entry);
+      if (found != null) {
+        found.forEachValue(add);
+      }
+    }
+
+    @Override
+    public Map<?, Long> counts() {
+      return new HashMap<>();
+    }
+
+    @Override
+    public long footprint() {
+      return sketch.footprint();
+    }
+
   }
 
 }
@@ -0,0 +1,108 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Marcelo "Ataxexe" Guimarães
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.backpackcloud.sherlogholmes.model;
+
+import com.backpackcloud.UnbelievableException;
+import com.backpackcloud.sherlogholmes.util.QuantileSketch;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * What a counter counts and how, written as {@code attribute} for exact counts or with a mode after a pipe:
+ * <ul>
+ *   <li>{@code attribute | distinct [error]} estimates only how many distinct values there are</li>
+ *   <li>{@code attribute | top [size] [error]} estimates the counts of the most frequent values</li>
+ *   <li>{@code attribute | stats [accuracy]} estimates the quantiles of a numeric attribute</li>
+ * </ul>
+ * The estimated counters take the same memory no matter how many distinct values there are, which is
+ * set by the error (a fraction, like {@code 0.01}).
+ */
+public record CounterSpec(String name, Mode mode, int top, double error) {
+
+  public static final double DEFAULT_DISTINCT_ERROR = 0.01;
+  public static final double DEFAULT_TOP_ERROR = 0.001;
+  public static final int DEFAULT_TOP = 10;
+
+  public CounterSpec {
+    if (mode != Mode.EXACT && name.contains(":")) {
+      throw new UnbelievableException("Only single attributes can have their counts estimated: " + name);
+    }
+    if (error <= 0 || error >= 1) {
+      throw new UnbelievableException("The error must be between 0 and 1: " + error);
+    }
+    if (top < 1) {
+      throw new UnbelievableException("The number of values must be positive: " + top);
+    }
+  }
+
+  public static CounterSpec exact(String name) {
+    return new CounterSpec(name, Mode.EXACT, DEFAULT_TOP, DEFAULT_TOP_ERROR);
+  }
+
+  public static CounterSpec parse(String spec) {
+    String[] parts = spec.split("\\|", 2);
+    String name = parts[0].trim();
+    if (parts.length == 1 || parts[1].isBlank()) {
+      return exact(name);
+    }
+    String[] options = parts[1].trim().split("\\s+");
+    try {
+      Mode mode = Mode.valueOf(options[0].toUpperCase(Locale.ROOT));
+      String[] arguments = Arrays.copyOfRange(options, 1, options.length);
+      return switch (mode) {
+        case EXACT -> exact(name);
+        case DISTINCT -> new CounterSpec(name, mode, DEFAULT_TOP,
+          arguments.length > 0 ? Double.parseDouble(arguments[0]) : DEFAULT_DISTINCT_ERROR);
+        case TOP -> new CounterSpec(name, mode,
+          arguments.length > 0 ? Integer.parseInt(arguments[0]) : DEFAULT_TOP,
+          arguments.length > 1 ? Double.parseDouble(arguments[1]) : DEFAULT_TOP_ERROR);
+        case STATS -> new CounterSpec(name, mode, DEFAULT_TOP,
+          arguments.length > 0 ? Double.parseDouble(arguments[0]) : QuantileSketch.DEFAULT_ACCURACY);
+      };
+    } catch (IllegalArgumentException e) {
+      throw new UnbelievableException("Invalid counter: " + spec);
+    }
+  }
+
+  public boolean isEstimated() {
+    return mode != Mode.EXACT;
+  }
+
+  @Override
+  public String toString() {
+    return switch (mode) {
+      case EXACT -> name;
+      case DISTINCT -> name + " | distinct " + error;
+      case TOP -> name + " | top " + top + " " + error;
+      case STATS -> name + " | stats " + error;
+    };
+  }
+
+  public enum Mode {
+    EXACT, DISTINCT, TOP, STATS
+  }
+
+}
@@ -31,28 +31,85 @@ import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Optional;
 
 public class DataEntry implements Comparable<DataEntry> {
 
-  private final Map<String, Attribute> attributes;
+  private static final Attribute[] NO_SLOTS = new Attribute[0];
+
+  private final AttributeLayout layout;
+  private final Attribute[] slots;
+  // the attributes without a slot, only created when needed for entries with a layout
+  private Map<String, Attribute> attributes;
+  private SortKey sortKey;
 
   public DataEntry(DataModel dataModel) {
-    this();
-    dataModel.attributes().forEach(this::addAttribute);
+    this.layout = dataModel.layout();
+    this.slots = new Attribute[layout.size()];
+    for (int slot = 0; slot < slots.length; slot++) {
+      AttributeSpec spec = layout.spec(slot);
+      if (spec != null) {
+        slots[slot] = new Attribute(layout.name(slot), spec);
+      }
+    }
   }
 
   public DataEntry() {
-    this.attributes = new LinkedHashMap<>();
+    this(new LinkedHashMap<>());
+  }
+
+  protected DataEntry(Map<String, Attribute> attributes) {
+    this.layout = null;
+    this.slots = NO_SLOTS;
+    this.attributes = attributes;
+  }
+
+  AttributeLayout layout() {
+    return layout;
+  }
+
+  <E> Attribute<E> attributeAt(int slot) {
+    return slots[slot];
+  }
+
+  void attributeAt(int slot, Attribute attribute) {
+    slots[slot] = attribute;
+  }
+
+  /**
+   * The key used to order this entry, computed from its attributes the first time it's needed.
+   */
+  public SortKey sortKey() {
+    SortKey key = sortKey;
+    if (key == null) {
+      key = SortKey.of(this);
+      sortKey = key;
+    }
+    return key;
+  }
+
+  private int slotOf(String name) {
+    return layout == null ? -1 : layout.slotOf(name);
   }
 
   public boolean hasAttribute(String name) {
-    return this.attributes.containsKey(name);
+    int slot = slotOf(name);
+    if (slot >= 0) {
+      return slots[slot] != null;
+    }
+    return this.attributes != null && this.attributes.containsKey(name);
   }
 
   public void addAttribute(Attribute attribute) {
-    this.attributes.put(attribute.name(), attribute);
+    int slot = slotOf(attribute.name());
+    if (slot >= 0) {
+      slots[slot] = attribute;
+    } else {
+      if (this.attributes == null) {
+        this.attributes = new LinkedHashMap<>();
+      }
+      this.attributes.put(attribute.name(), attribute);
+    }
   }
 
   public void addAttribute(String name, AttributeSpec spec) {
@@ -60,43 +117,63 @@ public class DataEntry implements Comparable<DataEntry> {
   }
 
   public AttributeBuilder addAttribute(String name) {
-    return new AttributeBuilder<>(name, dataAttribute -> this.attributes.put(name, dataAttribute));
+    return new AttributeBuilder<>(name, this::addAttribute);
   }
 
   public <E> AttributeBuilder<E> addAttribute(String name, Class<E> valueType) {
-    return new AttributeBuilder<>(name, valueType, dataAttribute -> this.attributes.put(name, dataAttribute));
+    return new AttributeBuilder<>(name, valueType, this::addAttribute);
   }
 
   public <E> AttributeBuilder<E> addAttribute(String name, E value) {
-    return new AttributeBuilder<>(name, value, dataAttribute -> this.attributes.put(name, dataAttribute));
+    return new AttributeBuilder<>(name, value, this::addAttribute);
   }
 
   public void remove(Attribute attribute) {
-    if (this.attributes.containsValue(attribute)) {
+    int slot = slotOf(attribute.name());
+    if (slot >= 0) {
+      if (attribute.equals(slots[slot])) {
+        slots[slot] = null;
+      }
+    } else if (this.attributes != null && this.attributes.containsValue(attribute)) {
       this.attributes.remove(attribute.name());
     }
   }
 
   public void remove(String name) {
-    this.attributes.remove(name);
+    int slot = slotOf(name);
+    if (slot >= 0) {
+      slots[slot] = null;
+    } else if (this.attributes != null) {
+      this.attributes.remove(name);
+    }
   }
 
   public <E> Optional<Attribute<E>> attribute(String name) {
     if (name == null) {
       return Optional.empty();
     }
-    return Optional.ofNullable(this.attributes.get(name));
+    int slot = slotOf(name);
+    if (slot >= 0) {
+      return Optional.ofNullable(slots[slot]);
+    }
+    return Optional.ofNullable(this.attributes == null ? null : this.attributes.get(name));
   }
 
   public <E> Optional<Attribute<E>> attribute(String name, Class<E> type) {
-    if (name == null) {
-      return Optional.empty();
-    }
-    return Optional.ofNullable(this.attributes.get(name));
+    return attribute(name);
   }
 
   public List<Attribute> attributes() {
-    return new ArrayList<>(this.attributes.values());
+    List<Attribute> result = new ArrayList<>(slots.length + (this.attributes == null ? 0 : this.attributes.size()));
+    for (Attribute attribute : slots) {
+      if (attribute != null) {
+        result.add(attribute);
+      }
+    }
+    if (this.attributes != null) {
+      result.addAll(this.attributes.values());
+    }
+    return result;
   }
 
   public void write(Writer writer, String outputFormat) {
@@ -135,7 +212,7 @@ public class DataEntry implements Comparable<DataEntry> {
   }
 
   public int compareTo(DataEntry other) {
-    for (Attribute attribute : attributes.values()) {
+    for (Attribute attribute : attributes()) {
       int result = other.attribute(attribute.name())
         .map(otherAttribute -> attribute.compareTo(otherAttribute))
         .orElse(1);
@@ -149,10 +226,11 @@ public class DataEntry implements Comparable<DataEntry> {
   public boolean equals(Object o) {
     if (this == o) return true;
     if (!(o instanceof DataEntry dataEntry)) return false;
+    List<Attribute> attributes = attributes();
     if (attributes.size() != dataEntry.attributes().size()) {
       return false;
     }
-    for (Attribute<?> attribute : attributes.values()) {
+    for (Attribute<?> attribute : attributes) {
       boolean equals = dataEntry.attribute(attribute.name())
         .map(attribute::equals)
         .orElse(false);
@@ -164,7 +242,8 @@ public class DataEntry implements Comparable<DataEntry> {
   }
 
   public int hashCode() {
-    return Objects.hash(attributes);
+    // the attributes may come in any order, so the hash can't depend on it
+    return attributes().stream().mapToInt(Attribute::hashCode).sum();
   }
 
 }
@@ -67,6 +67,16 @@ public interface DataFilter extends Displayable, Predicate<DataEntry> {
   @Override
   DataFilter negate();
 
+  /**
+   * Creates a filter that behaves just like this one but does, only once, all the work that
+   * doesn't depend on the tested entries.
+   * <p>
+   * Meant for filters that will test lots of entries.
+   */
+  default DataFilter compile() {
+    return this;
+  }
+
   DataFilter ALLOW_ALL = new DataFilter() {
     @Override
     public boolean test(DataEntry entry) {
@@ -35,11 +35,18 @@ public class DataModel {
   private final Map<String, AttributeSpec<?>> attributes;
   private final String displayFormat;
   private final String exportFormat;
+  private final Dictionary dictionary;
+  private volatile AttributeLayout layout;
 
   public DataModel(String name, String displayFormat, String exportFormat) {
+    this(name, displayFormat, exportFormat, new Dictionary());
+  }
+
+  public DataModel(String name, String displayFormat, String exportFormat, Dictionary dictionary) {
     this.name = name;
     this.displayFormat = displayFormat;
     this.exportFormat = exportFormat;
+    this.dictionary = dictionary;
     this.attributes = new LinkedHashMap<>();
   }
 
@@ -49,6 +56,7 @@ public class DataModel {
 
   public DataModel add(String name, AttributeSpec<?> spec) {
     this.attributes.put(name, spec);
+    this.layout = null;
     return this;
   }
 
@@ -68,6 +76,13 @@ public class DataModel {
     });
   }
 
+  /**
+   * The dictionary that keeps the values of the attributes with only a few of them.
+   */
+  public Dictionary dictionary() {
+    return dictionary;
+  }
+
   public String displayFormat() {
     return displayFormat;
   }
@@ -76,6 +91,23 @@ public class DataModel {
     return exportFormat;
   }
 
+  /**
+   * The slots of the attributes of the entries created from this model.
+   */
+  public AttributeLayout layout() {
+    AttributeLayout layout = this.layout;
+    if (layout == null) {
+      synchronized (this) {
+        layout = this.layout;
+        if (layout == null) {
+          layout = new AttributeLayout(attributes);
+          this.layout = layout;
+        }
+      }
+    }
+    return layout;
+  }
+
   public DataEntry create() {
     return new DataEntry(this);
   }
@@ -25,6 +25,7 @@
 package com.backpackcloud.sherlogholmes.model;
 
 import java.util.Optional;
+import java.util.Set;
 
 public interface DataParser {
 
@@ -36,6 +37,13 @@ public interface DataParser {
     return false;
   }
 
+  /**
+   * The attributes whose values are taken from the lines exactly as they are written.
+   */
+  default Set<String> capturedAttributes() {
+    return Set.of();
+  }
+
   Optional<DataEntry> parse(Metadata metadata, String content);
 
 }
@@ -25,60 +25,112 @@
 package com.backpackcloud.sherlogholmes.model;
 
 import com.backpackcloud.cli.Registry;
+import com.backpackcloud.sherlogholmes.model.storage.EntryStore;
+import com.backpackcloud.sherlogholmes.model.storage.StorageEngine;
+import com.backpackcloud.sherlogholmes.model.storage.PositionBitmap;
+import com.backpackcloud.sherlogholmes.model.storage.TokenIndex;
+import com.backpackcloud.sherlogholmes.model.storage.ValueIndex;
+import com.backpackcloud.sherlogholmes.model.types.DictionaryType;
+import com.backpackcloud.sherlogholmes.model.types.EnumType;
+import com.backpackcloud.sherlogholmes.model.types.IndexedType;
+import com.backpackcloud.sherlogholmes.util.QuantileSketch;
 
 import java.time.Duration;
 import java.time.LocalTime;
 import java.time.temporal.ChronoUnit;
 import java.time.temporal.Temporal;
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.SequencedCollection;
+import java.util.Queue;
+import java.util.RandomAccess;
 import java.util.Set;
-import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 public class DataRegistry implements Registry {
 
-  private static final String[] FULL_TIMESTAMP_ATTRIBUTE_ORDER = {"timestamp", "source", "line"};
-  private static final String[] TIME_ONLY_ATTRIBUTE_ORDER = {"source", "line", "timestamp"};
-  private static final String[] NO_TIMESTAMP_ATTRIBUTE_ORDER = {"source", "line"};
+  private static final AttributeRef TIMESTAMP = new AttributeRef("timestamp");
+  private static final AttributeRef SOURCE = new AttributeRef("source");
+  private static final AttributeRef LINE = new AttributeRef("line");
 
-  private String[] attributeOrder;
+  private static final AttributeRef[] FULL_TIMESTAMP_ATTRIBUTE_ORDER = {TIMESTAMP, SOURCE, LINE};
+  private static final AttributeRef[] TIME_ONLY_ATTRIBUTE_ORDER = {SOURCE, LINE, TIMESTAMP};
+  private static final AttributeRef[] NO_TIMESTAMP_ATTRIBUTE_ORDER = {SOURCE, LINE};
+
+  // how many entries are tested to estimate how selective a filter is
+  private static final int SAMPLE_SIZE = 1000;
+  // how much memory the results of previous filters can take
+  private static final long FILTER_CACHE_BUDGET = 64L * 1024 * 1024;
+
+  private AttributeRef[] attributeOrder;
+  // the same order as the attributes, but over the precomputed keys
+  private Comparator<SortKey> keyOrder;
+  // what the times in the keys are, or null if the entries have no timestamp
+  private Histogram.Timeline timeline;
   private final Comparator<DataEntry> comparator;
 
-  private final InternalStorage total;
   private final FilterStack filterStack;
+  private final Dictionary dictionary;
+  private final FilterCache<InternalStorage> filterCache;
+  private StorageEngine engine;
+  private InternalStorage total;
   private InternalStorage filtered;
+  // the entries added one by one, which only go to the storage when something reads it
+  private final Queue<DataEntry> pending;
+  // the indexes, or null if they need to be rebuilt
+  private volatile Map<String, TokenIndex> tokenIndexes = Map.of();
+  private volatile Map<String, ValueIndex> valueIndexes = Map.of();
+  private DataFilter filter;
 
   private Limit limit;
 
   public DataRegistry(FilterStack filterStack) {
     this.filterStack = filterStack;
+    this.dictionary = new Dictionary();
     this.comparator = (left, right) -> {
-      // ideally, the entries will have at least the source and the line attributes,
-      // so the chances of this comparison to yield zero are really low
-      for (String attributeName : attributeOrder) {
-        if (left.hasAttribute(attributeName) && right.hasAttribute(attributeName)) {
-          int result = left.attribute(attributeName)
-            .map(attribute -> right.attribute(attributeName)
-              .map(attribute::compareTo)
-              .orElse(1))
-            .orElse(0);
-
-          if (result != 0) {
-            return result;
+      SortKey leftKey = left.sortKey();
+      SortKey rightKey = right.sortKey();
+      if (leftKey.exact() && rightKey.exact()) {
+        int result = keyOrder.compare(leftKey, rightKey);
+        if (result != 0) {
+          return result;
+        }
+      } else {
+        // ideally, the entries will have at least the source and the line attributes,
+        // so the chances of this comparison to yield zero are really low
+        for (AttributeRef attributeRef : attributeOrder) {
+          Attribute leftAttribute = attributeRef.find(left);
+          Attribute rightAttribute = attributeRef.find(right);
+          if (leftAttribute != null && rightAttribute != null) {
+            int result = leftAttribute.compareTo(rightAttribute);
+
+            if (result != 0) {
+              return result;
+            }
           }
         }
       }
       // well... if it's indeed zero, let's just use the natural comparison between then
       return left.compareTo(right);
     };
-    this.total = new InternalStorage();
+    this.engine = StorageEngine.OBJECTS;
+    this.total = new InternalStorage(engine.create(comparator));
+    this.pending = new ConcurrentLinkedQueue<>();
+    this.filterCache = new FilterCache<>(FILTER_CACHE_BUDGET, InternalStorage::footprint);
   }
 
   private InternalStorage registry() {
@@ -86,6 +138,11 @@ public class DataRegistry implements Registry {
   }
 
   private Optional<InternalStorage> filtered() {
+    flush();
+    if (filtered == null && filter != null) {
+      // entries were added after the filter was applied
+      apply(filter);
+    }
     return Optional.ofNullable(filtered);
   }
 
@@ -94,51 +151,387 @@ public class DataRegistry implements Registry {
     return "data";
   }
 
+  /**
+   * Adds the given entry.
+   * <p>
+   * The entry is only stored when the entries are read again, along with the others added until
+   * then, so the results and the indexes built from the entries are dropped once per batch instead
+   * of once per entry. Lots of entries are better added through an {@link #ingest() ingestion}.
+   */
   public void add(DataEntry entry) {
     if (filterStack.test(entry)) {
-      if (attributeOrder == null) {
-        entry.attribute("timestamp").ifPresentOrElse(attribute ->
-            attribute.value().ifPresentOrElse(value -> {
-              if (value instanceof LocalTime) {
-                attributeOrder = TIME_ONLY_ATTRIBUTE_ORDER;
-              } else {
-                attributeOrder = FULL_TIMESTAMP_ATTRIBUTE_ORDER;
-              }
-            }, () -> attributeOrder = NO_TIMESTAMP_ATTRIBUTE_ORDER),
-          () -> attributeOrder = NO_TIMESTAMP_ATTRIBUTE_ORDER
-        );
-      }
+      pending.add(entry);
+    }
+  }
+
+  // stores the entries added since the last time the entries were read
+  private void flush() {
+    if (pending.isEmpty()) {
+      return;
+    }
+    List<DataEntry> entries = new ArrayList<>();
+    for (DataEntry entry = pending.poll(); entry != null; entry = pending.poll()) {
+      entries.add(entry);
+    }
+    if (entries.isEmpty()) {
+      return;
+    }
+    resolveOrder(entries.getFirst());
+
+    total.addAll(entries);
+    // the positions of the filtered entries are no longer valid
+    filtered = null;
+    filterCache.clear();
+    // rebuilt when needed, since more entries may come one by one
+    tokenIndexes = null;
+    valueIndexes = null;
+  }
+
+  /**
+   * Starts adding entries in bulk.
+   * <p>
+   * The given entries are kept in a buffer per thread, without any locking, and only go to the
+   * registry when the ingestion is closed, all at once.
+   */
+  public Ingestion ingest() {
+    return new Ingestion();
+  }
+
+  private void addAll(List<DataEntry> entries) {
+    // the ones added before go first
+    flush();
+    if (entries.isEmpty()) {
+      return;
+    }
+    resolveOrder(entries.getFirst());
+
+    total.addAll(entries);
+    filtered = null;
+    filterCache.clear();
+    // built right away, while the entries are still being ingested
+    tokenIndexes = buildTokenIndexes();
+    valueIndexes = buildValueIndexes();
+  }
+
+  private void resolveOrder(DataEntry entry) {
+    if (attributeOrder == null) {
+      TIMESTAMP.from(entry).ifPresentOrElse(attribute ->
+          attribute.value().ifPresentOrElse(value -> {
+            timeline = Histogram.Timeline.of(value);
+            if (value instanceof LocalTime) {
+              useOrder(TIME_ONLY_ATTRIBUTE_ORDER, SortKey.TIME_ONLY_ORDER);
+            } else {
+              useOrder(FULL_TIMESTAMP_ATTRIBUTE_ORDER, SortKey.FULL_TIMESTAMP_ORDER);
+            }
+          }, () -> useOrder(NO_TIMESTAMP_ATTRIBUTE_ORDER, SortKey.NO_TIMESTAMP_ORDER)),
+        () -> useOrder(NO_TIMESTAMP_ATTRIBUTE_ORDER, SortKey.NO_TIMESTAMP_ORDER)
+      );
+    }
+  }
+
+  private void useOrder(AttributeRef[] attributeOrder, Comparator<SortKey> keyOrder) {
+    this.attributeOrder = attributeOrder;
+    this.keyOrder = keyOrder;
+  }
 
-      total.add(entry);
-      filtered().ifPresent(registry -> registry.add(entry));
+  public Dictionary dictionary() {
+    return dictionary;
+  }
+
+  public StorageEngine engine() {
+    return engine;
+  }
+
+  /**
+   * Changes how the entries are stored, moving the current ones to the new storage.
+   */
+  public void useEngine(StorageEngine engine) {
+    if (this.engine == engine) {
+      return;
+    }
+    flush();
+    InternalStorage previous = total;
+    this.engine = engine;
+    this.total = new InternalStorage(engine.create(comparator));
+    previous.counter.specs().forEach(total::addCounter);
+    previous.entries().forEach(total::add);
+    previous.clear();
+    filtered = null;
+    filterCache.clear();
+    tokenIndexes = null;
+    valueIndexes = null;
+    if (filter != null) {
+      apply(filter);
     }
   }
 
+  /**
+   * Filters the entries with the given filter.
+   * <p>
+   * If the filter only adds conditions to the one already applied, just the entries that passed
+   * it are tested, and only against the new conditions.
+   */
   public void apply(DataFilter filter) {
-    filtered = new InternalStorage();
-    total.countedAttributes().forEach(filtered::addCounter);
-    total.entries()
-      .parallel()
-      .filter(filter)
-      .forEach(filtered::add);
+    flush();
+    Optional<InternalStorage> cached = filterCache.get(filter);
+    if (cached.isPresent()) {
+      this.filter = filter;
+      filtered = cached.get();
+      return;
+    }
+    InternalStorage current = filtered;
+    DataFilter refinement = current == null ? null : refinement(this.filter, filter);
+    this.filter = filter;
+
+    InternalStorage storage;
+    if (refinement == null) {
+      DataFilter optimized = explain(filter).filter();
+      PositionBitmap positions = positions(optimized);
+      PositionBitmap candidates = positions == null ? candidates(optimized) : null;
+      if (positions != null) {
+        // answered by the indexes alone
+        storage = new InternalStorage(total.entries.view(positions));
+      } else if (candidates != null) {
+        storage = new InternalStorage(total.entries.filter(candidates, optimized.compile()));
+      } else {
+        storage = new InternalStorage(total.entries.filter(optimized.compile()));
+      }
+    } else {
+      storage = new InternalStorage(current.entries.filter(explain(refinement).filter().compile()));
+    }
+    Map<String, ValueIndex> indexes = valueIndexes();
+    // the values with an index are counted from it when needed
+    total.counter.specs().stream()
+      .filter(spec -> !indexes.containsKey(spec.name()))
+      .forEach(storage::addCounter);
+    storage.scan();
+    filtered = storage;
+    filterCache.put(filter, storage);
+  }
+
+  /**
+   * Finds, through the word indexes, the positions of the only entries that may pass the given filter.
+   *
+   * @return the positions, or {@code null} if the indexes can't narrow the entries down
+   */
+  private PositionBitmap candidates(DataFilter filter) {
+    PositionBitmap positions = positions(filter);
+    if (positions != null) {
+      return positions;
+    }
+    if (filter instanceof BaseDataFilter base) {
+      if (base.operation() != Operation.CONTAINS || base.isInterpolated()) {
+        return null;
+      }
+      TokenIndex index = tokenIndexes().get(base.attribute());
+      return index == null ? null : index.candidates(base.reference());
+    }
+    if (filter instanceof CompositeFilter composite) {
+      PositionBitmap left = candidates(composite.left());
+      PositionBitmap right = candidates(composite.right());
+      if (composite.operation() == CompositeFilter.BooleanOperation.AND) {
+        return left == null ? right : right == null ? left : left.and(right);
+      }
+      return left == null || right == null ? null : left.or(right);
+    }
+    return null;
+  }
+
+  /**
+   * Finds, through the value indexes alone, the positions of the entries that pass the given filter.
+   *
+   * @return the positions, or {@code null} if the filter has parts the indexes can't answer
+   */
+  private PositionBitmap positions(DataFilter filter) {
+    if (filter instanceof BaseDataFilter base) {
+      ValueIndex index = base.isInterpolated() ? null : valueIndexes().get(base.attribute());
+      if (index == null) {
+        return null;
+      }
+      return switch (base.operation()) {
+        case EQUAL -> index.equalTo(base.reference()).orElse(null);
+        case DIFFERENT -> index.equalTo(base.reference()).map(index.attributed()::andNot).orElse(null);
+        case IS_SET -> index.valued();
+        case IS_NOT_SET -> index.attributed().andNot(index.valued());
+        default -> null;
+      };
+    }
+    if (filter instanceof CompositeFilter composite) {
+      PositionBitmap left = positions(composite.left());
+      PositionBitmap right = left == null ? null : positions(composite.right());
+      if (right == null) {
+        return null;
+      }
+      return composite.operation() == CompositeFilter.BooleanOperation.AND ? left.and(right) : left.or(right);
+    }
+    return null;
+  }
+
+  /**
+   * The indexes of the values of enums and of the counted attributes, by the attribute names.
+   */
+  public Map<String, ValueIndex> valueIndexes() {
+    flush();
+    Map<String, ValueIndex> indexes = valueIndexes;
+    if (indexes == null) {
+      indexes = buildValueIndexes();
+      valueIndexes = indexes;
+    }
+    return indexes;
+  }
+
+  private Map<String, ValueIndex> buildValueIndexes() {
+    Set<String> names = new HashSet<>();
+    total.attributeTypes.forEach((name, type) -> {
+      if (type instanceof EnumType || (type instanceof DictionaryType dictionaryType && dictionaryType.type() instanceof EnumType)) {
+        names.add(name);
+      }
+    });
+    total.counter.specs().stream()
+      // the combinations of values aren't indexed and the estimated values aren't even kept
+      .filter(spec -> !spec.isEstimated() && !spec.name().contains(":"))
+      .map(CounterSpec::name)
+      .forEach(names::add);
+    Map<String, ValueIndex> indexes = new HashMap<>();
+    names.forEach(name -> indexes.put(name, ValueIndex.build(total.entries, name)));
+    return indexes;
+  }
+
+  /**
+   * The word indexes of the attributes configured as {@code text | indexed}, by the attribute names.
+   */
+  public Map<String, TokenIndex> tokenIndexes() {
+    flush();
+    Map<String, TokenIndex> indexes = tokenIndexes;
+    if (indexes == null) {
+      indexes = buildTokenIndexes();
+      tokenIndexes = indexes;
+    }
+    return indexes;
+  }
+
+  private Map<String, TokenIndex> buildTokenIndexes() {
+    Map<String, TokenIndex> indexes = new HashMap<>();
+    total.attributeTypes.forEach((name, type) -> {
+      if (type instanceof IndexedType) {
+        indexes.put(name, TokenIndex.build(total.entries, name));
+      }
+    });
+    return indexes;
+  }
+
+  /**
+   * Finds what the next filter adds to the previous one, if it can only narrow the entries down.
+   *
+   * @return the conditions of the next filter that aren't in the previous one, or {@code null}
+   * if the previous one has conditions that are no longer there
+   */
+  private static DataFilter refinement(DataFilter previous, DataFilter next) {
+    List<DataFilter> remaining = conditions(next);
+    for (DataFilter condition : conditions(previous)) {
+      if (!removeSame(remaining, condition)) {
+        return null;
+      }
+    }
+    return remaining.stream().reduce(DataFilter.ALLOW_ALL, DataFilter::and);
+  }
+
+  // the same condition, even if created again, has the same key
+  private static boolean removeSame(List<DataFilter> filters, DataFilter condition) {
+    String key = FilterCache.key(condition);
+    for (Iterator<DataFilter> iterator = filters.iterator(); iterator.hasNext(); ) {
+      DataFilter candidate = iterator.next();
+      if (candidate == condition || (key != null && key.equals(FilterCache.key(candidate)))) {
+        iterator.remove();
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // the filters that must all pass for the given one to pass
+  private static List<DataFilter> conditions(DataFilter filter) {
+    List<DataFilter> result = new ArrayList<>();
+    Deque<DataFilter> pending = new ArrayDeque<>();
+    pending.push(filter);
+    while (!pending.isEmpty()) {
+      DataFilter current = pending.pop();
+      if (current instanceof CompositeFilter composite
+        && composite.operation() == CompositeFilter.BooleanOperation.AND) {
+        pending.push(composite.right());
+        pending.push(composite.left());
+      } else if (current != DataFilter.ALLOW_ALL) {
+        result.add(current);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Plans how the given filter will be tested against the entries, ordering its parts by their
+   * cost and by how many entries they let pass.
+   */
+  public FilterPlan explain(DataFilter filter) {
+    flush();
+    EntryStore entries = total.entries;
+    int size = entries.size();
+    // evenly spaced, so the estimates don't come from a single moment of the logs
+    int sampleSize = Math.min(size, SAMPLE_SIZE);
+    List<DataEntry> sample = new ArrayList<>(sampleSize);
+    for (int i = 0; i < sampleSize; i++) {
+      sample.add(entries.get((int) ((long) i * size / sampleSize)));
+    }
+    return new FilterOptimizer(sample, size, total.counter()).plan(filter);
+  }
+
+  /**
+   * The results of the filters applied before, kept to be used again.
+   */
+  public FilterCache<?> filterCache() {
+    flush();
+    return filterCache;
+  }
+
+  /**
+   * Forgets the results of the filters applied before, for when the entries are changed in place.
+   */
+  public void invalidateFilterCache() {
+    filterCache.clear();
   }
 
   public void removeFilter() {
     filtered = null;
+    filter = null;
   }
 
-  public void addCounter(String attributeName) {
-    total.addCounter(attributeName);
-    filtered().ifPresent(registry -> registry.addCounter(attributeName));
+  /**
+   * Adds a counter from its spec, which is the name of the attribute optionally followed by how to
+   * estimate its values, like {@code message | distinct}.
+   */
+  public void addCounter(String spec) {
+    addCounter(CounterSpec.parse(spec));
+  }
+
+  public void addCounter(CounterSpec spec) {
+    flush();
+    // the cached results would be missing the counter
+    filterCache.clear();
+    valueIndexes = null;
+    total.addCounter(spec);
+    filtered().ifPresent(registry -> registry.addCounter(spec));
   }
 
   public void removeCounter(String attributeName) {
+    flush();
+    filterCache.clear();
+    valueIndexes = null;
     total.removeCounter(attributeName);
     filtered().ifPresent(registry -> registry.removeCounter(attributeName));
   }
 
   public Set<String> countedAttributes() {
-    return registry().countedAttributes();
+    // the filtered entries may count some of them through the indexes
+    return total.countedAttributes();
   }
 
   public Optional<AttributeType> typeOf(String name) {
@@ -150,7 +543,7 @@ public class DataRegistry implements Registry {
   }
 
   public boolean hasFilter() {
-    return filtered().isPresent();
+    return filter != null;
   }
 
   public Optional<Limit> limit() {
@@ -184,96 +577,259 @@ public class DataRegistry implements Registry {
     return registry().entries();
   }
 
+  /**
+   * Returns the entries that would be streamed by {@link #entries()}, giving direct access
+   * to any position.
+   */
+  public List<DataEntry> list() {
+    InternalStorage storage = registry();
+    EntryStore entries = storage.entries;
+    int size = entries.size();
+    if (limit == null || size == 0) {
+      return new Positions(entries, 0, size);
+    }
+    if (limit.type() == Limit.Type.TIME) {
+      int[] positions = limit.position() == Limit.Position.TAIL
+        ? positionsBetween(storage, reference(entries.last(), -limit.amount(), limit.unit()), null)
+        : positionsBetween(storage, null, reference(entries.first(), limit.amount(), limit.unit()));
+      if (positions == null) {
+        return entries().toList();
+      }
+      return new Positions(entries, positions[0], positions[1]);
+    }
+    if (limit.position() == Limit.Position.TAIL) {
+      return new Positions(entries, Math.max(0, size - limit.amount()), size);
+    }
+    return new Positions(entries, 0, Math.min(size, limit.amount()));
+  }
+
+  /**
+   * Returns the entries starting at the given position of the {@link #list() list} of entries.
+   * <p>
+   * A negative offset counts from the end, so {@code page(-20, 20)} gives the last 20 entries.
+   */
+  public List<DataEntry> page(int offset, int size) {
+    List<DataEntry> entries = list();
+    int from = offset < 0
+      ? Math.max(0, entries.size() + offset)
+      : Math.min(offset, entries.size());
+    int to = (int) Math.min(entries.size(), (long) from + size);
+    return entries.subList(from, to);
+  }
+
   public Stream<DataEntry> head(int count) {
     return head(registry().entries, count);
   }
 
-  private Stream<DataEntry> head(SequencedCollection<DataEntry> entries, int count) {
+  private Stream<DataEntry> head(EntryStore entries, int count) {
     if (entries.isEmpty()) {
       return Stream.empty();
     }
 
-    return entries.stream().limit(count);
+    return entries.entries(0, Math.min(count, entries.size()));
   }
 
   public Stream<DataEntry> head(int amount, ChronoUnit unit) {
-    return head(registry().entries, amount, unit);
-  }
-
-  private Stream<DataEntry> head(SequencedCollection<DataEntry> entries, int amount, ChronoUnit unit) {
-    if (entries.isEmpty()) {
+    InternalStorage storage = registry();
+    if (storage.isEmpty()) {
       return Stream.empty();
     }
 
-    Temporal reference = entries.getFirst()
-      .attribute("timestamp", Temporal.class)
-      .flatMap(Attribute::value)
-      .map(temporal -> temporal.plus(amount, unit))
-      .orElseThrow();
-    return entries.stream()
-      .filter(entry ->
-        entry.attribute("timestamp", Temporal.class)
-          .flatMap(Attribute::value)
-          .map(timestamp -> typeOf("timestamp")
-            .orElseThrow()
-            .compare(timestamp, reference) <= 0)
-          .orElse(false));
+    return between(storage, null, reference(storage.entries.first(), amount, unit));
   }
 
   public Stream<DataEntry> tail(int count) {
     return tail(registry().entries, count);
   }
 
-  private Stream<DataEntry> tail(SequencedCollection<DataEntry> entries, int count) {
+  private Stream<DataEntry> tail(EntryStore entries, int count) {
     if (entries.isEmpty()) {
       return Stream.empty();
     }
 
-    int start = entries.size() - count;
-
-    return entries.stream().skip(start);
+    int size = entries.size();
+    return entries.entries(Math.max(0, size - count), size);
   }
 
   public Stream<DataEntry> tail(int amount, ChronoUnit unit) {
-    return tail(registry().entries, amount, unit);
+    InternalStorage storage = registry();
+    if (storage.isEmpty()) {
+      return Stream.empty();
+    }
+
+    return between(storage, reference(storage.entries.last(), -amount, unit), null);
   }
 
-  private Stream<DataEntry> tail(SequencedCollection<DataEntry> entries, int amount, ChronoUnit unit) {
-    if (entries.isEmpty()) {
+  /**
+   * Streams the entries with a timestamp between the given ones, both inclusive.
+   */
+  public Stream<DataEntry> between(Temporal start, Temporal end) {
+    InternalStorage storage = registry();
+    if (storage.isEmpty()) {
       return Stream.empty();
     }
 
-    Temporal reference = entries.getLast()
+    return between(storage, start, end);
+  }
+
+  private Temporal reference(DataEntry entry, int amount, ChronoUnit unit) {
+    return entry
       .attribute("timestamp", Temporal.class)
       .flatMap(Attribute::value)
-      .map(temporal -> temporal.minus(amount, unit))
+      .map(temporal -> temporal.plus(amount, unit))
       .orElseThrow();
-    return entries.stream()
+  }
+
+  // a null timestamp leaves that side open
+  private Stream<DataEntry> between(InternalStorage storage, Temporal start, Temporal end) {
+    int[] positions = positionsBetween(storage, start, end);
+    if (positions != null) {
+      return storage.entries.entries(positions[0], positions[1]);
+    }
+
+    AttributeType type = storage.typeOf("timestamp").orElseThrow();
+    return storage.entries()
       .filter(entry ->
-        entry.attribute("timestamp", Temporal.class)
+        TIMESTAMP.<Temporal>from(entry)
           .flatMap(Attribute::value)
-          .map(timestamp -> typeOf("timestamp")
-            .orElseThrow()
-            .compare(timestamp, reference) >= 0)
+          .map(timestamp -> (start == null || type.compare(timestamp, start) >= 0)
+            && (end == null || type.compare(timestamp, end) <= 0))
           .orElse(false));
   }
 
+  /**
+   * Finds, by binary search, the positions of the entries with a timestamp between the given ones.
+   *
+   * @return the first position and the one after the last, or {@code null} if the entries
+   * are not ordered by their timestamps.
+   */
+  private int[] positionsBetween(InternalStorage storage, Temporal start, Temporal end) {
+    if (!storage.timeOrdered()) {
+      return null;
+    }
+    Long startTime = start == null ? null : SortKey.timeOf(start);
+    Long endTime = end == null ? null : SortKey.timeOf(end);
+    if ((start != null && startTime == null) || (end != null && endTime == null)) {
+      return null;
+    }
+
+    EntryStore entries = storage.entries;
+    int from = startTime == null ? 0 : search(entries, startTime, false);
+    int to = endTime == null ? entries.size() : search(entries, endTime, true);
+    return new int[]{from, Math.max(from, to)};
+  }
+
+  // the first position with a time after (or at, if not inclusive) the given one
+  private static int search(EntryStore entries, long time, boolean inclusive) {
+    int low = 0;
+    int high = entries.size();
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      long value = entries.get(middle).sortKey().time();
+      if (value < time || (inclusive && value == time)) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
   public boolean hasCounter(String attributeName) {
-    return registry().countedAttributes().contains(attributeName);
+    return total.countedAttributes().contains(attributeName);
   }
 
-  public Map<?, AtomicInteger> counter(String attributeName) {
-    return registry().counter().counterFor(attributeName).orElse(Collections.emptyMap());
+  /**
+   * Counts the values of the given attribute, either from its counter or, for the filtered entries,
+   * from the sizes of the intersections of the entries with its index.
+   */
+  public Map<?, Long> counter(String attributeName) {
+    InternalStorage storage = registry();
+    Optional<Map<?, Long>> counted = storage.counter().counterFor(attributeName);
+    if (counted.isPresent()) {
+      return counted.get();
+    }
+    ValueIndex index = hasCounter(attributeName) ? valueIndexes().get(attributeName) : null;
+    if (index == null) {
+      return Collections.emptyMap();
+    }
+    if (storage == total) {
+      return index.count(storage.entries).orElse(Collections.emptyMap());
+    }
+    // the filtered entries only change with another filter, which brings its own storage
+    return storage.indexedCounts.computeIfAbsent(attributeName, name ->
+      Collections.unmodifiableMap(index.count(storage.entries).orElse(Collections.emptyMap())));
   }
 
   public Set<?> valuesFor(String attributeName) {
-    return registry().counter().valuesFor(attributeName).orElse(Collections.emptySet());
+    return counter(attributeName).keySet();
+  }
+
+  public Optional<CounterSpec> counterSpec(String attributeName) {
+    return total.counter.specFor(attributeName);
+  }
+
+  /**
+   * The estimates of the given counter for the current entries, if it's an estimated one.
+   */
+  public Optional<CounterEstimate> estimate(String attributeName) {
+    return registry().counter().estimateFor(attributeName);
   }
 
   public Duration durationOf(String attribute) {
     return registry().durationOf(attribute);
   }
 
+  /**
+   * Sketches the numbers of the given attribute in the entries that would be streamed by {@link #entries()}.
+   * <p>
+   * Without a limit, the sketch kept by a {@code stats} counter is used as it is.
+   */
+  public QuantileSketch stats(String attribute) {
+    if (limit == null) {
+      Optional<QuantileSketch> kept = registry().counter().statsFor(attribute);
+      if (kept.isPresent()) {
+        return kept.get();
+      }
+    }
+    double accuracy = counterSpec(attribute)
+      .filter(spec -> spec.mode() == CounterSpec.Mode.STATS)
+      .map(CounterSpec::error)
+      .orElse(QuantileSketch.DEFAULT_ACCURACY);
+    AttributeRef ref = new AttributeRef(attribute);
+    // a sketch for each thread, merged at the end
+    return list().stream().parallel().collect(
+      () -> new QuantileSketch(accuracy),
+      (sketch, entry) -> {
+        Attribute<?> found = ref.find(entry);
+        if (found != null) {
+          found.forEachValue(value -> {
+            if (value instanceof Number number) {
+              sketch.add(number.doubleValue());
+            }
+          });
+        }
+      },
+      QuantileSketch::merge
+    );
+  }
+
+  /**
+   * Counts the entries that would be streamed by {@link #entries()} in buckets of the given unit.
+   * <p>
+   * Without a limit or a split, the buckets of a minute or more come from the counts kept per minute as
+   * the entries are added.
+   *
+   * @param split the attribute to split the entries by, or {@code null} to only count them
+   */
+  public Histogram histogram(ChronoUnit unit, String split) {
+    InternalStorage storage = registry();
+    if (split == null && limit == null && timeline != null && Histogram.PerMinute.covers(unit)) {
+      return storage.perMinute.histogram(timeline, unit);
+    }
+    return Histogram.of(list().stream().parallel(), timeline, unit, split == null ? null : new AttributeRef(split));
+  }
+
   public Duration duration() {
     return durationOf("timestamp");
   }
@@ -290,43 +846,96 @@ public class DataRegistry implements Registry {
 
   @Override
   public void clear() {
+    pending.clear();
     total.clear();
     filtered = null;
+    filter = null;
+    filterCache.clear();
+    tokenIndexes = Map.of();
+    valueIndexes = Map.of();
+    // nothing holds the codes of the cleared values anymore
+    dictionary.clear();
     attributeOrder = null;
+    keyOrder = null;
+    timeline = null;
   }
 
   private class InternalStorage {
-    private final SequencedCollection<DataEntry> entries;
+    private final EntryStore entries;
     private final Counter counter;
     private final Map<String, AttributeType> attributeTypes;
-
-    public InternalStorage() {
-      this.entries = new TreeSet<>(comparator);
+    // how many entries have no timestamp to search for
+    private final AtomicInteger untimed;
+    private volatile Histogram.PerMinute perMinute;
+    // the counts taken from the value indexes, for the attributes without a counter here
+    private final Map<String, Map<?, Long>> indexedCounts;
+
+    public InternalStorage(EntryStore entries) {
+      this.entries = entries;
       this.counter = new Counter();
+      this.indexedCounts = new ConcurrentHashMap<>();
       this.attributeTypes = new ConcurrentHashMap<>();
+      this.untimed = new AtomicInteger();
+      this.perMinute = new Histogram.PerMinute();
     }
 
     public Counter counter() {
       return counter;
     }
 
-    public synchronized void add(DataEntry entry) {
-      this.entries.add(entry);
+    public synchronized DataEntry add(DataEntry entry) {
+      DataEntry stored = this.entries.add(entry);
+      index(entry);
+      return stored;
+    }
+
+    public synchronized List<DataEntry> addAll(List<DataEntry> entries) {
+      List<DataEntry> stored = this.entries.addAll(entries);
+      // both the types and the counter can take concurrent updates
+      entries.parallelStream().forEach(this::index);
+      return stored;
+    }
+
+    /**
+     * Goes through the entries already in the store, for the ones that weren't added.
+     */
+    public void scan() {
+      entries.entries().parallel().forEach(this::index);
+    }
 
+    private void index(DataEntry entry) {
       entry.attributes()
         .forEach(attribute ->
           attributeTypes.put(attribute.name(), attribute.spec().type()));
-
       counter.accept(entry);
+      SortKey key = entry.sortKey();
+      if (!key.hasTime()) {
+        untimed.incrementAndGet();
+      } else if (timeline != null) {
+        perMinute.add(timeline, key);
+      }
     }
 
-    public DataRegistry addCounter(String name) {
-      this.counter.add(name);
+    /**
+     * Whether the entries are ordered by their timestamps and can be searched by them.
+     */
+    public boolean timeOrdered() {
+      return keyOrder == SortKey.FULL_TIMESTAMP_ORDER && untimed.get() == 0;
+    }
+
+    public DataRegistry addCounter(String spec) {
+      this.counter.add(spec);
+      return DataRegistry.this;
+    }
+
+    public DataRegistry addCounter(CounterSpec spec) {
+      this.counter.add(spec);
       return DataRegistry.this;
     }
 
     public DataRegistry removeCounter(String name) {
       this.counter.remove(name);
+      this.indexedCounts.remove(name);
       return DataRegistry.this;
     }
 
@@ -343,7 +952,7 @@ public class DataRegistry implements Registry {
     }
 
     public Stream<DataEntry> entries() {
-      return entries.stream();
+      return entries.entries();
     }
 
     public boolean isEmpty() {
@@ -356,8 +965,8 @@ public class DataRegistry implements Registry {
 
     public Duration durationOf(String attributeName) {
       if (entries.size() >= 2) {
-        DataEntry first = entries.getFirst();
-        DataEntry last = entries.getLast();
+        DataEntry first = entries.first();
+        DataEntry last = entries.last();
 
         return first.attribute(attributeName, Temporal.class)
           .flatMap(Attribute::value)
@@ -370,11 +979,112 @@ public class DataRegistry implements Registry {
       return Duration.ZERO;
     }
 
+    /**
+     * An estimate of the memory taken by a view of the entries, in bytes, with everything it counted
+     * from them.
+     */
+    public long footprint() {
+      long result = entries.footprint() + counter.footprint() + perMinute.footprint() + attributeTypes.size() * 48L;
+      for (Map<?, Long> counts : indexedCounts.values()) {
+        result += counts.size() * (32L + 16L);
+      }
+      return result;
+    }
+
     public void clear() {
       this.entries.clear();
       this.counter.clear();
+      this.indexedCounts.clear();
       this.attributeTypes.clear();
+      this.untimed.set(0);
+      this.perMinute = new Histogram.PerMinute();
+    }
+  }
+
+  /**
+   * Collects the entries produced by the pipelines and hands them to the registry in one go.
+   */
+  public class Ingestion implements Consumer<DataEntry>, AutoCloseable {
+
+    private final Queue<List<DataEntry>> buffers;
+    private final ThreadLocal<List<DataEntry>> buffer;
+    private volatile boolean closed;
+
+    private Ingestion() {
+      this.buffers = new ConcurrentLinkedQueue<>();
+      this.buffer = ThreadLocal.withInitial(() -> {
+        List<DataEntry> entries = new ArrayList<>();
+        buffers.add(entries);
+        return entries;
+      });
     }
+
+    @Override
+    public void accept(DataEntry entry) {
+      if (closed) {
+        // late comers just go the usual way
+        add(entry);
+      } else if (filterStack.test(entry)) {
+        // the key is computed here so the threads share the work
+        entry.sortKey();
+        buffer.get().add(entry);
+      }
+    }
+
+    /**
+     * Adds the collected entries to the registry.
+     * <p>
+     * The entries of each buffer tend to be already in order, so they are added one buffer
+     * after the other to keep those runs for the sort.
+     */
+    @Override
+    public void close() {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      List<DataEntry> entries = new ArrayList<>(buffers.stream().mapToInt(List::size).sum());
+      buffers.forEach(entries::addAll);
+      buffers.clear();
+      addAll(entries);
+    }
+
+  }
+
+  private static class Positions extends AbstractList<DataEntry> implements RandomAccess {
+
+    private final EntryStore entries;
+    private final int from;
+    private final int to;
+
+    private Positions(EntryStore entries, int from, int to) {
+      this.entries = entries;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    public DataEntry get(int index) {
+      Objects.checkIndex(index, size());
+      return entries.get(from + index);
+    }
+
+    @Override
+    public int size() {
+      return to - from;
+    }
+
+    @Override
+    public List<DataEntry> subList(int fromIndex, int toIndex) {
+      Objects.checkFromToIndex(fromIndex, toIndex, size());
+      return new Positions(entries, from + fromIndex, from + toIndex);
+    }
+
+    @Override
+    public Stream<DataEntry> stream() {
+      return entries.entries(from, to);
+    }
+
   }
 
 }
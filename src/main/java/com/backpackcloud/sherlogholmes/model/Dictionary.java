@@ -0,0 +1,123 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Marcelo "Ataxexe" Guimarães
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.backpackcloud.sherlogholmes.model;
+
+import com.backpackcloud.sherlogholmes.model.types.DictionaryType;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Assigns a compact code to each distinct value of the attributes that have only a few of them.
+ * <p>
+ * Every value that goes through the dictionary is replaced by the instance it holds, so entries
+ * share the same instances and comparing them for equality is as cheap as comparing their codes.
+ */
+public class Dictionary {
+
+  private final Map<String, Integer> codes;
+  private final AttributeSpec<String> textSpec;
+  private volatile String[] values;
+  private int size;
+  // how many times the values were forgotten, so the instances taken before can be told apart
+  private volatile int generation;
+
+  public Dictionary() {
+    this.codes = new ConcurrentHashMap<>();
+    this.values = new String[64];
+    this.textSpec = new AttributeSpec<>(new DictionaryType(AttributeType.text(), this), false);
+  }
+
+  /**
+   * Returns the code of the given value, adding it to this dictionary if needed.
+   */
+  public int code(String value) {
+    Integer code = codes.get(value);
+    if (code != null) {
+      return code;
+    }
+    synchronized (this) {
+      code = codes.get(value);
+      if (code == null) {
+        if (size == values.length) {
+          values = Arrays.copyOf(values, size * 2);
+        }
+        values[size] = value;
+        code = size++;
+        codes.put(value, code);
+      }
+      return code;
+    }
+  }
+
+  /**
+   * Returns the code of the given value or -1 if it's not in this dictionary.
+   */
+  public int find(String value) {
+    return codes.getOrDefault(value, -1);
+  }
+
+  public String value(int code) {
+    return values[code];
+  }
+
+  /**
+   * Returns the instance of the given value held by this dictionary.
+   */
+  public String intern(String value) {
+    return value == null ? null : value(code(value));
+  }
+
+  /**
+   * The spec of a text attribute encoded by this dictionary.
+   */
+  public AttributeSpec<String> textSpec() {
+    return textSpec;
+  }
+
+  public int size() {
+    return codes.size();
+  }
+
+  /**
+   * Changes every time this dictionary is cleared, after which the instances it held are no longer
+   * the ones given to the values.
+   */
+  public int generation() {
+    return generation;
+  }
+
+  /**
+   * Forgets every value, which must only be done once no entry holds their codes.
+   */
+  public synchronized void clear() {
+    codes.clear();
+    values = new String[64];
+    size = 0;
+    generation++;
+  }
+
+}
@@ -0,0 +1,155 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Marcelo "Ataxexe" Guimarães
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.backpackcloud.sherlogholmes.model;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.ToLongFunction;
+
+/**
+ * Keeps the results of the most recently used filters, up to a memory budget.
+ * <p>
+ * The results are found by a canonical form of the filters, so filters with the same conditions
+ * share their results no matter the order the conditions were combined.
+ */
+public class FilterCache<V> {
+
+  private final long budget;
+  private final ToLongFunction<V> footprint;
+  private final LinkedHashMap<String, V> results;
+  private long hits;
+  private long misses;
+
+  public FilterCache(long budget, ToLongFunction<V> footprint) {
+    this.budget = budget;
+    this.footprint = footprint;
+    this.results = new LinkedHashMap<>(16, 0.75f, true);
+  }
+
+  public synchronized Optional<V> get(DataFilter filter) {
+    String key = key(filter);
+    V result = key == null ? null : results.get(key);
+    if (result == null) {
+      misses++;
+    } else {
+      hits++;
+    }
+    return Optional.ofNullable(result);
+  }
+
+  public synchronized void put(DataFilter filter, V result) {
+    String key = key(filter);
+    long size = footprint.applyAsLong(result);
+    if (key == null || size > budget) {
+      return;
+    }
+    results.put(key, result);
+    // measured again, since the results may have counted more of their entries since they were kept
+    long memory = memory();
+    // the least recently used results go first
+    Iterator<V> iterator = results.values().iterator();
+    while (memory > budget && iterator.hasNext()) {
+      memory -= footprint.applyAsLong(iterator.next());
+      iterator.remove();
+    }
+  }
+
+  public synchronized void clear() {
+    results.clear();
+  }
+
+  public synchronized int size() {
+    return results.size();
+  }
+
+  /**
+   * The estimated memory taken by the results, in bytes.
+   */
+  public synchronized long memory() {
+    long memory = 0;
+    for (V result : results.values()) {
+      memory += footprint.applyAsLong(result);
+    }
+    return memory;
+  }
+
+  public synchronized long hits() {
+    return hits;
+  }
+
+  public synchronized long misses() {
+    return misses;
+  }
+
+  /**
+   * Writes the given filter in a form that doesn't depend on how its conditions were combined.
+   *
+   * @return the canonical form, or {@code null} if the filter has parts that can't be written
+   */
+  static String key(DataFilter filter) {
+    if (filter == DataFilter.ALLOW_ALL) {
+      return "*";
+    }
+    if (filter == DataFilter.DENY_ALL) {
+      return "!*";
+    }
+    if (filter instanceof BaseDataFilter base) {
+      return base.attribute() + " " + base.operation().symbol() + " " + base.reference();
+    }
+    if (filter instanceof CompositeFilter composite) {
+      List<String> keys = new ArrayList<>();
+      if (!collect(composite, composite.operation(), keys)) {
+        return null;
+      }
+      keys.sort(null);
+      // the lengths keep the references from being taken as separators
+      StringBuilder result = new StringBuilder(composite.operation().name()).append('(');
+      for (String key : keys) {
+        result.append(key.length()).append(':').append(key);
+      }
+      return result.append(')').toString();
+    }
+    return null;
+  }
+
+  private static boolean collect(DataFilter filter, CompositeFilter.BooleanOperation operation, List<String> keys) {
+    if (filter instanceof CompositeFilter composite && composite.operation() == operation) {
+      return collect(composite.left(), operation, keys) && collect(composite.right(), operation, keys);
+    }
+    String key = key(filter);
+    if (key == null) {
+      return false;
+    }
+    // repeating a condition doesn't change the result
+    if (!keys.contains(key)) {
+      keys.add(key);
+    }
+    return true;
+  }
+
+}
@@ -43,7 +43,10 @@ public class FilterFactory {
     Operation operation = Operation.find(symbol)
       .orElseThrow(() -> new UnbelievableException("Invalid operand: " + symbol));
 
-    return new BaseDataFilter(left, operation, right);
+    BaseDataFilter filter = new BaseDataFilter(left, operation, right);
+    // fail right away instead of in the middle of a scan
+    filter.validate();
+    return filter;
   }
 
 }
@@ -0,0 +1,187 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Marcelo "Ataxexe" Guimarães
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.backpackcloud.sherlogholmes.model;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rewrites filters so the cheap and decisive parts are tested first.
+ * <p>
+ * Chains of the same boolean operation are flattened and their parts are ordered by how much
+ * they cost for each entry they decide. The selectivity of each part comes from the counters,
+ * when there is one for the attribute, or from testing a sample of the entries.
+ */
+public class FilterOptimizer {
+
+  // used when there is nothing to estimate from
+  private static final double UNKNOWN_SELECTIVITY = 0.5;
+
+  private final List<DataEntry> sample;
+  private final int size;
+  private final Counter counter;
+
+  public FilterOptimizer(List<DataEntry> sample, int size, Counter counter) {
+    this.sample = sample;
+    this.size = size;
+    this.counter = counter;
+  }
+
+  public DataFilter optimize(DataFilter filter) {
+    return plan(filter).filter();
+  }
+
+  public FilterPlan plan(DataFilter filter) {
+    if (filter instanceof CompositeFilter composite) {
+      CompositeFilter.BooleanOperation operation = composite.operation();
+      List<DataFilter> parts = new ArrayList<>();
+      flatten(composite, operation, parts);
+
+      List<FilterPlan> children = new ArrayList<>();
+      for (DataFilter part : parts) {
+        FilterPlan child = plan(part);
+        DataFilter childFilter = child.filter();
+        if (childFilter == neutral(operation)) {
+          continue;
+        }
+        if (childFilter == absorbing(operation)) {
+          return new FilterPlan(childFilter, 0, childFilter == DataFilter.ALLOW_ALL ? 1 : 0);
+        }
+        children.add(child);
+      }
+      if (children.isEmpty()) {
+        DataFilter neutral = neutral(operation);
+        return new FilterPlan(neutral, 0, neutral == DataFilter.ALLOW_ALL ? 1 : 0);
+      }
+      if (children.size() == 1) {
+        return children.getFirst();
+      }
+      children.sort(Comparator.comparingDouble(child -> rank(child, operation)));
+      return combine(operation, children);
+    }
+    if (filter == DataFilter.ALLOW_ALL) {
+      return new FilterPlan(filter, 0, 1);
+    }
+    if (filter == DataFilter.DENY_ALL) {
+      return new FilterPlan(filter, 0, 0);
+    }
+    return new FilterPlan(filter, costOf(filter), selectivityOf(filter));
+  }
+
+  private void flatten(DataFilter filter, CompositeFilter.BooleanOperation operation, List<DataFilter> parts) {
+    if (filter instanceof CompositeFilter composite && composite.operation() == operation) {
+      flatten(composite.left(), operation, parts);
+      flatten(composite.right(), operation, parts);
+    } else {
+      parts.add(filter);
+    }
+  }
+
+  // the filter that doesn't change the result of the operation
+  private static DataFilter neutral(CompositeFilter.BooleanOperation operation) {
+    return operation == CompositeFilter.BooleanOperation.AND ? DataFilter.ALLOW_ALL : DataFilter.DENY_ALL;
+  }
+
+  // the filter that decides the result of the operation alone
+  private static DataFilter absorbing(CompositeFilter.BooleanOperation operation) {
+    return operation == CompositeFilter.BooleanOperation.AND ? DataFilter.DENY_ALL : DataFilter.ALLOW_ALL;
+  }
+
+  /**
+   * The cost of a part for each entry it decides: an AND is decided by the entries that fail,
+   * an OR by the ones that pass.
+   */
+  private static double rank(FilterPlan plan, CompositeFilter.BooleanOperation operation) {
+    double decided = operation == CompositeFilter.BooleanOperation.AND
+      ? 1 - plan.selectivity()
+      : plan.selectivity();
+    return decided <= 0 ? Double.MAX_VALUE : plan.cost() / decided;
+  }
+
+  private static FilterPlan combine(CompositeFilter.BooleanOperation operation, List<FilterPlan> children) {
+    DataFilter filter = children.getFirst().filter();
+    double cost = 0;
+    // the chance of an entry reaching the next part
+    double reaching = 1;
+    double selectivity = operation == CompositeFilter.BooleanOperation.AND ? 1 : 0;
+    for (int i = 0; i < children.size(); i++) {
+      FilterPlan child = children.get(i);
+      if (i > 0) {
+        filter = new CompositeFilter(filter, child.filter(), operation);
+      }
+      cost += reaching * child.cost();
+      if (operation == CompositeFilter.BooleanOperation.AND) {
+        reaching *= child.selectivity();
+        selectivity *= child.selectivity();
+      } else {
+        reaching *= 1 - child.selectivity();
+        selectivity = 1 - (1 - selectivity) * (1 - child.selectivity());
+      }
+    }
+    return new FilterPlan(filter, operation, List.copyOf(children), cost, selectivity);
+  }
+
+  private static double costOf(DataFilter filter) {
+    if (!(filter instanceof BaseDataFilter base)) {
+      return 10;
+    }
+    double cost = switch (base.operation()) {
+      case IS_SET, IS_NOT_SET -> 1;
+      case EQUAL, DIFFERENT -> 2;
+      case LESS_THAN, LESS_THAN_OR_EQUAL, GREATER_THAN, GREATER_THAN_OR_EQUAL -> 3;
+      case CONTAINS, EXCLUDES -> 6;
+      case MATCHES, MISMATCHES -> 25;
+    };
+    // the reference has to be built and parsed for every entry
+    return base.isInterpolated() ? cost + 10 : cost;
+  }
+
+  private double selectivityOf(DataFilter filter) {
+    if (filter instanceof BaseDataFilter base && !base.isInterpolated() && size > 0) {
+      Operation operation = base.operation();
+      if (operation == Operation.EQUAL || operation == Operation.DIFFERENT) {
+        Map<?, Long> counts = counter.counterFor(base.attribute()).orElse(null);
+        if (counts != null) {
+          // the counters hold the values, not their text, so only a matching text can be trusted
+          for (Map.Entry<?, Long> entry : counts.entrySet()) {
+            if (String.valueOf(entry.getKey()).equals(base.reference())) {
+              double equal = Math.min(1, (double) entry.getValue() / size);
+              return operation == Operation.EQUAL ? equal : 1 - equal;
+            }
+          }
+        }
+      }
+    }
+    if (sample.isEmpty()) {
+      return UNKNOWN_SELECTIVITY;
+    }
+    DataFilter compiled = filter.compile();
+    long passed = sample.stream().filter(compiled).count();
+    return (double) passed / sample.size();
+  }
+
+}
@@ -0,0 +1,114 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Marcelo "Ataxexe" Guimarães
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.backpackcloud.sherlogholmes.model;
+
+import com.backpackcloud.cli.Displayable;
+import com.backpackcloud.cli.Writer;
+
+import java.util.List;
+
+/**
+ * How a filter is going to be tested, with the estimated cost and selectivity of each part.
+ */
+public class FilterPlan implements Displayable {
+
+  private final DataFilter filter;
+  private final CompositeFilter.BooleanOperation operation;
+  private final List<FilterPlan> children;
+  private final double cost;
+  private final double selectivity;
+
+  FilterPlan(DataFilter filter, double cost, double selectivity) {
+    this(filter, null, List.of(), cost, selectivity);
+  }
+
+  FilterPlan(DataFilter filter,
+             CompositeFilter.BooleanOperation operation,
+             List<FilterPlan> children,
+             double cost,
+             double selectivity) {
+    this.filter = filter;
+    this.operation = operation;
+    this.children = children;
+    this.cost = cost;
+    this.selectivity = selectivity;
+  }
+
+  /**
+   * The filter with its parts in the chosen order.
+   */
+  public DataFilter filter() {
+    return filter;
+  }
+
+  /**
+   * The parts of the filter, in the order they are tested, or nothing if this is a single filter.
+   */
+  public List<FilterPlan> children() {
+    return children;
+  }
+
+  /**
+   * The estimated cost to test an entry, in units of a simple comparison.
+   */
+  public double cost() {
+    return cost;
+  }
+
+  /**
+   * The estimated fraction of the entries that pass the filter.
+   */
+  public double selectivity() {
+    return selectivity;
+  }
+
+  @Override
+  public void toDisplay(Writer writer) {
+    print(writer, "", "", this);
+  }
+
+  private static void print(Writer writer, String prefix, String childPrefix, FilterPlan plan) {
+    writer.write(prefix);
+    if (plan.operation != null) {
+      writer.withStyle("filter_operation").write(plan.operation.name().toLowerCase());
+    } else {
+      plan.filter.toDisplay(writer);
+    }
+    writer.write("  ")
+      .withStyle("count").write(String.format("cost %.2f", plan.cost))
+      .write("  ")
+      .withStyle("percentage//i").write(String.format("passes %.3f%%", plan.selectivity * 100))
+      .newLine();
+
+    for (int i = 0; i < plan.children.size(); i++) {
+      boolean last = i == plan.children.size() - 1;
+      print(writer,
+        childPrefix + (last ? "╰─ " : "├─ "),
+        childPrefix + (last ? "   " : "│  "),
+        plan.children.get(i));
+    }
+  }
+
+}
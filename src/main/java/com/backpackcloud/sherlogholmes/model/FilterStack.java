@@ -45,6 +45,8 @@ public class FilterStack implements Registry, Displayable, Predicate<DataEntry>
 
   private final Map<String, SavedFilter> filters;
   private Deque<DataFilter> stack;
+  // the filters of the stack compiled together, built again whenever the stack changes
+  private volatile DataFilter compiled;
 
   public FilterStack() {
     this.stack = new ArrayDeque<>();
@@ -66,15 +68,16 @@ public class FilterStack implements Registry, Displayable, Predicate<DataEntry>
       throw new UnbelievableException(name + " not found");
     }
     this.stack = new ArrayDeque<>(this.filters.get(name).filter());
+    this.compiled = null;
   }
 
   public boolean test(DataEntry entry) {
-    for (DataFilter filter : this.stack) {
-      if (!filter.test(entry)) {
-        return false;
-      }
+    DataFilter filter = compiled;
+    if (filter == null) {
+      filter = filter().compile();
+      compiled = filter;
     }
-    return true;
+    return filter.test(entry);
   }
 
   public List<SavedFilter> savedFilters() {
@@ -91,6 +94,7 @@ public class FilterStack implements Registry, Displayable, Predicate<DataEntry>
 
   public FilterStack push(DataFilter filter) {
     stack.push(filter);
+    compiled = null;
     return this;
   }
 
@@ -98,7 +102,9 @@ public class FilterStack implements Registry, Displayable, Predicate<DataEntry>
     if (stack.isEmpty()) {
       throw new UnbelievableException("Stack is empty");
     }
-    return stack.pop();
+    DataFilter filter = stack.pop();
+    compiled = null;
+    return filter;
   }
 
   public void apply(Operation operation) {
@@ -138,6 +144,7 @@ public class FilterStack implements Registry, Displayable, Predicate<DataEntry>
 
   public void clear() {
     stack.clear();
+    compiled = null;
   }
 
   public void toDisplay(Writer writer) {
@@ -0,0 +1,441 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Marcelo "Ataxexe" Guimarães
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.backpackcloud.sherlogholmes.model;
+
+import com.backpackcloud.UnbelievableException;
+import com.backpackcloud.sherlogholmes.util.HyperLogLog;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+/**
+ * Groups the entries by the values of some attributes and aggregates each group.
+ * <p>
+ * The entries are split in chunks, one per thread, and each chunk fills its own tables, one per
+ * partition of the groups (by the hash of their keys). The tables of each partition are then merged
+ * in parallel, so no table is ever shared.
+ * <p>
+ * The groups take memory, so once all the tables together hold more than the limit, the ones holding
+ * more than their share of it drop the groups with the fewest entries and the result becomes
+ * approximate: a group seen afterwards may
+ * have had up to that many entries before, which is kept as the error of its count, and the other
+ * aggregations only cover the entries seen while the group was kept. Before dropping groups, the
+ * distinct values of the groups with the most of them are replaced by a sketch that only estimates
+ * how many there are.
+ */
+public final class GroupBy {
+
+  private static final Pattern AGGREGATION_PATTERN = Pattern.compile("(?<function>\\w+)(\\((?<attribute>[^)]*)\\))?");
+  // a table never drops groups below this many, no matter how small the limit is
+  private static final int MIN_TABLE_SIZE = 64;
+  // fewer entries than this aren't worth a thread
+  private static final int MIN_CHUNK_SIZE = 4096;
+  // how much a table grows before adding it to the size of all the tables
+  private static final int PUBLISH_STEP = 64;
+  // 1024 registers, with an error of about 3%
+  private static final int SKETCH_PRECISION = 10;
+  // a set of distinct values takes about as much memory as a sketch with this many of them
+  private static final int SKETCH_SIZE = 64;
+
+  private final AttributeRef[] keys;
+  private final Aggregation aggregation;
+  private final AttributeRef aggregated;
+  private final long limit;
+
+  /**
+   * @param keys        the attributes to group the entries by
+   * @param aggregation what to compute for each group
+   * @param limit       how many groups (and distinct values) can be kept before dropping some
+   */
+  public GroupBy(List<String> keys, Aggregation aggregation, long limit) {
+    if (keys.isEmpty()) {
+      throw new UnbelievableException("No attribute to group the entries by");
+    }
+    this.keys = keys.stream().map(AttributeRef::new).toArray(AttributeRef[]::new);
+    this.aggregation = aggregation;
+    this.aggregated = aggregation.attribute() == null ? null : new AttributeRef(aggregation.attribute());
+    this.limit = limit;
+  }
+
+  public Result aggregate(List<DataEntry> entries) {
+    int threads = ForkJoinPool.getCommonPoolParallelism();
+    int chunks = Math.max(1, Math.min(threads, entries.size() / MIN_CHUNK_SIZE));
+    int partitions = Integer.highestOneBit(Math.max(1, threads * 2 - 1));
+    // every chunk sees most of the keys, so the limit only applies to what all the tables hold
+    AtomicLong live = new AtomicLong();
+    long chunkShare = Math.max(MIN_TABLE_SIZE, limit / partitions / chunks);
+
+    Table[][] partials = IntStream.range(0, chunks).parallel()
+      .mapToObj(chunk -> {
+        Table[] tables = new Table[partitions];
+        for (int i = 0; i < partitions; i++) {
+          tables[i] = new Table(live, chunkShare);
+        }
+        int from = (int) ((long) entries.size() * chunk / chunks);
+        int to = (int) ((long) entries.size() * (chunk + 1) / chunks);
+        Object[] values = new Object[keys.length];
+        for (int i = from; i < to; i++) {
+          accept(entries.get(i), tables, values, 0);
+        }
+        return tables;
+      })
+      .toArray(Table[][]::new);
+
+    List<Table> merged = IntStream.range(0, partitions).parallel()
+      .mapToObj(partition -> {
+        // the largest table takes the others instead of copying all of them
+        Table table = Arrays.stream(partials)
+          .map(partial -> partial[partition])
+          .max(Comparator.comparingInt(partial -> partial.groups.size()))
+          .orElseThrow();
+        table.share = Math.max(MIN_TABLE_SIZE, limit / partitions);
+        for (Table[] partial : partials) {
+          if (partial[partition] != table) {
+            table.merge(partial[partition]);
+          }
+        }
+        return table;
+      })
+      .toList();
+
+    List<Group> groups = new ArrayList<>();
+    long floor = 0;
+    boolean estimated = false;
+    for (Table table : merged) {
+      floor = Math.max(floor, table.floor);
+      for (Map.Entry<Object, Accumulator> entry : table.groups.entrySet()) {
+        Accumulator accumulator = entry.getValue();
+        estimated |= accumulator.sketch != null;
+        double value = accumulator.value(aggregation.function());
+        if (!Double.isNaN(value)) {
+          groups.add(new Group(entry.getKey(), value, accumulator.count, accumulator.error));
+        }
+      }
+    }
+    groups.sort(Comparator.comparingDouble(Group::value).reversed());
+    return new Result(groups, floor, estimated);
+  }
+
+  // goes through every combination of the values of the keys, most of the time there's a single one
+  private void accept(DataEntry entry, Table[] tables, Object[] values, int position) {
+    if (position == keys.length) {
+      Object key = keys.length == 1 ? values[0] : Arrays.asList(values.clone());
+      int hash = key.hashCode();
+      tables[(hash ^ (hash >>> 16)) & (tables.length - 1)].add(key, entry);
+      return;
+    }
+    Attribute<?> attribute = keys[position].find(entry);
+    if (attribute != null) {
+      attribute.forEachValue(value -> {
+        values[position] = value;
+        accept(entry, tables, values, position + 1);
+      });
+    }
+  }
+
+  private final class Table {
+
+    // how many groups and distinct values all the tables hold
+    private final AtomicLong live;
+    // what this table may hold once the limit is reached
+    private long share;
+    private final Map<Object, Accumulator> groups = new HashMap<>();
+    // how many groups and distinct values are kept
+    private long size;
+    // how much of the size was added to the live one
+    private long published;
+    // the most entries a dropped group had, which any group may be missing
+    private long floor;
+
+    private Table(AtomicLong live, long share) {
+      this.live = live;
+      this.share = share;
+    }
+
+    private void add(Object key, DataEntry entry) {
+      Accumulator accumulator = groups.get(key);
+      if (accumulator == null) {
+        accumulator = new Accumulator(floor);
+        groups.put(key, accumulator);
+        size++;
+      }
+      accumulator.count++;
+      if (aggregated != null) {
+        Attribute<?> attribute = aggregated.find(entry);
+        if (attribute != null) {
+          Accumulator target = accumulator;
+          attribute.forEachValue(value -> size += target.accept(aggregation.function(), value));
+        }
+      }
+      if (size - published >= PUBLISH_STEP) {
+        publish();
+      }
+    }
+
+    // only the tables holding more than their share give up groups, so the small ones are kept
+    private void publish() {
+      long total = live.addAndGet(size - published);
+      published = size;
+      if (total > limit && size > share) {
+        shrink();
+        live.addAndGet(size - published);
+        published = size;
+      }
+    }
+
+    private void merge(Table other) {
+      other.groups.forEach((key, accumulator) -> {
+        Accumulator current = groups.get(key);
+        if (current == null) {
+          // this table may have dropped it
+          accumulator.error += floor;
+          groups.put(key, accumulator);
+          size += 1 + accumulator.distinctSize();
+        } else {
+          size += current.merge(accumulator);
+        }
+      });
+      if (other.floor > 0) {
+        // and the other may have dropped the ones only here
+        groups.forEach((key, accumulator) -> {
+          if (!other.groups.containsKey(key)) {
+            accumulator.error += other.floor;
+          }
+        });
+      }
+      floor += other.floor;
+      // the groups of the other table are now here
+      live.addAndGet(-other.published);
+      other.published = 0;
+      publish();
+    }
+
+    // sketches the largest sets of distinct values and, if that's not enough, drops the smallest half of the groups
+    private void shrink() {
+      for (Accumulator accumulator : groups.values()) {
+        size -= accumulator.sketch();
+      }
+      if (groups.size() <= MIN_TABLE_SIZE || live.get() + size - published <= limit) {
+        return;
+      }
+      List<Map.Entry<Object, Accumulator>> sorted = new ArrayList<>(groups.entrySet());
+      sorted.sort(Comparator.comparingLong(entry -> entry.getValue().upperCount()));
+      for (Map.Entry<Object, Accumulator> entry : sorted.subList(0, sorted.size() / 2)) {
+        Accumulator dropped = entry.getValue();
+        floor = Math.max(floor, dropped.upperCount());
+        size -= 1 + dropped.distinctSize();
+        groups.remove(entry.getKey());
+      }
+    }
+
+  }
+
+  private static final class Accumulator {
+
+    private long count;
+    private long error;
+    private long numbers;
+    private double sum;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    private Set<Object> distinct;
+    // takes the place of the distinct values once there are too many of them
+    private HyperLogLog sketch;
+
+    private Accumulator(long error) {
+      this.error = error;
+    }
+
+    private long upperCount() {
+      return count + error;
+    }
+
+    // how many distinct values this takes the memory of
+    private int distinctSize() {
+      if (sketch != null) {
+        return SKETCH_SIZE;
+      }
+      return distinct == null ? 0 : distinct.size();
+    }
+
+    // returns by how much the size went down
+    private int sketch() {
+      if (distinct == null || distinct.size() <= SKETCH_SIZE) {
+        return 0;
+      }
+      int before = distinct.size();
+      sketch = new HyperLogLog(SKETCH_PRECISION);
+      distinct.forEach(sketch::add);
+      distinct = null;
+      return before - SKETCH_SIZE;
+    }
+
+    // returns how many distinct values were added
+    private int accept(Function function, Object value) {
+      if (function == Function.DISTINCT) {
+        if (sketch != null) {
+          sketch.add(value);
+          return 0;
+        }
+        if (distinct == null) {
+          distinct = new HashSet<>();
+        }
+        return distinct.add(value) ? 1 : 0;
+      }
+      if (value instanceof Number number) {
+        double decimal = number.doubleValue();
+        numbers++;
+        sum += decimal;
+        min = Math.min(min, decimal);
+        max = Math.max(max, decimal);
+      }
+      return 0;
+    }
+
+    // returns by how much the size changed
+    private int merge(Accumulator other) {
+      count += other.count;
+      error += other.error;
+      numbers += other.numbers;
+      sum += other.sum;
+      min = Math.min(min, other.min);
+      max = Math.max(max, other.max);
+      int before = distinctSize();
+      if (other.sketch != null) {
+        if (sketch == null) {
+          sketch = other.sketch;
+          if (distinct != null) {
+            distinct.forEach(sketch::add);
+            distinct = null;
+          }
+        } else {
+          sketch.merge(other.sketch);
+        }
+      } else if (other.distinct != null) {
+        if (sketch != null) {
+          other.distinct.forEach(sketch::add);
+        } else if (distinct == null) {
+          distinct = other.distinct;
+        } else {
+          distinct.addAll(other.distinct);
+        }
+      }
+      return distinctSize() - before;
+    }
+
+    private double value(Function function) {
+      return switch (function) {
+        case COUNT -> count;
+        case DISTINCT -> sketch == null ? distinctSize() : sketch.estimate();
+        case SUM -> sum;
+        case AVG -> numbers == 0 ? Double.NaN : sum / numbers;
+        case MIN -> numbers == 0 ? Double.NaN : min;
+        case MAX -> numbers == 0 ? Double.NaN : max;
+      };
+    }
+
+  }
+
+  public enum Function {
+    COUNT, SUM, AVG, MIN, MAX, DISTINCT
+  }
+
+  /**
+   * What to compute for each group, written as {@code count} or {@code function(attribute)}.
+   */
+  public record Aggregation(Function function, String attribute) {
+
+    public static final Aggregation COUNT = new Aggregation(Function.COUNT, null);
+
+    public static Aggregation parse(String expression) {
+      Matcher matcher = AGGREGATION_PATTERN.matcher(expression.trim());
+      if (!matcher.matches()) {
+        throw new UnbelievableException("Invalid aggregation: " + expression);
+      }
+      Function function;
+      try {
+        function = Function.valueOf(matcher.group("function").toUpperCase(Locale.ROOT));
+      } catch (IllegalArgumentException e) {
+        throw new UnbelievableException("Invalid aggregation: " + expression);
+      }
+      String attribute = matcher.group("attribute");
+      if (attribute == null || attribute.isBlank()) {
+        if (function != Function.COUNT) {
+          throw new UnbelievableException("The aggregation needs an attribute: " + expression);
+        }
+        return COUNT;
+      }
+      return new Aggregation(function, attribute.trim());
+    }
+
+    @Override
+    public String toString() {
+      return function.name().toLowerCase(Locale.ROOT) + "(" + (attribute == null ? "" : attribute) + ")";
+    }
+
+  }
+
+  /**
+   * @param key   the value of the attribute, or the list of values of the attributes, the entries were grouped by
+   * @param count how many entries are in the group
+   * @param error how many more entries the group may have, if some groups were dropped
+   */
+  public record Group(Object key, double value, long count, long error) {
+
+    public String name() {
+      if (key instanceof List<?> values) {
+        return values.stream().map(String::valueOf).reduce((left, right) -> left + ":" + right).orElse("");
+      }
+      return String.valueOf(key);
+    }
+
+  }
+
+  /**
+   * @param groups    the groups, from the highest value
+   * @param floor     how many entries a group that was dropped could have, which is zero if none was
+   * @param estimated whether the distinct values of some group were estimated instead of counted
+   */
+  public record Result(List<Group> groups, long floor, boolean estimated) {
+
+    public boolean approximate() {
+      return floor > 0 || estimated;
+    }
+
+  }
+
+}
@@ -0,0 +1,385 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Marcelo "Ataxexe" Guimarães
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.backpackcloud.sherlogholmes.model;
+
+import com.backpackcloud.UnbelievableException;
+import com.backpackcloud.sherlogholmes.util.LongTable;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.Temporal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * How many entries there are in each interval of time, optionally split by the values of an attribute.
+ * <p>
+ * The buckets are aligned to the unit, so a bucket of an hour always starts at the minute zero of the
+ * timeline.
+ */
+public final class Histogram {
+
+  private static final long MINUTE = ChronoUnit.MINUTES.getDuration().toNanos();
+  private static final long DAY = ChronoUnit.DAYS.getDuration().toNanos();
+  // a unit too small for the time span would take all the memory
+  private static final int MAX_BUCKETS = 1_000_000;
+
+  private final Timeline timeline;
+  private final ChronoUnit unit;
+  private final long first;
+  private final long[] totals;
+  private final Map<Object, long[]> series;
+
+  private Histogram(Timeline timeline, ChronoUnit unit, long first, long[] totals, Map<Object, long[]> series) {
+    this.timeline = timeline;
+    this.unit = unit;
+    this.first = first;
+    this.totals = totals;
+    this.series = series;
+  }
+
+  public ChronoUnit unit() {
+    return unit;
+  }
+
+  public boolean isEmpty() {
+    return totals.length == 0;
+  }
+
+  /**
+   * How many buckets there are, from the first to the last one with entries.
+   */
+  public int size() {
+    return totals.length;
+  }
+
+  /**
+   * When the given bucket starts.
+   */
+  public Temporal start(int bucket) {
+    return timeline.temporalOf((first + bucket) * widthOf(unit));
+  }
+
+  public long total(int bucket) {
+    return totals[bucket];
+  }
+
+  public long max() {
+    return Arrays.stream(totals).max().orElse(0);
+  }
+
+  /**
+   * The counts of each value of the attribute the entries were split by, from the most frequent value.
+   */
+  public Map<Object, long[]> series() {
+    return Collections.unmodifiableMap(series);
+  }
+
+  /**
+   * The width of the buckets of the given unit, in nanoseconds.
+   */
+  public static long widthOf(ChronoUnit unit) {
+    if (unit.compareTo(ChronoUnit.SECONDS) < 0 || unit.compareTo(ChronoUnit.DAYS) > 0) {
+      throw new UnbelievableException("Histograms take units from seconds to days: " + unit);
+    }
+    return unit.getDuration().toNanos();
+  }
+
+  /**
+   * Builds the histogram of the given entries in a single pass, which runs in parallel if the stream does.
+   *
+   * @param split the attribute to split the entries by, or {@code null} to only count them
+   */
+  public static Histogram of(Stream<DataEntry> entries, Timeline timeline, ChronoUnit unit, AttributeRef split) {
+    long width = widthOf(unit);
+    if (timeline == null) {
+      return new Histogram(Timeline.DATE_TIME, unit, 0, new long[0], Map.of());
+    }
+    Buckets buckets = entries.collect(
+      () -> new Buckets(timeline, width, split),
+      Buckets::accept,
+      Buckets::merge
+    );
+    return buckets.histogram(timeline, unit);
+  }
+
+  /**
+   * How the times of the sort keys map to the actual timestamps.
+   * <p>
+   * The keys of zoned and offset timestamps hold instants, which are bucketed and labeled in the zone
+   * (or offset) of the first timestamp, so the buckets line up with the times written in the logs.
+   */
+  public static final class Timeline {
+
+    // the local timestamps, whose keys already hold the times written in the logs
+    public static final Timeline DATE_TIME = new Timeline(Kind.DATE_TIME, null, false);
+    public static final Timeline DATE = new Timeline(Kind.DATE, null, false);
+    public static final Timeline TIME = new Timeline(Kind.TIME, null, false);
+
+    private enum Kind {
+      DATE_TIME, DATE, TIME
+    }
+
+    private final Kind kind;
+    private final ZoneId zone;
+    // whether the labels keep the zone itself or only its offset
+    private final boolean zoned;
+    // the offset in nanoseconds, if it never changes
+    private final Long fixedOffset;
+
+    private Timeline(Kind kind, ZoneId zone, boolean zoned) {
+      this.kind = kind;
+      this.zone = zone;
+      this.zoned = zoned;
+      this.fixedOffset = zone != null && zone.getRules().isFixedOffset()
+        ? zone.getRules().getOffset(Instant.EPOCH).getTotalSeconds() * 1_000_000_000L
+        : null;
+    }
+
+    long nanosOf(long time) {
+      return switch (kind) {
+        case DATE_TIME -> zone == null ? time : time + offsetOf(time);
+        // the keys hold the epoch day
+        case DATE -> time * DAY;
+        case TIME -> time;
+      };
+    }
+
+    private long offsetOf(long time) {
+      if (fixedOffset != null) {
+        return fixedOffset;
+      }
+      Instant instant = Instant.ofEpochSecond(Math.floorDiv(time, 1_000_000_000L));
+      return zone.getRules().getOffset(instant).getTotalSeconds() * 1_000_000_000L;
+    }
+
+    Temporal temporalOf(long nanos) {
+      return switch (kind) {
+        case DATE_TIME -> {
+          LocalDateTime local = LocalDateTime.ofEpochSecond(
+            Math.floorDiv(nanos, 1_000_000_000L), (int) Math.floorMod(nanos, 1_000_000_000L), ZoneOffset.UTC);
+          if (zone == null) {
+            yield local;
+          }
+          yield zoned ? ZonedDateTime.ofLocal(local, zone, null) : OffsetDateTime.of(local, (ZoneOffset) zone);
+        }
+        case DATE -> LocalDate.ofEpochDay(Math.floorDiv(nanos, DAY));
+        case TIME -> LocalTime.ofNanoOfDay(Math.floorMod(nanos, DAY));
+      };
+    }
+
+    public static Timeline of(Object timestamp) {
+      return switch (timestamp) {
+        case LocalDate date -> DATE;
+        case LocalTime time -> TIME;
+        case ZonedDateTime dateTime -> new Timeline(Kind.DATE_TIME, dateTime.getZone(), true);
+        case OffsetDateTime dateTime -> new Timeline(Kind.DATE_TIME, dateTime.getOffset(), false);
+        default -> DATE_TIME;
+      };
+    }
+
+  }
+
+  /**
+   * Counts the entries per minute as they are added, so the histograms of a minute or more don't need to
+   * go through the entries.
+   */
+  public static final class PerMinute {
+
+    private final LongTable<LongAdder> minutes = new LongTable<>();
+
+    public void add(Timeline timeline, SortKey key) {
+      long minute = Math.floorDiv(timeline.nanosOf(key.time()), MINUTE);
+      LongAdder count = minutes.get(minute);
+      if (count == null) {
+        count = minutes.putIfAbsent(minute, new LongAdder());
+      }
+      count.increment();
+    }
+
+    /**
+     * Whether the buckets of the given unit are made of whole minutes.
+     */
+    public static boolean covers(ChronoUnit unit) {
+      return unit.compareTo(ChronoUnit.MINUTES) >= 0 && widthOf(unit) % MINUTE == 0;
+    }
+
+    public Histogram histogram(Timeline timeline, ChronoUnit unit) {
+      long width = widthOf(unit);
+      Row totals = new Row();
+      minutes.forEach((minute, count) -> totals.add(Math.floorDiv(minute * MINUTE, width), count.sum()));
+      return new Buckets(totals, Map.of()).histogram(timeline, unit);
+    }
+
+    /**
+     * An estimate of the memory taken by the counts, in bytes.
+     */
+    public long footprint() {
+      return minutes.footprint() + minutes.size() * 24L;
+    }
+
+  }
+
+  private static final class Buckets {
+
+    private final Timeline timeline;
+    private final long width;
+    private final AttributeRef split;
+    private final Row totals;
+    private final Map<Object, Row> series;
+
+    private Buckets(Timeline timeline, long width, AttributeRef split) {
+      this.timeline = timeline;
+      this.width = width;
+      this.split = split;
+      this.totals = new Row();
+      this.series = new HashMap<>();
+    }
+
+    private Buckets(Row totals, Map<Object, Row> series) {
+      this.timeline = null;
+      this.width = 0;
+      this.split = null;
+      this.totals = totals;
+      this.series = series;
+    }
+
+    private void accept(DataEntry entry) {
+      SortKey key = entry.sortKey();
+      if (!key.hasTime()) {
+        return;
+      }
+      long bucket = Math.floorDiv(timeline.nanosOf(key.time()), width);
+      totals.add(bucket, 1);
+      if (split != null) {
+        Attribute<?> attribute = split.find(entry);
+        if (attribute != null) {
+          Consumer<Object> add = value -> series.computeIfAbsent(value, v -> new Row()).add(bucket, 1);
+          attribute.forEachValue(add);
+        }
+      }
+    }
+
+    private void merge(Buckets other) {
+      totals.merge(other.totals);
+      other.series.forEach((value, row) -> series.computeIfAbsent(value, v -> new Row()).merge(row));
+    }
+
+    private Histogram histogram(Timeline timeline, ChronoUnit unit) {
+      if (totals.isEmpty()) {
+        return new Histogram(timeline, unit, 0, new long[0], Map.of());
+      }
+      long first = totals.min;
+      int length = totals.length();
+      Map<Object, long[]> result = new LinkedHashMap<>();
+      series.entrySet().stream()
+        .sorted(Comparator.comparingLong((Map.Entry<Object, Row> entry) -> entry.getValue().sum()).reversed())
+        .forEach(entry -> result.put(entry.getKey(), entry.getValue().align(first, length)));
+      return new Histogram(timeline, unit, first, totals.align(first, length), result);
+    }
+
+  }
+
+  /**
+   * The counts of consecutive buckets, growing to both sides as buckets show up.
+   */
+  private static final class Row {
+
+    // the bucket of the first count
+    private long offset;
+    private long[] counts = new long[0];
+    // the buckets in use
+    private long min = Long.MAX_VALUE;
+    private long max = Long.MIN_VALUE;
+
+    private boolean isEmpty() {
+      return min > max;
+    }
+
+    private int length() {
+      return isEmpty() ? 0 : (int) (max - min + 1);
+    }
+
+    private void add(long bucket, long amount) {
+      if (isEmpty()) {
+        offset = bucket;
+        counts = new long[16];
+      } else {
+        if (Math.max(max, bucket) - Math.min(min, bucket) >= MAX_BUCKETS) {
+          throw new UnbelievableException("Too many buckets, try a larger unit");
+        }
+        if (bucket < offset) {
+          int extra = (int) Math.max(counts.length, offset - bucket);
+          long[] grown = new long[counts.length + extra];
+          System.arraycopy(counts, 0, grown, extra, counts.length);
+          counts = grown;
+          offset -= extra;
+        } else if (bucket - offset >= counts.length) {
+          counts = Arrays.copyOf(counts, (int) Math.max(bucket - offset + 1, counts.length * 2L));
+        }
+      }
+      counts[(int) (bucket - offset)] += amount;
+      min = Math.min(min, bucket);
+      max = Math.max(max, bucket);
+    }
+
+    private void merge(Row other) {
+      for (long bucket = other.min; bucket <= other.max; bucket++) {
+        long count = other.counts[(int) (bucket - other.offset)];
+        if (count != 0) {
+          add(bucket, count);
+        }
+      }
+    }
+
+    private long sum() {
+      return Arrays.stream(counts).sum();
+    }
+
+    private long[] align(long first, int length) {
+      long[] result = new long[length];
+      for (long bucket = min; bucket <= max; bucket++) {
+        result[(int) (bucket - first)] = counts[(int) (bucket - offset)];
+      }
+      return result;
+    }
+
+  }
+
+}
@@ -0,0 +1,172 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Marcelo "Ataxexe" Guimarães
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.backpackcloud.sherlogholmes.model;
+
+import com.backpackcloud.sherlogholmes.util.ByteSearch;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Discards, before they get parsed, the lines that can't pass a filter because they lack the texts
+ * its {@link Operation#CONTAINS} conditions look for.
+ * <p>
+ * This only holds if the values are captured from the lines as they are, which is why only the
+ * text attributes the parser captures and no step assigns are considered, and the lines having
+ * escape sequences (that may be removed before parsing) are always kept.
+ */
+public final class LinePrefilter {
+
+  public static final LinePrefilter NONE = new LinePrefilter(List.of(), null);
+
+  private static final int MAX_CLAUSES = 16;
+
+  private static final ByteSearch ESCAPE = ByteSearch.of(new byte[]{0x1B});
+
+  // the line must have at least one of the texts of each clause
+  private final List<String[]> clauses;
+  private final List<ByteSearch[]> searches;
+
+  private LinePrefilter(List<String[]> clauses, Charset charset) {
+    this.clauses = clauses;
+    this.searches = clauses.stream()
+      .map(texts -> {
+        ByteSearch[] result = new ByteSearch[texts.length];
+        for (int i = 0; i < texts.length; i++) {
+          result[i] = ByteSearch.of(texts[i], charset);
+        }
+        return result;
+      })
+      .toList();
+  }
+
+  /**
+   * Creates the prefilter for the given filter, which is {@link #NONE} if the filter doesn't require any text
+   * the given pipeline takes from the lines as it is.
+   */
+  public static LinePrefilter of(DataFilter filter, Pipeline pipeline, Charset charset) {
+    DataModel model = pipeline.dataModel();
+    Set<String> verbatim = pipeline.verbatimAttributes();
+    List<Set<String>> clauses = clauses(filter, attribute -> verbatim.contains(attribute) && isText(model, attribute));
+    if (clauses.isEmpty()) {
+      return NONE;
+    }
+    return new LinePrefilter(clauses.stream().map(texts -> texts.toArray(String[]::new)).toList(), charset);
+  }
+
+  public boolean isEmpty() {
+    return clauses.isEmpty();
+  }
+
+  public boolean test(String line) {
+    for (String[] texts : clauses) {
+      if (!containsAny(line, texts)) {
+        return line.indexOf(0x1B) >= 0;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Tests the encoded line in the given range, for charsets in which a text is always encoded to the same bytes
+   * (like UTF-8 and the single byte ones).
+   */
+  public boolean test(byte[] line, int from, int to) {
+    for (ByteSearch[] texts : searches) {
+      if (!containsAny(line, from, to, texts)) {
+        return ESCAPE.isIn(line, from, to);
+      }
+    }
+    return true;
+  }
+
+  private static boolean containsAny(String line, String[] texts) {
+    for (String text : texts) {
+      if (line.contains(text)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean containsAny(byte[] line, int from, int to, ByteSearch[] texts) {
+    for (ByteSearch text : texts) {
+      if (text.isIn(line, from, to)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Finds the texts an entry must have to pass the given filter, as clauses that must all be satisfied
+   * by at least one of their texts. An empty list means there's no text that can tell it.
+   */
+  private static List<Set<String>> clauses(DataFilter filter, Predicate<String> verbatim) {
+    if (filter instanceof BaseDataFilter base) {
+      if (base.operation() != Operation.CONTAINS || base.isInterpolated() || base.reference().isEmpty()
+        || !verbatim.test(base.attribute())) {
+        return List.of();
+      }
+      return List.of(Set.of(base.reference()));
+    }
+    if (filter instanceof CompositeFilter composite) {
+      List<Set<String>> left = clauses(composite.left(), verbatim);
+      List<Set<String>> right = clauses(composite.right(), verbatim);
+      List<Set<String>> result = new ArrayList<>();
+      if (composite.operation() == CompositeFilter.BooleanOperation.AND) {
+        result.addAll(left);
+        result.addAll(right);
+      } else {
+        // any clause of each side joined together is required by either of them
+        for (Set<String> leftClause : left) {
+          for (Set<String> rightClause : right) {
+            Set<String> clause = new LinkedHashSet<>(leftClause);
+            clause.addAll(rightClause);
+            result.add(clause);
+          }
+        }
+      }
+      return result.size() > MAX_CLAUSES ? result.subList(0, MAX_CLAUSES) : result;
+    }
+    return List.of();
+  }
+
+  // the other types may format their values differently from how they are in the lines
+  private static boolean isText(DataModel model, String attribute) {
+    if (Arrays.asList(AttributeLayout.RESERVED_ATTRIBUTES).contains(attribute)) {
+      return false;
+    }
+    return model.attribute(attribute)
+      .map(spec -> AttributeType.TEXT.name().equals(spec.type().name()))
+      .orElse(false);
+  }
+
+}
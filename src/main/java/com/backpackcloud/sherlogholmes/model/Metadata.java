@@ -26,9 +26,13 @@ package com.backpackcloud.sherlogholmes.model;
 
 public record Metadata(String source, int line) {
 
-  public void attachTo(DataEntry entry) {
-    entry.addAttribute("source", source);
-    entry.addAttribute("line", line);
+  private static final AttributeRef SOURCE = new AttributeRef("source");
+  private static final AttributeRef LINE = new AttributeRef("line");
+  private static final AttributeSpec<Integer> LINE_SPEC = new AttributeSpec<>(AttributeType.number(), false);
+
+  public void attachTo(DataEntry entry, Dictionary dictionary) {
+    SOURCE.set(entry, new Attribute<>("source", dictionary.textSpec()).assign(source));
+    LINE.set(entry, new Attribute<>("line", LINE_SPEC).assign(line));
   }
 
 }
@@ -24,9 +24,15 @@
 
 package com.backpackcloud.sherlogholmes.model;
 
+import com.backpackcloud.UnbelievableException;
+import com.backpackcloud.sherlogholmes.model.types.DictionaryType;
+import com.backpackcloud.sherlogholmes.util.PatternCache;
+
 import java.util.Arrays;
 import java.util.Optional;
+import java.util.function.Predicate;
 import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 public enum Operation {
 
@@ -57,7 +63,12 @@ public enum Operation {
   EQUAL("==") {
     @Override
     public boolean execute(Attribute<?> attribute, Object reference) {
-      return attribute.values().anyMatch(value -> value.equals(reference));
+      return contains(attribute, reference);
+    }
+
+    @Override
+    public Predicate<Attribute<?>> bind(AttributeType<?> type, Object reference) {
+      return containing(type, reference);
     }
 
     @Override
@@ -70,7 +81,12 @@ public enum Operation {
   DIFFERENT("!=") {
     @Override
     public boolean execute(Attribute<?> attribute, Object reference) {
-      return attribute.values().noneMatch(value -> value.equals(reference));
+      return !contains(attribute, reference);
+    }
+
+    @Override
+    public Predicate<Attribute<?>> bind(AttributeType<?> type, Object reference) {
+      return containing(type, reference).negate();
     }
 
     @Override
@@ -86,6 +102,12 @@ public enum Operation {
         .anyMatch(value -> value.contains(String.valueOf(reference)));
     }
 
+    @Override
+    public Predicate<Attribute<?>> bind(AttributeType<?> type, Object reference) {
+      String text = String.valueOf(reference);
+      return attribute -> attribute.formattedValues().anyMatch(value -> value.contains(text));
+    }
+
     @Override
     public Operation invert() {
       return EXCLUDES;
@@ -100,20 +122,37 @@ public enum Operation {
         .noneMatch(value -> value.contains(String.valueOf(reference)));
     }
 
+    @Override
+    public Predicate<Attribute<?>> bind(AttributeType<?> type, Object reference) {
+      String text = String.valueOf(reference);
+      return attribute -> attribute.formattedValues().noneMatch(value -> value.contains(text));
+    }
+
     @Override
     public Operation invert() {
-      return EQUAL;
+      return CONTAINS;
     }
   },
 
   MATCHES("~=") {
+    @Override
+    public void validate(Object reference) {
+      validatePattern(reference);
+    }
+
     @Override
     public boolean execute(Attribute<?> attribute, Object reference) {
-      Pattern pattern = Pattern.compile(String.valueOf(reference));
+      Pattern pattern = PatternCache.compile(String.valueOf(reference));
       return attribute.formattedValues()
         .anyMatch(value -> pattern.matcher(value).find());
     }
 
+    @Override
+    public Predicate<Attribute<?>> bind(AttributeType<?> type, Object reference) {
+      Pattern pattern = PatternCache.compile(String.valueOf(reference));
+      return attribute -> attribute.formattedValues().anyMatch(value -> pattern.matcher(value).find());
+    }
+
     @Override
     public Operation invert() {
       return MISMATCHES;
@@ -122,16 +161,27 @@ public enum Operation {
   },
 
   MISMATCHES("!~=") {
+    @Override
+    public void validate(Object reference) {
+      validatePattern(reference);
+    }
+
     @Override
     public boolean execute(Attribute<?> attribute, Object reference) {
-      Pattern pattern = Pattern.compile(String.valueOf(reference));
+      Pattern pattern = PatternCache.compile(String.valueOf(reference));
       return attribute.formattedValues()
         .noneMatch(value -> pattern.matcher(value).find());
     }
 
+    @Override
+    public Predicate<Attribute<?>> bind(AttributeType<?> type, Object reference) {
+      Pattern pattern = PatternCache.compile(String.valueOf(reference));
+      return attribute -> attribute.formattedValues().noneMatch(value -> pattern.matcher(value).find());
+    }
+
     @Override
     public Operation invert() {
-      return EQUAL;
+      return MATCHES;
     }
   },
 
@@ -201,6 +251,60 @@ public enum Operation {
 
   public abstract Operation invert();
 
+  /**
+   * Checks if the given reference can be used by this operation, failing if it can't.
+   */
+  public void validate(Object reference) {
+  }
+
+  /**
+   * Binds this operation to the given reference, which will be tested against attributes of the given type.
+   * <p>
+   * Whatever doesn't depend on the attribute is done here, only once.
+   */
+  public Predicate<Attribute<?>> bind(AttributeType<?> type, Object reference) {
+    return attribute -> execute(attribute, reference);
+  }
+
+  private static boolean contains(Attribute<?> attribute, Object reference) {
+    if (attribute.spec().type() instanceof DictionaryType type && reference instanceof String value) {
+      // the values are the instances kept by the dictionary, so there's no need to compare their contents
+      int code = type.dictionary().find(value);
+      if (code < 0) {
+        return false;
+      }
+      String instance = type.dictionary().value(code);
+      return attribute.values().anyMatch(item -> item == instance);
+    }
+    return attribute.values().anyMatch(value -> value.equals(reference));
+  }
+
+  private static void validatePattern(Object reference) {
+    try {
+      PatternCache.compile(String.valueOf(reference));
+    } catch (PatternSyntaxException e) {
+      throw new UnbelievableException("Invalid pattern: " + e.getDescription());
+    }
+  }
+
+  private static Predicate<Attribute<?>> containing(AttributeType<?> type, Object reference) {
+    if (type instanceof DictionaryType dictionaryType && reference instanceof String value) {
+      Dictionary dictionary = dictionaryType.dictionary();
+      int generation = dictionary.generation();
+      int code = dictionary.find(value);
+      if (code >= 0) {
+        String instance = dictionary.value(code);
+        return attribute -> dictionary.generation() == generation
+          ? attribute.values().anyMatch(item -> item == instance)
+          // the dictionary was cleared, so the values are held by other instances now
+          : contains(attribute, reference);
+      }
+      // the value may still show up in the dictionary
+      return attribute -> contains(attribute, reference);
+    }
+    return attribute -> attribute.values().anyMatch(value -> value.equals(reference));
+  }
+
   public static Optional<Operation> find(String symbol) {
     return Arrays.stream(Operation.values())
       .filter(operand -> symbol.equals(operand.symbol))
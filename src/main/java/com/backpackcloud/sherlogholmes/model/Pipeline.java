@@ -28,14 +28,28 @@ import com.backpackcloud.UnbelievableException;
 import com.backpackcloud.preferences.UserPreferences;
 import com.backpackcloud.sherlogholmes.Preferences;
 
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
 import java.util.function.Consumer;
 
 public class Pipeline {
 
+  private static final AttributeRef DATA_MODEL = new AttributeRef("data-model");
+  private static final AttributeRef MESSAGE = new AttributeRef("message");
+
   private final String id;
   private final DataParser dataParser;
   private final List<PipelineStep> analysisSteps;
@@ -55,6 +69,32 @@ public class Pipeline {
     return id;
   }
 
+  public DataModel dataModel() {
+    return dataParser.dataModel();
+  }
+
+  /**
+   * The attributes that keep the values captured from the lines as they are, since no step assigns them.
+   */
+  public Set<String> verbatimAttributes() {
+    Optional<Set<String>> targets = analysisSteps.stream()
+      .map(PipelineStep::targets)
+      .reduce(Optional.of(Set.of()), PipelineStep::union);
+    if (targets.isEmpty()) {
+      return Set.of();
+    }
+    Set<String> result = new HashSet<>(dataParser.capturedAttributes());
+    result.removeAll(targets.get());
+    return result;
+  }
+
+  /**
+   * Checks if the lines that can't be parsed are attached to the entry before them.
+   */
+  public boolean multiline() {
+    return dataParser.multiline();
+  }
+
   private String normalize(String content) {
     if (preferences.isEnabled(Preferences.REMOVE_ANSI_COLORS)) {
       return content.replaceAll("\\x1B(?:[@-Z\\\\-_]|\\[[0-?]*[ -/]*[@-~])", "");
@@ -63,10 +103,21 @@ public class Pipeline {
   }
 
   public <T> void run(DataReader<T> dataReader, T location, Consumer<DataEntry> consumer) {
+    run(dataReader, location, IngestionSettings.DEFAULT, consumer);
+  }
+
+  public <T> void run(DataReader<T> dataReader, T location, IngestionSettings settings, Consumer<DataEntry> consumer) {
+    DataModel dataModel = dataParser.dataModel();
     Consumer<DataEntry> addMetadata = entry -> {
-      entry.addAttribute("data-model", dataParser.dataModel().name());
+      DATA_MODEL.set(entry, new Attribute<>("data-model", dataModel.dictionary().textSpec()).assign(dataModel.name()));
     };
-    if (dataParser.multiline()) {
+    if (dataParser.multiline() && settings.workers() > 1) {
+      // the input is cut in chunks that are staged in parallel, the entries at the edges of
+      // the chunks are then stitched together following the order of the chunks
+      try (ChunkedStaging staging = new ChunkedStaging(settings, addMetadata, consumer)) {
+        dataReader.read(location, staging::push);
+      }
+    } else if (dataParser.multiline()) {
       StagingArea stagingArea = new StagingArea(consumer);
       // by using a single thread, new lines will be sequentially added to an internal queue
       //
@@ -83,22 +134,343 @@ public class Pipeline {
           )
         );
       }
-      stagingArea.push();
+      stagingArea.flush();
       stagingArea.close();
     } else {
       // if we can discard the lines that can't be parsed, we can be more
-      // aggressive and process each line in its own virtual thread
-      try (ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor()) {
-        dataReader.read(location, (metadata, content) ->
-          executorService.submit(() ->
-            dataParser.parse(metadata, normalize(content))
-              .ifPresent(addMetadata.andThen(consumer))
-          )
-        );
+      // aggressive and parse the lines in parallel
+      try (BatchedIngestion ingestion = new BatchedIngestion(settings,
+        (metadata, content) -> dataParser.parse(metadata, normalize(content)),
+        addMetadata.andThen(consumer)
+      )) {
+        dataReader.read(location, ingestion::push);
       }
     }
   }
 
+  /**
+   * Appends the lines that couldn't be parsed to the message of the entry they follow.
+   */
+  private static void attach(DataEntry entry, StringBuilder extraLines) {
+    Attribute<String> message = extraLines == null ? null : MESSAGE.find(entry);
+    if (message != null) {
+      message.value().ifPresent(value -> extraLines.insert(0, "\n").insert(0, value));
+      message.assignFromInput(extraLines.toString());
+    }
+  }
+
+  private static StringBuilder append(StringBuilder lines, CharSequence content) {
+    if (lines == null) {
+      return new StringBuilder(content);
+    }
+    return lines.append("\n").append(content);
+  }
+
+  private static <E> E take(BlockingQueue<E> queue) {
+    try {
+      return queue.take();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new UnbelievableException(e);
+    }
+  }
+
+  private static <E> void put(BlockingQueue<E> queue, E element) {
+    try {
+      queue.put(element);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new UnbelievableException(e);
+    }
+  }
+
+  private static class Batch {
+
+    private final Metadata[] metadata;
+    private final String[] contents;
+    private int size;
+
+    private Batch(int capacity) {
+      this.metadata = new Metadata[capacity];
+      this.contents = new String[capacity];
+    }
+
+    private boolean add(Metadata metadata, String content) {
+      this.metadata[size] = metadata;
+      this.contents[size] = content;
+      return ++size == contents.length;
+    }
+
+    private boolean isEmpty() {
+      return size == 0;
+    }
+
+    private void clear() {
+      Arrays.fill(metadata, 0, size, null);
+      Arrays.fill(contents, 0, size, null);
+      size = 0;
+    }
+
+  }
+
+  /**
+   * Hands the lines to a fixed set of workers in batches through a bounded queue.
+   * <p>
+   * The reader blocks when the workers can't keep up, and the batches are reused once
+   * parsed, so the memory needed doesn't depend on the size of the input.
+   */
+  private static class BatchedIngestion implements AutoCloseable {
+
+    private static final Batch END = new Batch(0);
+
+    private final BiFunction<Metadata, String, Optional<DataEntry>> parser;
+    private final Consumer<DataEntry> consumer;
+    private final BlockingQueue<Batch> pending;
+    private final BlockingQueue<Batch> available;
+    private final ExecutorService workers;
+    private final int workerCount;
+    private Batch current;
+    // what went wrong with the entries after they were parsed, which stops the ingestion
+    private volatile RuntimeException failure;
+
+    private BatchedIngestion(IngestionSettings settings,
+                             BiFunction<Metadata, String, Optional<DataEntry>> parser,
+                             Consumer<DataEntry> consumer) {
+      this.parser = parser;
+      this.consumer = consumer;
+      this.workerCount = settings.workers();
+      this.pending = new ArrayBlockingQueue<>(workerCount * 2);
+
+      // the one being filled, the ones waiting in the queue and the ones being parsed
+      int batches = 1 + workerCount * 2 + workerCount;
+      this.available = new ArrayBlockingQueue<>(batches);
+      for (int i = 0; i < batches; i++) {
+        this.available.add(new Batch(settings.batchSize()));
+      }
+
+      this.workers = Executors.newFixedThreadPool(workerCount);
+      for (int i = 0; i < workerCount; i++) {
+        this.workers.submit(this::work);
+      }
+      this.current = take(available);
+    }
+
+    private void push(Metadata metadata, String content) {
+      if (failure != null) {
+        throw new UnbelievableException(failure);
+      }
+      if (current.add(metadata, content)) {
+        put(pending, current);
+        current = take(available);
+      }
+    }
+
+    private void work() {
+      for (Batch batch = take(pending); batch != END; batch = take(pending)) {
+        // after a failure the batches are only given back, so the reader never waits for them
+        for (int i = 0; i < batch.size && failure == null; i++) {
+          Optional<DataEntry> parsed;
+          try {
+            parsed = parser.apply(batch.metadata[i], batch.contents[i]);
+          } catch (RuntimeException e) {
+            // a line that can't be parsed is discarded, just like the ones the parser rejects
+            continue;
+          }
+          try {
+            parsed.ifPresent(consumer);
+          } catch (RuntimeException e) {
+            failure = e;
+          }
+        }
+        batch.clear();
+        available.add(batch);
+      }
+    }
+
+    @Override
+    public void close() {
+      if (!current.isEmpty()) {
+        put(pending, current);
+      }
+      for (int i = 0; i < workerCount; i++) {
+        put(pending, END);
+      }
+      workers.shutdown();
+      try {
+        workers.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new UnbelievableException(e);
+      }
+      if (failure != null) {
+        throw new UnbelievableException(failure);
+      }
+    }
+
+  }
+
+  /**
+   * The outcome of staging a chunk of lines on its own.
+   * <p>
+   * The first entry of the chunk and the last one can't be completed without knowing what came
+   * before and after the chunk, so they are kept along with their lines, while the ones in between
+   * are passed along as soon as the next entry shows up.
+   */
+  private static class Chunk {
+
+    // the lines before the first entry, which belong to an entry from a previous chunk
+    private StringBuilder leadingLines;
+    private DataEntry first;
+    private StringBuilder firstLines;
+    private DataEntry last;
+    private StringBuilder lastLines;
+
+  }
+
+  private class ChunkedStaging implements AutoCloseable {
+
+    private final Consumer<DataEntry> addMetadata;
+    private final Consumer<DataEntry> consumer;
+    private final ExecutorService workers;
+    private final int windowSize;
+    private final Deque<Future<Chunk>> window;
+    private final BlockingQueue<Batch> available;
+    private Batch current;
+
+    // the last entry stitched so far and its lines, waiting for the next entry to show up
+    private DataEntry entry;
+    private StringBuilder extraLines;
+
+    private ChunkedStaging(IngestionSettings settings, Consumer<DataEntry> addMetadata, Consumer<DataEntry> consumer) {
+      this.addMetadata = addMetadata;
+      this.consumer = consumer;
+      this.workers = Executors.newFixedThreadPool(settings.workers());
+      this.windowSize = settings.workers() * 2;
+      this.window = new ArrayDeque<>();
+
+      // the ones in the window plus the one being filled
+      int batches = windowSize + 1;
+      this.available = new ArrayBlockingQueue<>(batches);
+      for (int i = 0; i < batches; i++) {
+        this.available.add(new Batch(settings.batchSize()));
+      }
+      this.current = take(available);
+    }
+
+    private void push(Metadata metadata, String content) {
+      if (current.add(metadata, content)) {
+        submit(current);
+        current = take(available);
+      }
+    }
+
+    private void submit(Batch batch) {
+      if (window.size() == windowSize) {
+        stitch(window.removeFirst());
+      }
+      window.addLast(workers.submit(() -> stage(batch)));
+    }
+
+    private Chunk stage(Batch batch) {
+      Chunk chunk = new Chunk();
+      for (int i = 0; i < batch.size; i++) {
+        String content = batch.contents[i];
+        Optional<DataEntry> parsed;
+        try {
+          parsed = dataParser.parse(batch.metadata[i], normalize(content));
+        } catch (RuntimeException e) {
+          // the staging area never sees a line that fails to be parsed
+          continue;
+        }
+        if (parsed.isPresent()) {
+          DataEntry dataEntry = parsed.get();
+          addMetadata.accept(dataEntry);
+          if (chunk.first == null) {
+            chunk.first = dataEntry;
+          } else {
+            if (chunk.last != null) {
+              attach(chunk.last, chunk.lastLines);
+              complete(chunk.last);
+            }
+            chunk.last = dataEntry;
+            chunk.lastLines = null;
+          }
+        } else if (chunk.last != null) {
+          chunk.lastLines = append(chunk.lastLines, content);
+        } else if (chunk.first != null) {
+          chunk.firstLines = append(chunk.firstLines, content);
+        } else {
+          chunk.leadingLines = append(chunk.leadingLines, content);
+        }
+      }
+      batch.clear();
+      available.add(batch);
+      return chunk;
+    }
+
+    private void stitch(Future<Chunk> future) {
+      Chunk chunk;
+      try {
+        chunk = future.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new UnbelievableException(e);
+      } catch (ExecutionException e) {
+        throw new UnbelievableException(e.getCause());
+      }
+
+      if (chunk.leadingLines != null) {
+        extraLines = append(extraLines, chunk.leadingLines);
+      }
+      if (chunk.first == null) {
+        return;
+      }
+
+      StringBuilder firstLines = chunk.firstLines;
+      if (entry != null) {
+        attach(entry, extraLines);
+        complete(entry);
+      } else if (extraLines != null) {
+        // just like the staging area, lines before the very first entry stay with it
+        firstLines = firstLines == null ? extraLines : extraLines.append("\n").append(firstLines);
+      }
+
+      if (chunk.last != null) {
+        attach(chunk.first, firstLines);
+        complete(chunk.first);
+        entry = chunk.last;
+        extraLines = chunk.lastLines;
+      } else {
+        entry = chunk.first;
+        extraLines = firstLines;
+      }
+    }
+
+    private void complete(DataEntry dataEntry) {
+      analysisSteps.forEach(step -> step.analyze(dataEntry));
+      consumer.accept(dataEntry);
+    }
+
+    @Override
+    public void close() {
+      try {
+        if (!current.isEmpty()) {
+          submit(current);
+        }
+        while (!window.isEmpty()) {
+          stitch(window.removeFirst());
+        }
+        if (entry != null) {
+          attach(entry, extraLines);
+          complete(entry);
+        }
+      } finally {
+        workers.shutdown();
+      }
+    }
+
+  }
+
   private class StagingArea {
 
     private StringBuilder extraLines;
@@ -145,17 +517,20 @@ public class Pipeline {
     }
 
     public void push(DataEntry dataEntry) {
-      if (this.entry != null && this.extraLines != null) {
-        if (this.entry.hasAttribute("message")) {
-          Attribute<String> message = this.entry.attribute("message", String.class).get();
-          message.value().ifPresent(value -> this.extraLines.insert(0, "\n").insert(0, value));
-          message.assignFromInput(this.extraLines.toString());
-        }
+      if (this.entry != null) {
+        attach(this.entry, this.extraLines);
       }
       push();
       this.entry = dataEntry;
     }
 
+    public void flush() {
+      if (this.entry != null) {
+        attach(this.entry, this.extraLines);
+      }
+      push();
+    }
+
   }
 
 }
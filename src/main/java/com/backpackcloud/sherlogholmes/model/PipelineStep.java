@@ -33,8 +33,11 @@ import com.backpackcloud.sherlogholmes.model.steps.RegexMapperStep;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
 
@@ -42,14 +45,46 @@ public interface PipelineStep {
 
   void analyze(DataEntry dataEntry);
 
+  /**
+   * The names of the attributes this step may assign, or nothing if it can't tell which ones.
+   */
+  default Optional<Set<String>> targets() {
+    return Optional.empty();
+  }
+
   default PipelineStep andThen(PipelineStep after) {
-    return dataEntry -> {
-      this.analyze(dataEntry);
-      after.analyze(dataEntry);
+    PipelineStep before = this;
+    return new PipelineStep() {
+      @Override
+      public void analyze(DataEntry dataEntry) {
+        before.analyze(dataEntry);
+        after.analyze(dataEntry);
+      }
+
+      @Override
+      public Optional<Set<String>> targets() {
+        return union(before.targets(), after.targets());
+      }
     };
   }
 
-  PipelineStep NOTHING = dataEntry -> {
+  static Optional<Set<String>> union(Optional<Set<String>> left, Optional<Set<String>> right) {
+    return left.flatMap(leftTargets -> right.map(rightTargets -> {
+      Set<String> result = new HashSet<>(leftTargets);
+      result.addAll(rightTargets);
+      return result;
+    }));
+  }
+
+  PipelineStep NOTHING = new PipelineStep() {
+    @Override
+    public void analyze(DataEntry dataEntry) {
+    }
+
+    @Override
+    public Optional<Set<String>> targets() {
+      return Optional.of(Set.of());
+    }
   };
 
   @JsonCreator
@@ -0,0 +1,224 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Marcelo "Ataxexe" Guimarães
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.backpackcloud.sherlogholmes.model;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Comparator;
+
+/**
+ * The attributes used to order the entries of the registry, reduced to primitives.
+ * <p>
+ * Each part follows the rules of {@link Attribute#compareTo(Attribute)}: a missing attribute
+ * doesn't take part in the comparison and a missing value comes first.
+ *
+ * @param time   the timestamp as nanoseconds (since the epoch or the start of the day)
+ * @param source the source of the entry, kept as text because the codes of the dictionary follow the order the
+ *               sources show up, not their order; it's the interned instance, so equal sources compare by identity
+ * @param line   the line of the entry
+ * @param flags  which parts are present and valued
+ */
+public record SortKey(long time, String source, int line, int flags) {
+
+  private static final AttributeRef TIMESTAMP = new AttributeRef("timestamp");
+  private static final AttributeRef SOURCE = new AttributeRef("source");
+  private static final AttributeRef LINE = new AttributeRef("line");
+
+  private static final int TIME_PRESENT = 1;
+  private static final int TIME_VALUED = 1 << 1;
+  private static final int SOURCE_PRESENT = 1 << 2;
+  private static final int SOURCE_VALUED = 1 << 3;
+  private static final int LINE_PRESENT = 1 << 4;
+  private static final int LINE_VALUED = 1 << 5;
+  // some attribute can't be reduced, so the entry must be compared by its attributes
+  private static final int INEXACT = 1 << 6;
+
+  public static final SortKey INEXACT_KEY = new SortKey(0, null, 0, INEXACT);
+
+  public static final Comparator<SortKey> FULL_TIMESTAMP_ORDER = (left, right) -> {
+    int result = left.compareTime(right);
+    if (result == 0) {
+      result = left.compareSource(right);
+      if (result == 0) {
+        result = left.compareLine(right);
+      }
+    }
+    return result;
+  };
+
+  public static final Comparator<SortKey> TIME_ONLY_ORDER = (left, right) -> {
+    int result = left.compareSource(right);
+    if (result == 0) {
+      result = left.compareLine(right);
+      if (result == 0) {
+        result = left.compareTime(right);
+      }
+    }
+    return result;
+  };
+
+  public static final Comparator<SortKey> NO_TIMESTAMP_ORDER = (left, right) -> {
+    int result = left.compareSource(right);
+    if (result == 0) {
+      result = left.compareLine(right);
+    }
+    return result;
+  };
+
+  public boolean exact() {
+    return (flags & INEXACT) == 0;
+  }
+
+  /**
+   * Whether this key holds the value of the timestamp in {@link #time()}.
+   */
+  public boolean hasTime() {
+    return (flags & (TIME_VALUED | INEXACT)) == TIME_VALUED;
+  }
+
+  private int compareTime(SortKey other) {
+    return compare(TIME_PRESENT, TIME_VALUED, other, Long.compare(time, other.time));
+  }
+
+  private int compareSource(SortKey other) {
+    if ((flags & other.flags & SOURCE_VALUED) != 0) {
+      // most of the time both entries come from the same source
+      return source == other.source ? 0 : source.compareTo(other.source);
+    }
+    return compare(SOURCE_PRESENT, SOURCE_VALUED, other, 0);
+  }
+
+  private int compareLine(SortKey other) {
+    return compare(LINE_PRESENT, LINE_VALUED, other, Integer.compare(line, other.line));
+  }
+
+  private int compare(int present, int valued, SortKey other, int values) {
+    if ((flags & other.flags & present) == 0) {
+      return 0;
+    }
+    boolean thisValued = (flags & valued) != 0;
+    boolean otherValued = (other.flags & valued) != 0;
+    if (thisValued && otherValued) {
+      return values;
+    }
+    if (thisValued == otherValued) {
+      return 0;
+    }
+    return thisValued ? 1 : -1;
+  }
+
+  /**
+   * Reduces the ordering attributes of the given entry.
+   */
+  public static SortKey of(DataEntry entry) {
+    int flags = 0;
+    long time = 0;
+    String source = null;
+    int line = 0;
+
+    Attribute<?> timestamp = TIMESTAMP.find(entry);
+    if (timestamp != null) {
+      if (timestamp.spec().multivalued()) {
+        return INEXACT_KEY;
+      }
+      flags |= TIME_PRESENT;
+      Object value = timestamp.value().orElse(null);
+      if (value != null) {
+        Long nanos = timeOf(value);
+        if (nanos == null) {
+          return INEXACT_KEY;
+        }
+        flags |= TIME_VALUED;
+        time = nanos;
+      }
+    }
+
+    Attribute<?> sourceAttribute = SOURCE.find(entry);
+    if (sourceAttribute != null) {
+      if (sourceAttribute.spec().multivalued()) {
+        return INEXACT_KEY;
+      }
+      flags |= SOURCE_PRESENT;
+      Object value = sourceAttribute.value().orElse(null);
+      if (value != null) {
+        if (!(value instanceof String text)) {
+          return INEXACT_KEY;
+        }
+        flags |= SOURCE_VALUED;
+        source = text;
+      }
+    }
+
+    Attribute<?> lineAttribute = LINE.find(entry);
+    if (lineAttribute != null) {
+      if (lineAttribute.spec().multivalued()) {
+        return INEXACT_KEY;
+      }
+      flags |= LINE_PRESENT;
+      Object value = lineAttribute.value().orElse(null);
+      if (value != null) {
+        if (!(value instanceof Integer number)) {
+          return INEXACT_KEY;
+        }
+        flags |= LINE_VALUED;
+        line = number;
+      }
+    }
+
+    return new SortKey(time, source, line, flags);
+  }
+
+  /**
+   * Reduces the given timestamp the same way the keys do.
+   *
+   * @return the reduced value or {@code null} if it can't be reduced.
+   */
+  public static Long timeOf(Object value) {
+    return switch (value) {
+      case LocalDateTime dateTime -> nanosOf(dateTime.toInstant(ZoneOffset.UTC));
+      case OffsetDateTime dateTime -> nanosOf(dateTime.toInstant());
+      case ZonedDateTime dateTime -> nanosOf(dateTime.toInstant());
+      case LocalTime localTime -> localTime.toNanoOfDay();
+      case LocalDate date -> date.toEpochDay();
+      case Instant instant -> nanosOf(instant);
+      default -> null;
+    };
+  }
+
+  private static Long nanosOf(Instant instant) {
+    // roughly 292 years around the epoch fit in a long
+    try {
+      return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), 1_000_000_000L), instant.getNano());
+    } catch (ArithmeticException e) {
+      return null;
+    }
+  }
+
+}
@@ -0,0 +1,120 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Marcelo "Ataxexe" Guimarães
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.backpackcloud.sherlogholmes.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A text with placeholders for attributes, split once in literal parts and attribute references.
+ */
+public final class Template {
+
+  private final String text;
+  // either a String or an AttributeRef
+  private final Object[] parts;
+
+  private Template(String text, Object[] parts) {
+    this.text = text;
+    this.parts = parts;
+  }
+
+  /**
+   * Splits the given text using the given pattern, which must capture the name of the
+   * attribute in a group called {@code name}.
+   */
+  public static Template compile(String text, Pattern placeholder, boolean trim) {
+    List<Object> parts = new ArrayList<>();
+    Matcher matcher = placeholder.matcher(text);
+    int last = 0;
+    while (matcher.find()) {
+      if (matcher.start() > last) {
+        parts.add(text.substring(last, matcher.start()));
+      }
+      String name = matcher.group("name");
+      parts.add(new AttributeRef(trim ? name.trim() : name));
+      last = matcher.end();
+    }
+    if (last < text.length()) {
+      parts.add(text.substring(last));
+    }
+    return new Template(text, parts.toArray());
+  }
+
+  public String text() {
+    return text;
+  }
+
+  /**
+   * Whether the text has no placeholders at all.
+   */
+  public boolean isConstant() {
+    for (Object part : parts) {
+      if (part instanceof AttributeRef) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Replaces the placeholders with the values of the given entry, a missing value becomes an empty text.
+   */
+  public String render(DataEntry entry) {
+    return render(entry, true).orElseThrow();
+  }
+
+  /**
+   * Replaces the placeholders with the values of the given entry, if all of them are present.
+   */
+  public Optional<String> renderIfComplete(DataEntry entry) {
+    return render(entry, false);
+  }
+
+  private Optional<String> render(DataEntry entry, boolean allowMissing) {
+    if (parts.length == 1 && parts[0] instanceof String literal) {
+      return Optional.of(literal);
+    }
+    StringBuilder result = new StringBuilder(text.length());
+    for (Object part : parts) {
+      if (part instanceof AttributeRef ref) {
+        Attribute<?> attribute = ref.find(entry);
+        Optional<String> value = attribute == null ? Optional.empty() : attribute.formattedValue();
+        if (value.isPresent()) {
+          result.append(value.get());
+        } else if (!allowMissing) {
+          return Optional.empty();
+        }
+      } else {
+        result.append((String) part);
+      }
+    }
+    return Optional.of(result.toString());
+  }
+
+}
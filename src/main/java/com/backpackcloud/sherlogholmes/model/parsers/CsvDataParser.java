@@ -73,7 +73,7 @@ public class CsvDataParser implements DataParser {
       String[] strings = csvReader.readNext();
 
       DataEntry entry = dataModel.create();
-      metadata.attachTo(entry);
+      metadata.attachTo(entry, dataModel.dictionary());
 
       for (int i = 0; i < attributeOrder.length; i++) {
         String name = attributeOrder[i];
@@ -65,7 +65,7 @@ public class JsonDataParser implements DataParser {
     }
     JsonNode jsonNode = deserializer.deserialize(content.trim(), JsonNode.class);
     DataEntry entry = dataModel.create();
-    metadata.attachTo(entry);
+    metadata.attachTo(entry, dataModel.dictionary());
     attributeMappings.forEach((name, path) ->
       entry.attribute(name)
         .ifPresent(attr ->
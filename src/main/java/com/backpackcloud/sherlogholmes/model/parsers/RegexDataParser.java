@@ -24,6 +24,7 @@
 
 package com.backpackcloud.sherlogholmes.model.parsers;
 
+import com.backpackcloud.sherlogholmes.model.AttributeRef;
 import com.backpackcloud.sherlogholmes.model.DataEntry;
 import com.backpackcloud.sherlogholmes.model.DataModel;
 import com.backpackcloud.sherlogholmes.model.DataParser;
@@ -39,14 +40,16 @@ public class RegexDataParser implements DataParser {
   private final String name;
   private final DataModel dataModel;
   private final Pattern pattern;
-  private final Set<String> attributes;
+  private final AttributeRef[] attributes;
   private final boolean multiline;
 
   public RegexDataParser(String name, DataModel dataModel, Pattern pattern, boolean multiline) {
     this.name = name;
     this.dataModel = dataModel;
     this.pattern = pattern;
-    this.attributes = pattern.namedGroups().keySet();
+    this.attributes = pattern.namedGroups().keySet().stream()
+      .map(AttributeRef::new)
+      .toArray(AttributeRef[]::new);
     this.multiline = multiline;
   }
 
@@ -65,17 +68,22 @@ public class RegexDataParser implements DataParser {
     return multiline;
   }
 
+  @Override
+  public Set<String> capturedAttributes() {
+    return pattern.namedGroups().keySet();
+  }
+
   @Override
   public Optional<DataEntry> parse(Metadata metadata, String content) {
     Matcher matcher = pattern.matcher(content);
     if (matcher.find()) {
       DataEntry entry = dataModel.create();
-      metadata.attachTo(entry);
-      attributes.forEach(name ->
-        entry.attribute(name)
+      metadata.attachTo(entry, dataModel.dictionary());
+      for (AttributeRef attribute : attributes) {
+        attribute.from(entry)
           .ifPresent(attr ->
-            attr.assignFromInput(matcher.group(name)))
-      );
+            attr.assignFromInput(matcher.group(attribute.name())));
+      }
       return Optional.of(entry);
     }
     return Optional.empty();
@@ -26,6 +26,7 @@ package com.backpackcloud.sherlogholmes.model.readers;
 
 import com.backpackcloud.UnbelievableException;
 import com.backpackcloud.sherlogholmes.model.DataReader;
+import com.backpackcloud.sherlogholmes.model.LinePrefilter;
 import com.backpackcloud.sherlogholmes.model.Metadata;
 
 import java.io.IOException;
@@ -38,9 +39,15 @@ import java.util.function.BiConsumer;
 public class FileLineReader implements DataReader<String> {
 
   private final Charset charset;
+  private final LinePrefilter prefilter;
 
   public FileLineReader(Charset charset) {
+    this(charset, LinePrefilter.NONE);
+  }
+
+  public FileLineReader(Charset charset, LinePrefilter prefilter) {
     this.charset = charset;
+    this.prefilter = prefilter;
   }
 
   @Override
@@ -49,8 +56,12 @@ public class FileLineReader implements DataReader<String> {
     AtomicInteger count = new AtomicInteger(0);
     try {
       Files.lines(path, charset)
-        .forEach(line ->
-          consumer.accept(new Metadata(path.getFileName().toString(), count.incrementAndGet()), line));
+        .forEach(line -> {
+          int number = count.incrementAndGet();
+          if (prefilter.test(line)) {
+            consumer.accept(new Metadata(path.getFileName().toString(), number), line);
+          }
+        });
     } catch (IOException e) {
       throw new UnbelievableException(e);
     }
@@ -0,0 +1,224 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Marcelo "Ataxexe" Guimarães
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.backpackcloud.sherlogholmes.model.readers;
+
+import com.backpackcloud.UnbelievableException;
+import com.backpackcloud.sherlogholmes.model.DataReader;
+import com.backpackcloud.sherlogholmes.model.LinePrefilter;
+import com.backpackcloud.sherlogholmes.model.Metadata;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+
+/**
+ * Reads a file by memory mapping it in newline aligned chunks that are scanned and decoded
+ * by a pool of workers.
+ * <p>
+ * Lines are still handed to the consumer in the same order they appear in the file and from
+ * the calling thread, so it can replace the {@link FileLineReader} without breaking pipelines
+ * that depend on the line order (like the multiline ones).
+ * <p>
+ * Only charsets in which a '\n' byte always means a line break can be split this way, any other
+ * charset falls back to the {@link FileLineReader}.
+ * <p>
+ * The lines are tested against the given {@link LinePrefilter} while still encoded, so the ones it
+ * discards are never decoded.
+ */
+public class MappedFileLineReader implements DataReader<String> {
+
+  public static final int DEFAULT_CHUNK_SIZE = 1024 * 1024;
+
+  private static final int BOUNDARY_SCAN_SIZE = 8 * 1024;
+
+  private final Charset charset;
+  private final int chunkSize;
+  private final int workers;
+  private final LinePrefilter prefilter;
+
+  public MappedFileLineReader(Charset charset) {
+    this(charset, LinePrefilter.NONE);
+  }
+
+  public MappedFileLineReader(Charset charset, LinePrefilter prefilter) {
+    this(charset, DEFAULT_CHUNK_SIZE, Runtime.getRuntime().availableProcessors(), prefilter);
+  }
+
+  public MappedFileLineReader(Charset charset, int chunkSize, int workers) {
+    this(charset, chunkSize, workers, LinePrefilter.NONE);
+  }
+
+  public MappedFileLineReader(Charset charset, int chunkSize, int workers, LinePrefilter prefilter) {
+    if (chunkSize < 1 || workers < 1) {
+      throw new UnbelievableException("Invalid chunk size or number of workers");
+    }
+    this.charset = charset;
+    this.chunkSize = chunkSize;
+    this.workers = workers;
+    this.prefilter = prefilter;
+  }
+
+  @Override
+  public void read(String location, BiConsumer<Metadata, String> consumer) {
+    if (!isSplittable(charset)) {
+      new FileLineReader(charset, prefilter).read(location, consumer);
+      return;
+    }
+
+    Path path = Path.of(location);
+    String source = path.getFileName().toString();
+
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+         ExecutorService executor = Executors.newFixedThreadPool(workers)) {
+      long[] boundaries = boundaries(channel);
+      int chunks = boundaries.length - 1;
+
+      // only a few chunks are decoded ahead of the consumer, otherwise a slow consumer
+      // would end up with the whole file decoded in memory
+      Deque<Future<List<String>>> window = new ArrayDeque<>();
+      int next = 0;
+      // prefix sum of the line counts of the chunks already emitted, which is the line offset of the next one
+      int offset = 0;
+
+      while (next < chunks || !window.isEmpty()) {
+        while (next < chunks && window.size() < workers * 2) {
+          long start = boundaries[next];
+          long end = boundaries[next + 1];
+          window.addLast(executor.submit(() -> decode(channel, start, end)));
+          next++;
+        }
+        List<String> lines = window.removeFirst().get();
+        for (String line : lines) {
+          offset++;
+          // the discarded lines are still counted, so the next ones keep their numbers
+          if (line != null) {
+            consumer.accept(new Metadata(source, offset), line);
+          }
+        }
+      }
+    } catch (IOException e) {
+      throw new UnbelievableException(e);
+    } catch (ExecutionException e) {
+      throw new UnbelievableException(e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new UnbelievableException(e);
+    }
+  }
+
+  /**
+   * Splits the file in chunks of roughly the configured size, moving each boundary to the start
+   * of the next line so no line is split between two chunks.
+   */
+  private long[] boundaries(FileChannel channel) throws IOException {
+    long size = channel.size();
+    List<Long> result = new ArrayList<>();
+    result.add(0L);
+
+    long position = 0;
+    while (position < size) {
+      position = nextLineStart(channel, Math.min(size, position + chunkSize), size);
+      result.add(position);
+    }
+
+    return result.stream().mapToLong(Long::longValue).toArray();
+  }
+
+  private long nextLineStart(FileChannel channel, long position, long size) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(BOUNDARY_SCAN_SIZE);
+    while (position < size) {
+      buffer.clear();
+      int read = channel.read(buffer, position);
+      if (read <= 0) {
+        break;
+      }
+      for (int i = 0; i < read; i++) {
+        if (buffer.get(i) == '\n') {
+          return position + i + 1;
+        }
+      }
+      position += read;
+    }
+    return size;
+  }
+
+  private List<String> decode(FileChannel channel, long start, long end) throws IOException {
+    MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+    byte[] bytes = new byte[buffer.remaining()];
+    buffer.get(bytes);
+
+    List<String> lines = new ArrayList<>();
+    int lineStart = 0;
+    for (int i = 0; i < bytes.length; i++) {
+      if (bytes[i] == '\n') {
+        lines.add(line(bytes, lineStart, i));
+        lineStart = i + 1;
+      }
+    }
+    // the last line of the file doesn't need to end with a line break
+    if (lineStart < bytes.length) {
+      lines.add(line(bytes, lineStart, bytes.length));
+    }
+    return lines;
+  }
+
+  private String line(byte[] bytes, int start, int end) {
+    if (!prefilter.test(bytes, start, end)) {
+      return null;
+    }
+    if (end > start && bytes[end - 1] == '\r') {
+      end--;
+    }
+    return new String(bytes, start, end - start, charset);
+  }
+
+  /**
+   * Checks if the given charset can be split at any '\n' byte without breaking a character in half.
+   * This holds for UTF-8, since no byte of a multibyte sequence is below 0x80, and for the single
+   * byte charsets that encode the line feed as in ASCII.
+   */
+  public static boolean isSplittable(Charset charset) {
+    if (!Arrays.equals("\n".getBytes(charset), new byte[]{'\n'})) {
+      return false;
+    }
+    return StandardCharsets.UTF_8.equals(charset) || charset.newEncoder().maxBytesPerChar() == 1;
+  }
+
+}
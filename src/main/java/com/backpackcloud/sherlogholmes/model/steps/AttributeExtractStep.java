@@ -24,41 +24,53 @@
 
 package com.backpackcloud.sherlogholmes.model.steps;
 
+import com.backpackcloud.sherlogholmes.model.AttributeRef;
 import com.backpackcloud.sherlogholmes.model.DataEntry;
 import com.backpackcloud.sherlogholmes.model.PipelineStep;
+import com.backpackcloud.sherlogholmes.util.MultiTextMatcher;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 public class AttributeExtractStep implements PipelineStep {
 
-  private final String sourceAttribute;
-  private final String targetAttribute;
+  private final AttributeRef sourceAttribute;
+  private final AttributeRef targetAttribute;
   private final List<String> texts;
+  private final MultiTextMatcher matcher;
 
   @JsonCreator
   public AttributeExtractStep(@JsonProperty("from") String sourceAttribute,
                               @JsonProperty("to") String targetAttribute,
                               @JsonProperty("any") List<String> texts) {
 
-    this.sourceAttribute = sourceAttribute;
-    this.targetAttribute = targetAttribute;
+    this.sourceAttribute = new AttributeRef(sourceAttribute);
+    this.targetAttribute = new AttributeRef(targetAttribute);
     this.texts = texts;
+    this.matcher = MultiTextMatcher.of(texts);
   }
 
   @Override
   public void analyze(DataEntry dataEntry) {
-    dataEntry.attribute(sourceAttribute)
+    sourceAttribute.from(dataEntry)
       .ifPresent(source ->
         source.formattedValue()
-          .ifPresent(value -> texts.stream()
-            .filter(value::contains)
-            .findFirst()
-            .ifPresent(found ->
-              dataEntry.attribute(targetAttribute)
-                .ifPresent(target ->
-                  target.assignFromInput(found)))));
+          .ifPresent(value -> {
+            // the first text in the configured order wins, not the first one in the value
+            int found = matcher.firstInOrder(value);
+            if (found >= 0) {
+              targetAttribute.from(dataEntry)
+                .ifPresent(target -> target.assignFromInput(texts.get(found)));
+            }
+          }));
   }
 
-}
\ No newline at end of file
+  @Override
+  public Optional<Set<String>> targets() {
+    return Optional.of(Set.of(targetAttribute.name()));
+  }
+
+}
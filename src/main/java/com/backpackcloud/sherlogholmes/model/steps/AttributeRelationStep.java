@@ -25,34 +25,42 @@
 package com.backpackcloud.sherlogholmes.model.steps;
 
 import com.backpackcloud.sherlogholmes.model.Attribute;
+import com.backpackcloud.sherlogholmes.model.AttributeRef;
 import com.backpackcloud.sherlogholmes.model.DataEntry;
 import com.backpackcloud.sherlogholmes.model.PipelineStep;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 public class AttributeRelationStep implements PipelineStep {
 
-  private final String sourceAttribute;
-  private final String targetAttribute;
+  private final AttributeRef sourceAttribute;
+  private final AttributeRef targetAttribute;
   private final Map<String, String> assignMap;
 
   public AttributeRelationStep(@JsonProperty("source") String sourceAttribute,
                                @JsonProperty("target") String targetAttribute,
                                @JsonProperty("relation") Map<String, String> assignMap) {
-    this.sourceAttribute = sourceAttribute;
-    this.targetAttribute = targetAttribute;
+    this.sourceAttribute = new AttributeRef(sourceAttribute);
+    this.targetAttribute = new AttributeRef(targetAttribute);
     this.assignMap = assignMap;
   }
 
   @Override
   public void analyze(DataEntry dataEntry) {
-    dataEntry.attribute(sourceAttribute)
+    sourceAttribute.from(dataEntry)
       .flatMap(Attribute::formattedValue)
       .filter(assignMap::containsKey)
       .map(assignMap::get)
-      .ifPresent(value -> dataEntry.attribute(targetAttribute)
+      .ifPresent(value -> targetAttribute.from(dataEntry)
         .ifPresent(target -> target.assignFromInput(value)));
   }
 
+  @Override
+  public Optional<Set<String>> targets() {
+    return Optional.of(Set.of(targetAttribute.name()));
+  }
+
 }
@@ -24,14 +24,18 @@
 
 package com.backpackcloud.sherlogholmes.model.steps;
 
+import com.backpackcloud.sherlogholmes.model.AttributeRef;
 import com.backpackcloud.sherlogholmes.model.DataEntry;
 import com.backpackcloud.sherlogholmes.model.PipelineStep;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import java.util.Optional;
+import java.util.Set;
+
 public class AttributeReplaceStep implements PipelineStep {
 
-  private final String attributeName;
+  private final AttributeRef attribute;
   private final String searchText;
   private final String replaceText;
 
@@ -39,16 +43,21 @@ public class AttributeReplaceStep implements PipelineStep {
   public AttributeReplaceStep(@JsonProperty("attribute") String attributeName,
                               @JsonProperty("text") String searchText,
                               @JsonProperty("with") String replaceText) {
-    this.attributeName = attributeName;
+    this.attribute = new AttributeRef(attributeName);
     this.searchText = searchText;
     this.replaceText = replaceText;
   }
 
   @Override
   public void analyze(DataEntry dataEntry) {
-    dataEntry.attribute(attributeName)
+    attribute.from(dataEntry)
       .ifPresent(attr -> attr.formattedValue()
         .ifPresent(value -> attr.assignFromInput(value.replace(searchText, replaceText))));
   }
 
+  @Override
+  public Optional<Set<String>> targets() {
+    return Optional.of(Set.of(attribute.name()));
+  }
+
 }
@@ -24,44 +24,48 @@
 
 package com.backpackcloud.sherlogholmes.model.steps;
 
-import com.backpackcloud.UnbelievableException;
 import com.backpackcloud.sherlogholmes.model.Attribute;
+import com.backpackcloud.sherlogholmes.model.AttributeRef;
 import com.backpackcloud.sherlogholmes.model.DataEntry;
 import com.backpackcloud.sherlogholmes.model.PipelineStep;
+import com.backpackcloud.sherlogholmes.model.Template;
 import com.fasterxml.jackson.annotation.JsonCreator;
 
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.function.BiConsumer;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 public class AttributeSetStep implements PipelineStep {
 
   private static final Pattern INTERPOLATION_PATTERN = Pattern.compile("\\{(?<name>\\s*[^}]+\\s*)}");
 
-  private final Map<String, String> assigners;
+  private final Map<AttributeRef, Template> assigners;
   private final BiConsumer<Attribute<?>, String> assignAction;
 
   @JsonCreator
   public AttributeSetStep(Map<String, String> assigners) {
-    this.assigners = assigners;
+    this.assigners = new LinkedHashMap<>();
+    assigners.forEach((name, format) ->
+      this.assigners.put(new AttributeRef(name), Template.compile(format, INTERPOLATION_PATTERN, true)));
     this.assignAction = Attribute::assignFromInput;
   }
 
   @Override
   public void analyze(DataEntry dataEntry) {
-    assigners.forEach((targetAttribute, format) -> {
-      Matcher matcher = INTERPOLATION_PATTERN.matcher(format);
-      try {
-        String result = matcher.replaceAll(matchResult -> dataEntry.attribute(matchResult.group("name").trim())
-          .flatMap(Attribute::formattedValue)
-          .orElseThrow(UnbelievableException::new));
-        dataEntry.attribute(targetAttribute)
-          .ifPresent(attr -> assignAction.accept(attr, result));
-      } catch (UnbelievableException e) {
-        // just keep going, don't try to assign what can't be assigned
-      }
-    });
+    assigners.forEach((targetAttribute, template) ->
+      // don't try to assign what can't be assigned
+      template.renderIfComplete(dataEntry).ifPresent(result ->
+        targetAttribute.from(dataEntry)
+          .ifPresent(attr -> assignAction.accept(attr, result))));
   }
 
-}
\ No newline at end of file
+  @Override
+  public Optional<Set<String>> targets() {
+    return Optional.of(assigners.keySet().stream().map(AttributeRef::name).collect(Collectors.toSet()));
+  }
+
+}
@@ -27,6 +27,8 @@ package com.backpackcloud.sherlogholmes.model.steps;
 import com.backpackcloud.sherlogholmes.model.DataEntry;
 import com.backpackcloud.sherlogholmes.model.PipelineStep;
 
+import java.util.Optional;
+import java.util.Set;
 import java.util.function.Predicate;
 
 public class BasicPipelineStep implements PipelineStep {
@@ -53,4 +55,9 @@ public class BasicPipelineStep implements PipelineStep {
     }
   }
 
+  @Override
+  public Optional<Set<String>> targets() {
+    return PipelineStep.union(stepIfPositive.targets(), stepIfNegative.targets());
+  }
+
 }
@@ -25,39 +25,46 @@
 package com.backpackcloud.sherlogholmes.model.steps;
 
 import com.backpackcloud.sherlogholmes.model.Attribute;
+import com.backpackcloud.sherlogholmes.model.AttributeRef;
 import com.backpackcloud.sherlogholmes.model.DataEntry;
 import com.backpackcloud.sherlogholmes.model.PipelineStep;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import java.util.Arrays;
+import java.util.Optional;
 import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 public class RegexMapperStep implements PipelineStep {
 
-  private final String sourceAttribute;
+  private final AttributeRef sourceAttribute;
   private final Pattern pattern;
-  private final Set<String> namedGroups;
+  private final AttributeRef[] namedGroups;
 
   public RegexMapperStep(String sourceAttribute, Pattern pattern) {
-    this.sourceAttribute = sourceAttribute;
+    this.sourceAttribute = new AttributeRef(sourceAttribute);
     this.pattern = pattern;
-    this.namedGroups = pattern.namedGroups().keySet();
+    this.namedGroups = pattern.namedGroups().keySet().stream()
+      .map(AttributeRef::new)
+      .toArray(AttributeRef[]::new);
   }
 
   @Override
   public void analyze(DataEntry dataEntry) {
-    Matcher matcher = dataEntry.attribute(sourceAttribute)
+    Matcher matcher = sourceAttribute.from(dataEntry)
       .flatMap(Attribute::formattedValue)
       .map(pattern::matcher)
       .orElse(null);
 
     if (matcher != null) {
       while (matcher.find()) {
-        namedGroups.forEach(name ->
-          dataEntry.attribute(name).ifPresent(attr ->
-            attr.assignFromInput(matcher.group(name))));
+        for (AttributeRef group : namedGroups) {
+          group.from(dataEntry).ifPresent(attr ->
+            attr.assignFromInput(matcher.group(group.name())));
+        }
       }
     }
   }
@@ -68,4 +75,9 @@ public class RegexMapperStep implements PipelineStep {
     return new RegexMapperStep(sourceAttribute, Pattern.compile(regex));
   }
 
+  @Override
+  public Optional<Set<String>> targets() {
+    return Optional.of(Arrays.stream(namedGroups).map(AttributeRef::name).collect(Collectors.toSet()));
+  }
+
 }
@@ -0,0 +1,215 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Marcelo "Ataxexe" Guimarães
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.backpackcloud.sherlogholmes.model.storage;
+
+import com.backpackcloud.sherlogholmes.model.Attribute;
+import com.backpackcloud.sherlogholmes.model.AttributeSpec;
+import com.backpackcloud.sherlogholmes.model.AttributeType;
+import com.backpackcloud.sherlogholmes.model.Dictionary;
+import com.backpackcloud.sherlogholmes.model.types.DictionaryType;
+import com.backpackcloud.sherlogholmes.model.types.EnumType;
+import com.backpackcloud.sherlogholmes.model.types.TemporalType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Holds the values of a single attribute for every row of a {@link Table}.
+ * <p>
+ * Each kind of column keeps the values in the most compact way it can, the ones that can't be
+ * encoded that way (like a number that doesn't fit) are kept as they are.
+ */
+abstract class Column {
+
+  private final String name;
+  private final List<AttributeSpec<?>> specs;
+  private final BitSet defined;
+  private final BitSet valued;
+  // only needed when the attribute comes with more than one spec
+  private short[] specIds;
+  private Map<Integer, Object> spilled;
+
+  protected Column(String name, AttributeSpec<?> spec) {
+    this.name = name;
+    this.specs = new ArrayList<>(1);
+    this.specs.add(spec);
+    this.defined = new BitSet();
+    this.valued = new BitSet();
+  }
+
+  static Column create(String name, AttributeSpec<?> spec, int capacity) {
+    Column column;
+    AttributeType<?> type = spec.type();
+    if (spec.multivalued()) {
+      column = new ObjectColumn(name, spec);
+    } else if (type == AttributeType.NUMBER) {
+      column = new IntColumn(name, spec);
+    } else if (type == AttributeType.DECIMAL) {
+      column = new DecimalColumn(name, spec);
+    } else if (type == AttributeType.FLAG) {
+      column = new FlagColumn(name, spec);
+    } else if (type instanceof DictionaryType dictionaryType) {
+      column = new DictionaryColumn(name, spec, dictionaryType.dictionary());
+    } else if (type instanceof EnumType) {
+      column = new DictionaryColumn(name, spec, new Dictionary());
+    } else if (type instanceof TemporalType<?>) {
+      column = new TemporalColumn(name, spec);
+    } else {
+      column = new ObjectColumn(name, spec);
+    }
+    column.grow(capacity);
+    return column;
+  }
+
+  String name() {
+    return name;
+  }
+
+  /**
+   * Checks if the values of the given spec can be kept in this column.
+   */
+  boolean accepts(AttributeSpec<?> spec) {
+    if (specs.contains(spec)) {
+      return true;
+    }
+    AttributeSpec<?> first = specs.getFirst();
+    return first.multivalued() == spec.multivalued() && kindOf(first.type()) == kindOf(spec.type());
+  }
+
+  private static Object kindOf(AttributeType<?> type) {
+    // the basic types share the same class, so they need to be told apart by themselves
+    if (type == AttributeType.TEXT || type == AttributeType.NUMBER ||
+      type == AttributeType.DECIMAL || type == AttributeType.FLAG) {
+      return type;
+    }
+    // the codes of a dictionary are meaningless to any other one
+    if (type instanceof DictionaryType dictionaryType) {
+      return dictionaryType.dictionary();
+    }
+    return type.getClass();
+  }
+
+  boolean isDefined(int row) {
+    return defined.get(row);
+  }
+
+  void set(int row, Attribute<?> attribute) {
+    setSpec(row, attribute.spec());
+    defined.set(row);
+    if (spilled != null) {
+      spilled.remove(row);
+    }
+    if (attribute.spec().multivalued()) {
+      Object[] values = attribute.values().toArray();
+      valued.set(row, values.length > 0);
+      if (values.length > 0) {
+        encode(row, values);
+      }
+    } else {
+      Object value = attribute.value().orElse(null);
+      valued.set(row, value != null);
+      if (value != null && !encode(row, value)) {
+        if (spilled == null) {
+          spilled = new HashMap<>();
+        }
+        spilled.put(row, value);
+      }
+    }
+  }
+
+  void unset(int row) {
+    defined.clear(row);
+    valued.clear(row);
+    if (spilled != null) {
+      spilled.remove(row);
+    }
+  }
+
+  AttributeSpec<?> spec(int row) {
+    return specIds == null ? specs.getFirst() : specs.get(specIds[row]);
+  }
+
+  /**
+   * Returns the value at the given row, which is an array of values if the attribute is multivalued.
+   */
+  Object value(int row) {
+    if (!valued.get(row)) {
+      return null;
+    }
+    if (spilled != null) {
+      Object value = spilled.get(row);
+      if (value != null) {
+        return value;
+      }
+    }
+    return decode(row);
+  }
+
+  void clear() {
+    defined.clear();
+    valued.clear();
+    spilled = null;
+    if (specIds != null) {
+      Arrays.fill(specIds, (short) 0);
+    }
+  }
+
+  void grow(int capacity) {
+    if (specIds != null) {
+      specIds = Arrays.copyOf(specIds, capacity);
+    }
+    resize(capacity);
+  }
+
+  private void setSpec(int row, AttributeSpec<?> spec) {
+    int index = specs.indexOf(spec);
+    if (index < 0) {
+      index = specs.size();
+      specs.add(spec);
+    }
+    if (index > 0 && specIds == null) {
+      specIds = new short[capacity()];
+    }
+    if (specIds != null) {
+      specIds[row] = (short) index;
+    }
+  }
+
+  /**
+   * Tries to keep the value at the given row, returning {@code false} if this column can't encode it.
+   */
+  protected abstract boolean encode(int row, Object value);
+
+  protected abstract Object decode(int row);
+
+  protected abstract int capacity();
+
+  protected abstract void resize(int capacity);
+
+}
@@ -0,0 +1,174 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Marcelo "Ataxexe" Guimarães
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.backpackcloud.sherlogholmes.model.storage;
+
+import com.backpackcloud.sherlogholmes.model.DataEntry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the entries in a {@link Table} and their order as a list of rows.
+ * <p>
+ * The rows are appended in the order they come and only sorted when they are needed.
+ */
+class ColumnarStore implements EntryStore {
+
+  private final Table table;
+  private final Comparator<DataEntry> comparator;
+  private int[] rows;
+  // rows up to sortedSize are ordered, the rest are waiting to be merged into them
+  private int size;
+  private int sortedSize;
+  // saves the lock when there is nothing to merge
+  private volatile boolean merged = true;
+
+  ColumnarStore(Comparator<DataEntry> comparator) {
+    this.table = new Table();
+    this.comparator = comparator;
+    this.rows = new int[0];
+  }
+
+  @Override
+  public synchronized DataEntry add(DataEntry entry) {
+    merged = false;
+    Row row = toRow(entry);
+    ensureCapacity(size + 1);
+    rows[size++] = row.id();
+    return row;
+  }
+
+  @Override
+  public synchronized List<DataEntry> addAll(Collection<DataEntry> entries) {
+    merged = false;
+    List<DataEntry> stored = new ArrayList<>(entries.size());
+    ensureCapacity(size + entries.size());
+    for (DataEntry entry : entries) {
+      Row row = toRow(entry);
+      rows[size++] = row.id();
+      stored.add(row);
+    }
+    return stored;
+  }
+
+  private Row toRow(DataEntry entry) {
+    return entry instanceof Row view && view.table() == table
+      ? view
+      : new Row(table, table.append(entry));
+  }
+
+  private void ensureCapacity(int capacity) {
+    if (capacity > rows.length) {
+      rows = Arrays.copyOf(rows, Math.max(Math.max(16, capacity), size + (size >> 1)));
+    }
+  }
+
+  private void merge() {
+    if (merged) {
+      return;
+    }
+    synchronized (this) {
+      if (merged) {
+        return;
+      }
+      Row[] sorted = views(0, sortedSize);
+      Row[] pending = views(sortedSize, size);
+      Row[] result = new Row[size];
+      int count = SortedRuns.merge(sorted, sorted.length, pending, comparator, result);
+      for (int i = 0; i < count; i++) {
+        rows[i] = result[i].id();
+      }
+      size = count;
+      sortedSize = count;
+      merged = true;
+    }
+  }
+
+  private Row[] views(int from, int to) {
+    Row[] views = new Row[to - from];
+    for (int i = from; i < to; i++) {
+      views[i - from] = new Row(table, rows[i]);
+    }
+    return views;
+  }
+
+  @Override
+  public Stream<DataEntry> entries() {
+    merge();
+    int[] rows = this.rows;
+    return IntStream.range(0, size).mapToObj(i -> new Row(table, rows[i]));
+  }
+
+  @Override
+  public Stream<DataEntry> entries(int from, int to) {
+    merge();
+    int[] rows = this.rows;
+    return IntStream.range(from, to).mapToObj(i -> new Row(table, rows[i]));
+  }
+
+  @Override
+  public DataEntry get(int position) {
+    merge();
+    return new Row(table, rows[position]);
+  }
+
+  @Override
+  public DataEntry first() {
+    merge();
+    return new Row(table, rows[0]);
+  }
+
+  @Override
+  public DataEntry last() {
+    merge();
+    return new Row(table, rows[size - 1]);
+  }
+
+  @Override
+  public int size() {
+    merge();
+    return size;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  @Override
+  public synchronized void clear() {
+    merged = true;
+    table.clear();
+    rows = new int[0];
+    size = 0;
+    sortedSize = 0;
+  }
+
+}
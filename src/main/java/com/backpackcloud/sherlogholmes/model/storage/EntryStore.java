@@ -0,0 +1,115 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Marcelo "Ataxexe" Guimarães
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.backpackcloud.sherlogholmes.model.storage;
+
+import com.backpackcloud.sherlogholmes.model.DataEntry;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the entries of a registry sorted by the registry's order.
+ */
+public interface EntryStore {
+
+  /**
+   * Adds the given entry to this store.
+   *
+   * @return the entry that is actually kept, which may be a view of the given one.
+   */
+  DataEntry add(DataEntry entry);
+
+  /**
+   * Adds all the given entries at once, which is cheaper than adding them one by one.
+   * <p>
+   * The entries are only ordered when the store is read, by merging them with the ones
+   * that were already ordered.
+   *
+   * @return the entries that are actually kept, in the same order as the given ones.
+   */
+  List<DataEntry> addAll(Collection<DataEntry> entries);
+
+  Stream<DataEntry> entries();
+
+  /**
+   * Streams the entries between the given positions, without walking through the ones before them.
+   *
+   * @param from the position of the first entry, inclusive
+   * @param to   the position of the last entry, exclusive
+   */
+  Stream<DataEntry> entries(int from, int to);
+
+  /**
+   * Returns the entry at the given position.
+   */
+  DataEntry get(int position);
+
+  DataEntry first();
+
+  DataEntry last();
+
+  int size();
+
+  boolean isEmpty();
+
+  void clear();
+
+  /**
+   * Creates a view of the entries of this store that match the given filter.
+   * <p>
+   * The view doesn't follow the entries added to this store after it's created.
+   */
+  default EntryStore filter(Predicate<? super DataEntry> filter) {
+    return new FilteredStore(this, filter);
+  }
+
+  /**
+   * Creates a view of the entries of this store that match the given filter, testing only the
+   * ones at the given positions.
+   *
+   * @param candidates the positions of the only entries that may match
+   */
+  default EntryStore filter(PositionBitmap candidates, Predicate<? super DataEntry> filter) {
+    return new FilteredStore(this, candidates.retain(position -> filter.test(get(position))));
+  }
+
+  /**
+   * Creates a view of the entries of this store at the given positions.
+   */
+  default EntryStore view(PositionBitmap positions) {
+    return new FilteredStore(this, positions);
+  }
+
+  /**
+   * An estimate of the memory, in bytes, a view takes to know which entries of the other store
+   * it holds. Stores that hold the entries themselves take nothing.
+   */
+  default long footprint() {
+    return 0;
+  }
+
+}
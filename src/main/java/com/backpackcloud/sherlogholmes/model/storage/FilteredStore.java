@@ -0,0 +1,128 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Marcelo "Ataxexe" Guimarães
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.backpackcloud.sherlogholmes.model.storage;
+
+import com.backpackcloud.UnbelievableException;
+import com.backpackcloud.sherlogholmes.model.DataEntry;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * A view of the entries of another store that match a filter, kept as the positions they take
+ * in that store.
+ * <p>
+ * The positions are taken when the view is created, so a new view is needed once entries are
+ * added to the other store.
+ */
+class FilteredStore implements EntryStore {
+
+  private final EntryStore source;
+  private PositionBitmap positions;
+
+  FilteredStore(EntryStore source, Predicate<? super DataEntry> filter) {
+    this.source = source;
+    this.positions = PositionBitmap.of(source.size(), position -> filter.test(source.get(position)));
+  }
+
+  FilteredStore(EntryStore source, PositionBitmap positions) {
+    this.source = source;
+    this.positions = positions;
+  }
+
+  EntryStore source() {
+    return source;
+  }
+
+  PositionBitmap positions() {
+    return positions;
+  }
+
+  @Override
+  public DataEntry add(DataEntry entry) {
+    throw new UnbelievableException("Filtered entries can't be changed");
+  }
+
+  @Override
+  public List<DataEntry> addAll(Collection<DataEntry> entries) {
+    throw new UnbelievableException("Filtered entries can't be changed");
+  }
+
+  @Override
+  public Stream<DataEntry> entries() {
+    return positions.stream().mapToObj(source::get);
+  }
+
+  @Override
+  public Stream<DataEntry> entries(int from, int to) {
+    return positions.stream(from, to).mapToObj(source::get);
+  }
+
+  @Override
+  public DataEntry get(int position) {
+    return source.get(positions.get(position));
+  }
+
+  @Override
+  public DataEntry first() {
+    return get(0);
+  }
+
+  @Override
+  public DataEntry last() {
+    return get(positions.size() - 1);
+  }
+
+  @Override
+  public int size() {
+    return positions.size();
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return positions.size() == 0;
+  }
+
+  @Override
+  public void clear() {
+    positions = PositionBitmap.EMPTY;
+  }
+
+  @Override
+  public long footprint() {
+    return positions.footprint();
+  }
+
+  /**
+   * Narrows this view down, testing only the entries in it.
+   */
+  @Override
+  public EntryStore filter(Predicate<? super DataEntry> filter) {
+    return new FilteredStore(source, positions.retain(position -> filter.test(source.get(position))));
+  }
+
+}
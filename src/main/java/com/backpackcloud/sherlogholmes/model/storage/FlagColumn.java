@@ -0,0 +1,64 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Marcelo "Ataxexe" Guimarães
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.backpackcloud.sherlogholmes.model.storage;
+
+import com.backpackcloud.sherlogholmes.model.AttributeSpec;
+
+import java.util.BitSet;
+
+class FlagColumn extends Column {
+
+  private final BitSet values = new BitSet();
+  private int capacity;
+
+  FlagColumn(String name, AttributeSpec<?> spec) {
+    super(name, spec);
+  }
+
+  @Override
+  protected boolean encode(int row, Object value) {
+    if (value instanceof Boolean flag) {
+      values.set(row, flag);
+      return true;
+    }
+    return false;
+  }
+
+  @Override
+  protected Object decode(int row) {
+    return values.get(row);
+  }
+
+  @Override
+  protected int capacity() {
+    return capacity;
+  }
+
+  @Override
+  protected void resize(int capacity) {
+    this.capacity = capacity;
+  }
+
+}
@@ -0,0 +1,144 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Marcelo "Ataxexe" Guimarães
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.backpackcloud.sherlogholmes.model.storage;
+
+import com.backpackcloud.sherlogholmes.model.DataEntry;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+class ObjectStore implements EntryStore {
+
+  private final Comparator<DataEntry> comparator;
+  // entries up to sortedSize are ordered, the rest are waiting to be merged into them
+  private DataEntry[] entries;
+  private int size;
+  private int sortedSize;
+  // saves the lock when there is nothing to merge
+  private volatile boolean merged = true;
+
+  ObjectStore(Comparator<DataEntry> comparator) {
+    this.comparator = comparator;
+    this.entries = new DataEntry[0];
+  }
+
+  @Override
+  public synchronized DataEntry add(DataEntry entry) {
+    merged = false;
+    DataEntry stored = entry instanceof Row row ? row.detach() : entry;
+    ensureCapacity(size + 1);
+    entries[size++] = stored;
+    return stored;
+  }
+
+  @Override
+  public synchronized List<DataEntry> addAll(Collection<DataEntry> entries) {
+    merged = false;
+    List<DataEntry> stored = entries.stream()
+      .map(entry -> entry instanceof Row row ? row.detach() : entry)
+      .toList();
+    ensureCapacity(size + stored.size());
+    for (DataEntry entry : stored) {
+      this.entries[size++] = entry;
+    }
+    return stored;
+  }
+
+  private void ensureCapacity(int capacity) {
+    if (capacity > entries.length) {
+      entries = Arrays.copyOf(entries, Math.max(Math.max(16, capacity), size + (size >> 1)));
+    }
+  }
+
+  private void merge() {
+    if (merged) {
+      return;
+    }
+    synchronized (this) {
+      if (merged) {
+        return;
+      }
+      DataEntry[] pending = Arrays.copyOfRange(entries, sortedSize, size);
+      DataEntry[] result = new DataEntry[size];
+      size = SortedRuns.merge(entries, sortedSize, pending, comparator, result);
+      sortedSize = size;
+      entries = result;
+      merged = true;
+    }
+  }
+
+  @Override
+  public Stream<DataEntry> entries() {
+    merge();
+    return Arrays.stream(entries, 0, size);
+  }
+
+  @Override
+  public Stream<DataEntry> entries(int from, int to) {
+    merge();
+    return Arrays.stream(entries, from, to);
+  }
+
+  @Override
+  public DataEntry get(int position) {
+    merge();
+    return entries[position];
+  }
+
+  @Override
+  public DataEntry first() {
+    merge();
+    return entries[0];
+  }
+
+  @Override
+  public DataEntry last() {
+    merge();
+    return entries[size - 1];
+  }
+
+  @Override
+  public int size() {
+    merge();
+    return size;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  @Override
+  public synchronized void clear() {
+    merged = true;
+    entries = new DataEntry[0];
+    size = 0;
+    sortedSize = 0;
+  }
+
+}
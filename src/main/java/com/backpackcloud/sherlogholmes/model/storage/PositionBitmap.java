@@ -0,0 +1,405 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Marcelo "Ataxexe" Guimarães
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.backpackcloud.sherlogholmes.model.storage;
+
+import java.util.Arrays;
+import java.util.PrimitiveIterator;
+import java.util.function.IntPredicate;
+import java.util.function.LongBinaryOperator;
+import java.util.stream.IntStream;
+
+/**
+ * A compressed set of positions, split in containers of 65536 positions each.
+ * <p>
+ * Just like a Roaring bitmap, a container with just a few positions keeps them in a sorted array
+ * and a container with a lot of them keeps a bit for each position.
+ */
+public final class PositionBitmap {
+
+  static final PositionBitmap EMPTY = new PositionBitmap(new Container[0]);
+
+  private static final int CONTAINER_BITS = 16;
+  private static final int CONTAINER_SIZE = 1 << CONTAINER_BITS;
+  private static final int CONTAINER_MASK = CONTAINER_SIZE - 1;
+  // above this, the array takes more memory than the bits
+  private static final int ARRAY_LIMIT = 4096;
+  private static final long[] NO_WORDS = new long[CONTAINER_SIZE >>> 6];
+
+  private final Container[] containers;
+  // how many positions come before each container
+  private final int[] ranks;
+  private final int size;
+
+  private PositionBitmap(Container[] containers) {
+    this.containers = containers;
+    this.ranks = new int[containers.length];
+    int size = 0;
+    for (int i = 0; i < containers.length; i++) {
+      ranks[i] = size;
+      size += containers[i].cardinality();
+    }
+    this.size = size;
+  }
+
+  /**
+   * Creates a bitmap with the positions, up to the given limit, that pass the given test.
+   * <p>
+   * Each container is filled by its own task, so the positions are tested in parallel.
+   */
+  static PositionBitmap of(int limit, IntPredicate test) {
+    Container[] containers = new Container[(limit + CONTAINER_MASK) >>> CONTAINER_BITS];
+    IntStream.range(0, containers.length)
+      .parallel()
+      .forEach(index -> containers[index] = fill(index << CONTAINER_BITS, Math.min(limit, (index + 1) << CONTAINER_BITS), test));
+    return new PositionBitmap(containers);
+  }
+
+  /**
+   * Creates a bitmap with the given positions, which must be in ascending order.
+   */
+  static PositionBitmap of(int[] positions) {
+    if (positions.length == 0) {
+      return EMPTY;
+    }
+    Container[] containers = new Container[(positions[positions.length - 1] >>> CONTAINER_BITS) + 1];
+    IntStream.range(0, containers.length)
+      .parallel()
+      .forEach(index -> {
+        int from = lowerBound(positions, index << CONTAINER_BITS);
+        int to = lowerBound(positions, (index + 1) << CONTAINER_BITS);
+        containers[index] = fill(Arrays.stream(positions, from, to), position -> true);
+      });
+    return new PositionBitmap(containers);
+  }
+
+  // the index of the first value not lower than the given one
+  private static int lowerBound(int[] values, int value) {
+    int low = 0;
+    int high = values.length;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (values[middle] < value) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Creates a bitmap with the positions of this one that pass the given test, without testing
+   * the positions that aren't here.
+   */
+  PositionBitmap retain(IntPredicate test) {
+    Container[] result = new Container[containers.length];
+    IntStream.range(0, containers.length)
+      .parallel()
+      .forEach(index -> result[index] = fill(containers[index].stream(index << CONTAINER_BITS), test));
+    return new PositionBitmap(result);
+  }
+
+  private static Container fill(int from, int to, IntPredicate test) {
+    long[] words = new long[CONTAINER_SIZE >>> 6];
+    int cardinality = 0;
+    for (int position = from; position < to; position++) {
+      if (test.test(position)) {
+        int bit = position & CONTAINER_MASK;
+        words[bit >>> 6] |= 1L << bit;
+        cardinality++;
+      }
+    }
+    return pack(words, cardinality);
+  }
+
+  private static Container fill(IntStream positions, IntPredicate test) {
+    long[] words = new long[CONTAINER_SIZE >>> 6];
+    int cardinality = 0;
+    for (PrimitiveIterator.OfInt iterator = positions.iterator(); iterator.hasNext(); ) {
+      int position = iterator.nextInt();
+      if (test.test(position)) {
+        int bit = position & CONTAINER_MASK;
+        words[bit >>> 6] |= 1L << bit;
+        cardinality++;
+      }
+    }
+    return pack(words, cardinality);
+  }
+
+  /**
+   * The positions in both this bitmap and the given one.
+   */
+  public PositionBitmap and(PositionBitmap other) {
+    return combine(other, Math.min(containers.length, other.containers.length), (left, right) -> left & right);
+  }
+
+  /**
+   * The positions in this bitmap or in the given one.
+   */
+  public PositionBitmap or(PositionBitmap other) {
+    return combine(other, Math.max(containers.length, other.containers.length), (left, right) -> left | right);
+  }
+
+  /**
+   * The positions in this bitmap that aren't in the given one.
+   */
+  public PositionBitmap andNot(PositionBitmap other) {
+    return combine(other, containers.length, (left, right) -> left & ~right);
+  }
+
+  /**
+   * Counts the positions in both this bitmap and the given one, without creating a bitmap for them.
+   */
+  public int intersectionSize(PositionBitmap other) {
+    int length = Math.min(containers.length, other.containers.length);
+    int result = 0;
+    for (int index = 0; index < length; index++) {
+      result += intersectionSize(containers[index], other.containers[index]);
+    }
+    return result;
+  }
+
+  // compares the containers as they are, since turning an array into bits takes 8 KB each time
+  private static int intersectionSize(Container left, Container right) {
+    if (left.cardinality() == 0 || right.cardinality() == 0) {
+      return 0;
+    }
+    if (left instanceof BitsContainer(long[] leftWords, int leftCardinality)
+      && right instanceof BitsContainer(long[] rightWords, int rightCardinality)) {
+      int result = 0;
+      for (int i = 0; i < leftWords.length; i++) {
+        result += Long.bitCount(leftWords[i] & rightWords[i]);
+      }
+      return result;
+    }
+    if (left instanceof ArrayContainer(char[] leftValues)
+      && right instanceof ArrayContainer(char[] rightValues)) {
+      int result = 0;
+      int i = 0;
+      int j = 0;
+      while (i < leftValues.length && j < rightValues.length) {
+        if (leftValues[i] < rightValues[j]) {
+          i++;
+        } else if (leftValues[i] > rightValues[j]) {
+          j++;
+        } else {
+          result++;
+          i++;
+          j++;
+        }
+      }
+      return result;
+    }
+    ArrayContainer array = (ArrayContainer) (left instanceof ArrayContainer ? left : right);
+    long[] words = (left instanceof BitsContainer ? left : right).words();
+    int result = 0;
+    for (char value : array.values()) {
+      if ((words[value >>> 6] & (1L << value)) != 0) {
+        result++;
+      }
+    }
+    return result;
+  }
+
+  private PositionBitmap combine(PositionBitmap other, int length, LongBinaryOperator operator) {
+    Container[] result = new Container[length];
+    IntStream.range(0, length)
+      .parallel()
+      .forEach(index -> {
+        long[] left = index < containers.length ? containers[index].words() : NO_WORDS;
+        long[] right = index < other.containers.length ? other.containers[index].words() : NO_WORDS;
+        long[] words = new long[CONTAINER_SIZE >>> 6];
+        int cardinality = 0;
+        for (int i = 0; i < words.length; i++) {
+          words[i] = operator.applyAsLong(left[i], right[i]);
+          cardinality += Long.bitCount(words[i]);
+        }
+        result[index] = pack(words, cardinality);
+      });
+    return new PositionBitmap(result);
+  }
+
+  private static Container pack(long[] words, int cardinality) {
+    if (cardinality > ARRAY_LIMIT) {
+      return new BitsContainer(words, cardinality);
+    }
+    char[] values = new char[cardinality];
+    int count = 0;
+    for (int i = 0; i < words.length; i++) {
+      long word = words[i];
+      while (word != 0) {
+        values[count++] = (char) ((i << 6) + Long.numberOfTrailingZeros(word));
+        word &= word - 1;
+      }
+    }
+    return new ArrayContainer(values);
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /**
+   * An estimate of the memory taken by the positions, in bytes.
+   */
+  long footprint() {
+    long result = 4L * ranks.length;
+    for (Container container : containers) {
+      result += container.footprint();
+    }
+    return result;
+  }
+
+  /**
+   * Returns the position at the given index, counting only the positions in this bitmap.
+   */
+  int get(int index) {
+    int container = containerOf(index);
+    return (container << CONTAINER_BITS) | containers[container].select(index - ranks[container]);
+  }
+
+  // the last container with a rank not after the index, which is the one holding it
+  private int containerOf(int index) {
+    int found = Arrays.binarySearch(ranks, index);
+    if (found < 0) {
+      return -found - 2;
+    }
+    while (found + 1 < ranks.length && ranks[found + 1] == index) {
+      found++;
+    }
+    return found;
+  }
+
+  IntStream stream() {
+    return IntStream.range(0, containers.length)
+      .flatMap(index -> containers[index].stream(index << CONTAINER_BITS));
+  }
+
+  /**
+   * Streams the positions between the given indexes, without going through the ones before them.
+   */
+  IntStream stream(int from, int to) {
+    if (from >= to) {
+      return IntStream.empty();
+    }
+    int first = containerOf(from);
+    int skip = from - ranks[first];
+    return IntStream.range(first, containers.length)
+      .flatMap(index -> containers[index].stream(index << CONTAINER_BITS))
+      .skip(skip)
+      .limit(to - from);
+  }
+
+  private sealed interface Container permits ArrayContainer, BitsContainer {
+
+    int cardinality();
+
+    char select(int index);
+
+    IntStream stream(int base);
+
+    long[] words();
+
+    long footprint();
+
+  }
+
+  private record ArrayContainer(char[] values) implements Container {
+
+    @Override
+    public int cardinality() {
+      return values.length;
+    }
+
+    @Override
+    public char select(int index) {
+      return values[index];
+    }
+
+    @Override
+    public IntStream stream(int base) {
+      return IntStream.range(0, values.length).map(i -> base | values[i]);
+    }
+
+    @Override
+    public long[] words() {
+      long[] words = new long[CONTAINER_SIZE >>> 6];
+      for (char value : values) {
+        words[value >>> 6] |= 1L << value;
+      }
+      return words;
+    }
+
+    @Override
+    public long footprint() {
+      return 2L * values.length;
+    }
+
+  }
+
+  private record BitsContainer(long[] words, int cardinality) implements Container {
+
+    @Override
+    public long footprint() {
+      return 8L * words.length;
+    }
+
+    @Override
+    public char select(int index) {
+      int remaining = index;
+      for (int i = 0; i < words.length; i++) {
+        int count = Long.bitCount(words[i]);
+        if (remaining < count) {
+          long word = words[i];
+          for (int j = 0; j < remaining; j++) {
+            word &= word - 1;
+          }
+          return (char) ((i << 6) + Long.numberOfTrailingZeros(word));
+        }
+        remaining -= count;
+      }
+      throw new IndexOutOfBoundsException(index);
+    }
+
+    @Override
+    public IntStream stream(int base) {
+      return IntStream.range(0, words.length)
+        .flatMap(i -> {
+          long word = words[i];
+          if (word == 0) {
+            return IntStream.empty();
+          }
+          int[] bits = new int[Long.bitCount(word)];
+          for (int j = 0; j < bits.length; j++) {
+            bits[j] = base | (i << 6) + Long.numberOfTrailingZeros(word);
+            word &= word - 1;
+          }
+          return IntStream.of(bits);
+        });
+    }
+
+  }
+
+}
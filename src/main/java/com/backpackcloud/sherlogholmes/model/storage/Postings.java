@@ -0,0 +1,106 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Marcelo "Ataxexe" Guimarães
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.backpackcloud.sherlogholmes.model.storage;
+
+import com.backpackcloud.sherlogholmes.model.DataEntry;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+/**
+ * Builds posting lists: the positions, in ascending order, of the entries of a store in which
+ * each key shows up.
+ */
+final class Postings {
+
+  // how many positions each task goes through
+  private static final int CHUNK_SIZE = 1 << 16;
+
+  private Postings() {
+  }
+
+  /**
+   * Goes through the entries of the given store in parallel chunks, which are joined in order.
+   *
+   * @param keys gives the keys of an entry to the consumer, which ignores a key repeated for the same entry
+   */
+  static <K> Map<K, int[]> build(EntryStore store, BiConsumer<DataEntry, Consumer<K>> keys) {
+    int size = store.size();
+    int chunks = (size + CHUNK_SIZE - 1) / CHUNK_SIZE;
+
+    List<Map<K, Positions>> partials = IntStream.range(0, chunks)
+      .parallel()
+      .mapToObj(chunk -> {
+        Map<K, Positions> result = new HashMap<>();
+        int to = Math.min(size, (chunk + 1) * CHUNK_SIZE);
+        for (int position = chunk * CHUNK_SIZE; position < to; position++) {
+          int current = position;
+          keys.accept(store.get(position), key -> result.computeIfAbsent(key, k -> new Positions()).add(current));
+        }
+        return result;
+      })
+      .toList();
+
+    Map<K, Integer> lengths = new HashMap<>();
+    partials.forEach(partial -> partial.forEach((key, positions) -> lengths.merge(key, positions.size, Integer::sum)));
+    Map<K, int[]> postings = new HashMap<>(lengths.size() * 4 / 3 + 1);
+    Map<K, Integer> filled = new HashMap<>(lengths.size() * 4 / 3 + 1);
+    // the chunks come in order, so the positions of each key end up sorted
+    for (Map<K, Positions> partial : partials) {
+      partial.forEach((key, positions) -> {
+        int[] target = postings.computeIfAbsent(key, k -> new int[lengths.get(k)]);
+        int offset = filled.getOrDefault(key, 0);
+        System.arraycopy(positions.values, 0, target, offset, positions.size);
+        filled.put(key, offset + positions.size);
+      });
+    }
+    return postings;
+  }
+
+  // the positions of a key found by a single task
+  private static class Positions {
+
+    private int[] values = new int[4];
+    private int size;
+
+    private void add(int position) {
+      // a key may show up more than once in the same entry
+      if (size > 0 && values[size - 1] == position) {
+        return;
+      }
+      if (size == values.length) {
+        values = Arrays.copyOf(values, size * 2);
+      }
+      values[size++] = position;
+    }
+
+  }
+
+}
@@ -0,0 +1,156 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Marcelo "Ataxexe" Guimarães
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.backpackcloud.sherlogholmes.model.storage;
+
+import com.backpackcloud.sherlogholmes.model.Attribute;
+import com.backpackcloud.sherlogholmes.model.AttributeSpec;
+import com.backpackcloud.sherlogholmes.model.DataEntry;
+import com.backpackcloud.sherlogholmes.model.SortKey;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A view of a row of a {@link Table}.
+ * <p>
+ * The attributes are created from the columns every time they are requested, and changing them
+ * (or the entry itself) changes the row.
+ */
+class Row extends DataEntry {
+
+  private final Table table;
+  private final int id;
+
+  Row(Table table, int id) {
+    super(Collections.emptyMap());
+    this.table = table;
+    this.id = id;
+  }
+
+  Table table() {
+    return table;
+  }
+
+  int id() {
+    return id;
+  }
+
+  /**
+   * Creates an entry holding a copy of this row.
+   */
+  DataEntry detach() {
+    DataEntry entry = new DataEntry();
+    for (Attribute attribute : attributes()) {
+      Attribute copy = new Attribute(attribute.name(), attribute.spec());
+      attribute.values().forEach(copy::assign);
+      entry.addAttribute(copy);
+    }
+    return entry;
+  }
+
+  @Override
+  public SortKey sortKey() {
+    return table.sortKey(id);
+  }
+
+  @Override
+  public boolean hasAttribute(String name) {
+    return table.column(id, name) != null;
+  }
+
+  @Override
+  public void addAttribute(Attribute attribute) {
+    table.set(id, attribute);
+  }
+
+  @Override
+  public void remove(Attribute attribute) {
+    if (attribute(attribute.name()).map(attribute::equals).orElse(false)) {
+      remove(attribute.name());
+    }
+  }
+
+  @Override
+  public void remove(String name) {
+    table.unset(id, name);
+  }
+
+  @Override
+  public <E> Optional<Attribute<E>> attribute(String name) {
+    if (name == null) {
+      return Optional.empty();
+    }
+    Column column = table.column(id, name);
+    return column == null ? Optional.empty() : Optional.of((Attribute<E>) table.attribute(id, column));
+  }
+
+  @Override
+  public <E> Optional<Attribute<E>> attribute(String name, Class<E> type) {
+    return attribute(name);
+  }
+
+  @Override
+  public List<Attribute> attributes() {
+    List<Attribute> result = new ArrayList<>();
+    for (Column column : table.columns()) {
+      if (column.isDefined(id)) {
+        result.add(table.attribute(id, column));
+      }
+    }
+    return result;
+  }
+
+  static class RowAttribute<E> extends Attribute<E> {
+
+    private Table table;
+    private int row;
+
+    RowAttribute(String name, AttributeSpec<E> spec) {
+      super(name, spec);
+    }
+
+    void load(E value) {
+      super.assign(value);
+    }
+
+    void attach(Table table, int row) {
+      this.table = table;
+      this.row = row;
+    }
+
+    @Override
+    public Attribute<E> assign(E value) {
+      super.assign(value);
+      if (table != null) {
+        table.set(row, this);
+      }
+      return this;
+    }
+
+  }
+
+}
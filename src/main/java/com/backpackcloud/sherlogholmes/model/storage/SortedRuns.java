@@ -0,0 +1,76 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Marcelo "Ataxexe" Guimarães
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.backpackcloud.sherlogholmes.model.storage;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Merges a batch of pending elements into an already sorted run.
+ * <p>
+ * Just like a sorted set, an element equal to a previous one is left out, so the elements of
+ * the sorted run win over the pending ones and the pending ones keep the order they were added.
+ */
+final class SortedRuns {
+
+  // below this, a parallel sort costs more than it saves
+  private static final int PARALLEL_THRESHOLD = 1 << 13;
+
+  private SortedRuns() {
+  }
+
+  /**
+   * Sorts the pending elements and merges them with the sorted ones into the given target.
+   *
+   * @return how many elements were written to the target.
+   */
+  static <T> int merge(T[] sorted, int sortedSize, T[] pending, Comparator<? super T> comparator, T[] target) {
+    // both sorts are stable and take advantage of the runs that are already ordered
+    if (pending.length >= PARALLEL_THRESHOLD) {
+      Arrays.parallelSort(pending, comparator);
+    } else {
+      Arrays.sort(pending, comparator);
+    }
+
+    int i = 0;
+    int j = 0;
+    int count = 0;
+    T previous = null;
+    while (i < sortedSize || j < pending.length) {
+      T next;
+      if (j == pending.length || (i < sortedSize && comparator.compare(sorted[i], pending[j]) <= 0)) {
+        next = sorted[i++];
+      } else {
+        next = pending[j++];
+      }
+      if (previous == null || comparator.compare(previous, next) != 0) {
+        target[count++] = next;
+        previous = next;
+      }
+    }
+    return count;
+  }
+
+}
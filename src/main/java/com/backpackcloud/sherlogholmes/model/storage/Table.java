@@ -0,0 +1,140 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Marcelo "Ataxexe" Guimarães
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.backpackcloud.sherlogholmes.model.storage;
+
+import com.backpackcloud.sherlogholmes.model.Attribute;
+import com.backpackcloud.sherlogholmes.model.AttributeSpec;
+import com.backpackcloud.sherlogholmes.model.DataEntry;
+import com.backpackcloud.sherlogholmes.model.SortKey;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Holds the attributes of every entry as columns, the rows are identified by the order they were added.
+ */
+class Table {
+
+  private final List<Column> columns;
+  private final Map<String, List<Column>> columnsByName;
+  private SortKey[] keys;
+  private int size;
+  private int capacity;
+
+  Table() {
+    // the views may read the columns while new ones are being added
+    this.columns = new CopyOnWriteArrayList<>();
+    this.columnsByName = new ConcurrentHashMap<>();
+    this.keys = new SortKey[0];
+  }
+
+  synchronized int append(DataEntry entry) {
+    if (size == capacity) {
+      capacity = Math.max(16, capacity + (capacity >> 1));
+      columns.forEach(column -> column.grow(capacity));
+      keys = Arrays.copyOf(keys, capacity);
+    }
+    int row = size++;
+    entry.attributes().forEach(attribute -> set(row, attribute));
+    keys[row] = entry.sortKey();
+    return row;
+  }
+
+  SortKey sortKey(int row) {
+    return keys[row];
+  }
+
+  synchronized void set(int row, Attribute<?> attribute) {
+    AttributeSpec<?> spec = attribute.spec();
+    List<Column> named = columnsByName.computeIfAbsent(attribute.name(), name -> new CopyOnWriteArrayList<>());
+    Column target = null;
+    for (Column column : named) {
+      if (target == null && column.accepts(spec)) {
+        target = column;
+      } else if (column.isDefined(row)) {
+        column.unset(row);
+      }
+    }
+    if (target == null) {
+      target = Column.create(attribute.name(), spec, capacity);
+      named.add(target);
+      columns.add(target);
+    }
+    target.set(row, attribute);
+  }
+
+  synchronized void unset(int row, String name) {
+    Column column = column(row, name);
+    if (column != null) {
+      column.unset(row);
+    }
+  }
+
+  Column column(int row, String name) {
+    List<Column> named = columnsByName.get(name);
+    if (named != null) {
+      for (Column column : named) {
+        if (column.isDefined(row)) {
+          return column;
+        }
+      }
+    }
+    return null;
+  }
+
+  List<Column> columns() {
+    return columns;
+  }
+
+  /**
+   * Creates an attribute holding the value of the given row, any value assigned to it is also
+   * assigned to the row.
+   */
+  Attribute<?> attribute(int row, Column column) {
+    Row.RowAttribute<Object> attribute = new Row.RowAttribute<>(column.name(), (AttributeSpec<Object>) column.spec(row));
+    Object value = column.value(row);
+    if (value instanceof Object[] values && attribute.spec().multivalued()) {
+      for (Object item : values) {
+        attribute.load(item);
+      }
+    } else if (value != null) {
+      attribute.load(value);
+    }
+    attribute.attach(this, row);
+    return attribute;
+  }
+
+  synchronized void clear() {
+    columns.clear();
+    columnsByName.clear();
+    keys = new SortKey[0];
+    size = 0;
+    capacity = 0;
+  }
+
+}
@@ -0,0 +1,104 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Marcelo "Ataxexe" Guimarães
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.backpackcloud.sherlogholmes.model.storage;
+
+import com.backpackcloud.sherlogholmes.model.AttributeSpec;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * Keeps local dates and times as numbers, the kind of temporal is decided by the first value.
+ */
+class TemporalColumn extends Column {
+
+  private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+  private long[] values = new long[0];
+  private Class<?> temporalType;
+
+  TemporalColumn(String name, AttributeSpec<?> spec) {
+    super(name, spec);
+  }
+
+  @Override
+  protected boolean encode(int row, Object value) {
+    if (temporalType == null &&
+      (value instanceof LocalDateTime || value instanceof LocalTime || value instanceof LocalDate)) {
+      temporalType = value.getClass();
+    }
+    if (value.getClass() != temporalType) {
+      return false;
+    }
+    if (value instanceof LocalDateTime dateTime) {
+      try {
+        long seconds = dateTime.toEpochSecond(ZoneOffset.UTC);
+        values[row] = Math.addExact(Math.multiplyExact(seconds, NANOS_PER_SECOND), dateTime.getNano());
+      } catch (ArithmeticException e) {
+        return false;
+      }
+    } else if (value instanceof LocalTime time) {
+      values[row] = time.toNanoOfDay();
+    } else {
+      values[row] = ((LocalDate) value).toEpochDay();
+    }
+    return true;
+  }
+
+  @Override
+  protected Object decode(int row) {
+    long value = values[row];
+    if (temporalType == LocalDateTime.class) {
+      return LocalDateTime.ofEpochSecond(
+        Math.floorDiv(value, NANOS_PER_SECOND),
+        (int) Math.floorMod(value, NANOS_PER_SECOND),
+        ZoneOffset.UTC
+      );
+    } else if (temporalType == LocalTime.class) {
+      return LocalTime.ofNanoOfDay(value);
+    }
+    return LocalDate.ofEpochDay(value);
+  }
+
+  @Override
+  protected int capacity() {
+    return values.length;
+  }
+
+  @Override
+  protected void resize(int capacity) {
+    values = Arrays.copyOf(values, capacity);
+  }
+
+  @Override
+  void clear() {
+    super.clear();
+    temporalType = null;
+  }
+
+}
@@ -0,0 +1,198 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Marcelo "Ataxexe" Guimarães
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.backpackcloud.sherlogholmes.model.storage;
+
+import com.backpackcloud.sherlogholmes.model.Attribute;
+import com.backpackcloud.sherlogholmes.model.AttributeRef;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * An inverted index of the words in the values of an attribute, pointing to the positions of
+ * the entries of a store that hold them.
+ * <p>
+ * A word is a run of letters and digits. The index only narrows a search down: the entries it
+ * points to still need to be tested, since a text may hold the words of another one without
+ * holding the text itself.
+ */
+public final class TokenIndex {
+
+  private final String attribute;
+  private final Map<String, int[]> postings;
+  // the words in lexical order, to find the ones starting with a prefix
+  private final String[] words;
+  private final Duration buildTime;
+  private final long footprint;
+
+  private TokenIndex(String attribute, Map<String, int[]> postings, Duration buildTime) {
+    this.attribute = attribute;
+    this.postings = postings;
+    this.words = postings.keySet().toArray(String[]::new);
+    Arrays.sort(this.words);
+    this.buildTime = buildTime;
+    long footprint = 0;
+    for (Map.Entry<String, int[]> entry : postings.entrySet()) {
+      // the word, its positions and the slot in the map and in the sorted words
+      footprint += 40L + 2L * entry.getKey().length() + 16L + 4L * entry.getValue().length + 40L;
+    }
+    this.footprint = footprint;
+  }
+
+  /**
+   * Indexes, in parallel, the words of the given attribute for all the entries of the given store.
+   */
+  public static TokenIndex build(EntryStore store, String attribute) {
+    long start = System.nanoTime();
+    AttributeRef ref = new AttributeRef(attribute);
+    Map<String, int[]> postings = Postings.<String>build(store, (entry, words) -> {
+      Attribute<?> target = ref.find(entry);
+      if (target != null) {
+        target.formattedValues().forEach(value -> tokenize(value, words));
+      }
+    });
+    return new TokenIndex(attribute, postings, Duration.ofNanos(System.nanoTime() - start));
+  }
+
+  private static void tokenize(String text, Consumer<String> consumer) {
+    int start = -1;
+    for (int i = 0; i <= text.length(); i++) {
+      boolean word = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+      if (word && start < 0) {
+        start = i;
+      } else if (!word && start >= 0) {
+        consumer.accept(text.substring(start, i));
+        start = -1;
+      }
+    }
+  }
+
+  public String attribute() {
+    return attribute;
+  }
+
+  /**
+   * How many distinct words were found.
+   */
+  public int size() {
+    return postings.size();
+  }
+
+  public Duration buildTime() {
+    return buildTime;
+  }
+
+  /**
+   * An estimate of the memory taken by the index, in bytes.
+   */
+  public long footprint() {
+    return footprint;
+  }
+
+  /**
+   * Finds the positions of the entries that may hold the given text in the indexed attribute.
+   * <p>
+   * The words in the middle of the text must be found as they are, but the first one may be the
+   * end of a longer word and the last one may be the start of a longer word.
+   *
+   * @return the positions, or {@code null} if the text has no words to look for
+   */
+  public PositionBitmap candidates(String text) {
+    int length = text.length();
+    if (length == 0) {
+      return null;
+    }
+    boolean openStart = Character.isLetterOrDigit(text.charAt(0));
+    boolean openEnd = Character.isLetterOrDigit(text.charAt(length - 1));
+
+    List<String> tokens = new ArrayList<>();
+    tokenize(text, tokens::add);
+    if (tokens.isEmpty()) {
+      return null;
+    }
+
+    BitSet result = null;
+    for (int i = 0; i < tokens.size(); i++) {
+      String token = tokens.get(i);
+      boolean first = i == 0 && openStart;
+      boolean last = i == tokens.size() - 1 && openEnd;
+      BitSet found;
+      if (first && last) {
+        found = matching(word -> word.contains(token));
+      } else if (first) {
+        found = matching(word -> word.endsWith(token));
+      } else if (last) {
+        found = startingWith(token);
+      } else {
+        found = new BitSet();
+        int[] positions = postings.get(token);
+        if (positions != null) {
+          for (int position : positions) {
+            found.set(position);
+          }
+        }
+      }
+      if (result == null) {
+        result = found;
+      } else {
+        result.and(found);
+      }
+      if (result.isEmpty()) {
+        break;
+      }
+    }
+    return PositionBitmap.of(result.stream().toArray());
+  }
+
+  private BitSet matching(Predicate<String> test) {
+    BitSet result = new BitSet();
+    for (String word : words) {
+      if (test.test(word)) {
+        for (int position : postings.get(word)) {
+          result.set(position);
+        }
+      }
+    }
+    return result;
+  }
+
+  private BitSet startingWith(String prefix) {
+    BitSet result = new BitSet();
+    int index = Arrays.binarySearch(words, prefix);
+    for (int i = index < 0 ? -index - 1 : index; i < words.length && words[i].startsWith(prefix); i++) {
+      for (int position : postings.get(words[i])) {
+        result.set(position);
+      }
+    }
+    return result;
+  }
+
+}
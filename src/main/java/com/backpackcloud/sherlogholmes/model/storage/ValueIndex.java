@@ -0,0 +1,176 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Marcelo "Ataxexe" Guimarães
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.backpackcloud.sherlogholmes.model.storage;
+
+import com.backpackcloud.sherlogholmes.model.Attribute;
+import com.backpackcloud.sherlogholmes.model.AttributeRef;
+import com.backpackcloud.sherlogholmes.model.AttributeType;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The positions of the entries of a store holding each value of an attribute, so equality
+ * filters can be answered by combining bitmaps instead of testing the entries.
+ */
+public final class ValueIndex {
+
+  // keys for the entries holding the attribute, even without a value, and for the ones holding a value
+  private static final Object ATTRIBUTED = new Object();
+  private static final Object VALUED = new Object();
+
+  private final EntryStore store;
+  private final String attribute;
+  private final Map<Object, PositionBitmap> values;
+  private final PositionBitmap attributed;
+  private final PositionBitmap valued;
+  // the type used to read the references, if all the entries share it
+  private final AttributeType<?> type;
+
+  private ValueIndex(EntryStore store,
+                     String attribute,
+                     Map<Object, PositionBitmap> values,
+                     PositionBitmap attributed,
+                     PositionBitmap valued,
+                     AttributeType<?> type) {
+    this.store = store;
+    this.attribute = attribute;
+    this.values = values;
+    this.attributed = attributed;
+    this.valued = valued;
+    this.type = type;
+  }
+
+  /**
+   * Indexes, in parallel, the values of the given attribute for all the entries of the given store.
+   */
+  public static ValueIndex build(EntryStore store, String attribute) {
+    AttributeRef ref = new AttributeRef(attribute);
+    Map<List<Object>, AttributeType<?>> types = new ConcurrentHashMap<>();
+    Map<Object, int[]> postings = Postings.build(store, (entry, keys) -> {
+      Attribute<?> target = ref.find(entry);
+      if (target != null) {
+        AttributeType<?> targetType = target.spec().type();
+        types.putIfAbsent(List.of(targetType.getClass(), targetType.name()), targetType);
+        keys.accept(ATTRIBUTED);
+        target.values().forEach(value -> {
+          keys.accept(VALUED);
+          keys.accept(value);
+        });
+      }
+    });
+
+    Map<Object, PositionBitmap> values = new HashMap<>(postings.size() * 4 / 3 + 1);
+    postings.forEach((value, positions) -> values.put(value, PositionBitmap.of(positions)));
+    PositionBitmap attributed = values.remove(ATTRIBUTED);
+    PositionBitmap valued = values.remove(VALUED);
+    return new ValueIndex(
+      store,
+      attribute,
+      values,
+      attributed == null ? PositionBitmap.EMPTY : attributed,
+      valued == null ? PositionBitmap.EMPTY : valued,
+      types.size() == 1 ? types.values().iterator().next() : null
+    );
+  }
+
+  public String attribute() {
+    return attribute;
+  }
+
+  /**
+   * The entries holding the attribute, with or without a value.
+   */
+  public PositionBitmap attributed() {
+    return attributed;
+  }
+
+  /**
+   * The entries holding at least one value for the attribute.
+   */
+  public PositionBitmap valued() {
+    return valued;
+  }
+
+  /**
+   * The entries holding the value given in its textual form.
+   *
+   * @return the positions, or nothing if the reference can't be read the same way for all the entries
+   */
+  public Optional<PositionBitmap> equalTo(String reference) {
+    if (type == null || reference == null || reference.isBlank()) {
+      return Optional.empty();
+    }
+    Object value;
+    try {
+      value = type.convert(reference);
+    } catch (RuntimeException e) {
+      return Optional.empty();
+    }
+    if (value == null) {
+      return Optional.empty();
+    }
+    return Optional.of(values.getOrDefault(value, PositionBitmap.EMPTY));
+  }
+
+  /**
+   * Counts the entries of the given view holding each value.
+   *
+   * @return the counts, or nothing if the view isn't made of entries of the indexed store
+   */
+  public Optional<Map<Object, Long>> count(EntryStore view) {
+    PositionBitmap positions;
+    if (view == store) {
+      positions = null;
+    } else if (view instanceof FilteredStore filtered && filtered.source() == store) {
+      positions = filtered.positions();
+    } else {
+      return Optional.empty();
+    }
+    Map<Object, Long> result = new HashMap<>();
+    values.forEach((value, bitmap) -> {
+      int count = positions == null ? bitmap.size() : bitmap.intersectionSize(positions);
+      if (count > 0) {
+        result.put(value, (long) count);
+      }
+    });
+    return Optional.of(result);
+  }
+
+  /**
+   * An estimate of the memory taken by the index, in bytes.
+   */
+  public long footprint() {
+    long result = attributed.footprint() + valued.footprint();
+    for (PositionBitmap bitmap : values.values()) {
+      result += bitmap.footprint();
+    }
+    return result;
+  }
+
+}
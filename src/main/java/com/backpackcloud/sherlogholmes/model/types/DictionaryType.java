@@ -0,0 +1,80 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Marcelo "Ataxexe" Guimarães
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.backpackcloud.sherlogholmes.model.types;
+
+import com.backpackcloud.sherlogholmes.model.AttributeType;
+import com.backpackcloud.sherlogholmes.model.Dictionary;
+
+/**
+ * Keeps the values of another type in a {@link Dictionary}.
+ */
+public class DictionaryType implements AttributeType<String> {
+
+  private final AttributeType<String> type;
+  private final Dictionary dictionary;
+
+  public DictionaryType(AttributeType<String> type, Dictionary dictionary) {
+    this.type = type;
+    this.dictionary = dictionary;
+  }
+
+  /**
+   * The type of the values kept in the dictionary.
+   */
+  public AttributeType<String> type() {
+    return type;
+  }
+
+  public Dictionary dictionary() {
+    return dictionary;
+  }
+
+  @Override
+  public String name() {
+    return type.name();
+  }
+
+  @Override
+  public String convert(String input) {
+    // the attribute keeps the instance held by the dictionary
+    return type.convert(input);
+  }
+
+  @Override
+  public String format(String value) {
+    return type.format(value);
+  }
+
+  @Override
+  public boolean isValid(String value) {
+    return type.isValid(value);
+  }
+
+  @Override
+  public int compare(String o1, String o2) {
+    return type.compare(o1, o2);
+  }
+
+}
@@ -60,10 +60,17 @@ public class DataCountPromptWriter implements PromptWriter {
     registry.countedAttributes().forEach(index -> {
       String key = "attribute-" + index;
       if (icons.contains(key)) {
-        int size = registry.counter(index).size();
-        if (size > 0) {
-          segment.addIcon(key, "icon-attribute").add(size);
-        }
+        // the estimated counters only know roughly how many distinct values there are
+        registry.estimate(index).ifPresentOrElse(estimate -> {
+          if (estimate.total() > 0) {
+            segment.addIcon(key, "icon-attribute").add("~" + estimate.distinct());
+          }
+        }, () -> {
+          int size = registry.counter(index).size();
+          if (size > 0) {
+            segment.addIcon(key, "icon-attribute").add(size);
+          }
+        });
       }
     });
   }
@@ -40,7 +40,7 @@ public class LimitPromptWriter implements PromptWriter {
   public void addTo(Prompt prompt, PromptSide side) {
     registry.limit().ifPresent(limit -> prompt.newSegment()
       .addIcon("data", "icon-limit")
-      .add(registry.entries().count())
+      .add(registry.list().size())
       .addIcon("limit", "icon-limit")
       .add(limit.toString()));
   }
@@ -26,6 +26,7 @@ package com.backpackcloud.sherlogholmes.ui.suggestions;
 
 import com.backpackcloud.cli.ui.Suggestion;
 import com.backpackcloud.cli.ui.components.PromptSuggestion;
+import com.backpackcloud.sherlogholmes.model.AttributeType;
 import com.backpackcloud.sherlogholmes.model.DataRegistry;
 import com.backpackcloud.sherlogholmes.model.Operation;
 
@@ -65,6 +66,15 @@ public class AttributeSuggester {
       .collect(Collectors.toList());
   }
 
+  public List<Suggestion> suggestNumericAttributes() {
+    return registry.attributeNames().stream()
+      .filter(attr -> registry.typeOf(attr)
+        .filter(type -> type == AttributeType.NUMBER || type == AttributeType.DECIMAL)
+        .isPresent())
+      .map(PromptSuggestion::suggest)
+      .collect(Collectors.toList());
+  }
+
   public List<Suggestion> suggestAllCountedAttributes() {
     return registry.countedAttributes().stream()
       .map(PromptSuggestion::suggest)
@@ -73,7 +83,10 @@ public class AttributeSuggester {
 
   public List<Suggestion> suggestCountedAttributes() {
     return registry.countedAttributes().stream()
-      .filter(attr -> !registry.counter(attr).isEmpty())
+      // a distinct counter keeps no values, only how many entries it saw
+      .filter(attr -> registry.estimate(attr)
+        .map(estimate -> estimate.total() > 0)
+        .orElseGet(() -> !registry.counter(attr).isEmpty()))
       .map(PromptSuggestion::suggest)
       .collect(Collectors.toList());
   }
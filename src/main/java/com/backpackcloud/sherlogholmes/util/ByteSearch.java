@@ -0,0 +1,124 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Marcelo "Ataxexe" Guimarães
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.backpackcloud.sherlogholmes.util;
+
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * Searches a fixed sequence of bytes inside byte arrays, so raw input can be checked before being decoded.
+ * <p>
+ * The candidates are found with the Vector API when the incubating module is available
+ * ({@code --add-modules jdk.incubator.vector}), otherwise a scalar search is used. The scalar search can
+ * also be forced with {@code -Dsherlog.vectorized=false}.
+ */
+public final class ByteSearch {
+
+  private static final String VECTOR_MODULE = "jdk.incubator.vector";
+  private static final String VECTORIZED_PROPERTY = "sherlog.vectorized";
+
+  private static final Scan SCAN = scan();
+
+  private final byte[] needle;
+
+  private ByteSearch(byte[] needle) {
+    this.needle = needle;
+  }
+
+  public static ByteSearch of(byte[] needle) {
+    return new ByteSearch(needle.clone());
+  }
+
+  public static ByteSearch of(String text, Charset charset) {
+    return new ByteSearch(text.getBytes(charset));
+  }
+
+  /**
+   * Returns the index of the first occurrence inside the given range, or {@code -1} if there's none.
+   */
+  public int indexOf(byte[] text, int from, int to) {
+    return SCAN.indexOf(text, from, to, needle);
+  }
+
+  public boolean isIn(byte[] text, int from, int to) {
+    return indexOf(text, from, to) >= 0;
+  }
+
+  public int length() {
+    return needle.length;
+  }
+
+  /**
+   * Checks if the searches are running on the Vector API.
+   */
+  public static boolean isVectorized() {
+    return !(SCAN instanceof ScalarScan);
+  }
+
+  static int scalarIndexOf(byte[] text, int from, int to, byte[] needle) {
+    int length = needle.length;
+    if (length == 0) {
+      return from <= to ? from : -1;
+    }
+    byte head = needle[0];
+    for (int i = from, last = to - length; i <= last; i++) {
+      if (text[i] == head && Arrays.equals(text, i + 1, i + length, needle, 1, length)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static Scan scan() {
+    if (Boolean.parseBoolean(System.getProperty(VECTORIZED_PROPERTY, "true"))
+      && ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent()) {
+      // loaded by name, so nothing touches the incubating classes when the module is missing
+      try {
+        return (Scan) Class.forName(ByteSearch.class.getPackageName() + ".VectorizedScan")
+          .getDeclaredConstructor()
+          .newInstance();
+      } catch (ReflectiveOperationException | LinkageError e) {
+        // the scalar search works everywhere
+      }
+    }
+    return new ScalarScan();
+  }
+
+  interface Scan {
+
+    int indexOf(byte[] text, int from, int to, byte[] needle);
+
+  }
+
+  private static final class ScalarScan implements Scan {
+
+    @Override
+    public int indexOf(byte[] text, int from, int to, byte[] needle) {
+      return scalarIndexOf(text, from, to, needle);
+    }
+
+  }
+
+}
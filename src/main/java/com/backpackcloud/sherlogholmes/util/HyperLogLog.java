@@ -0,0 +1,154 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Marcelo "Ataxexe" Guimarães
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.backpackcloud.sherlogholmes.util;
+
+import com.backpackcloud.UnbelievableException;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Estimates how many distinct values were seen using the same memory no matter how many there are
+ * (a HyperLogLog sketch).
+ * <p>
+ * Each value is hashed to one of the registers, which keeps the longest run of leading zeros seen in the
+ * hashes that fell in it. Values can be added from many threads at once.
+ */
+public final class HyperLogLog {
+
+  public static final int MIN_PRECISION = 4;
+  public static final int MAX_PRECISION = 18;
+
+  private final int precision;
+  private final AtomicIntegerArray registers;
+
+  public HyperLogLog(int precision) {
+    if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+      throw new UnbelievableException("Precision must be between " + MIN_PRECISION + " and " + MAX_PRECISION);
+    }
+    this.precision = precision;
+    this.registers = new AtomicIntegerArray(1 << precision);
+  }
+
+  /**
+   * Creates a sketch with the lowest precision that keeps the relative standard error within the given one.
+   */
+  public static HyperLogLog withError(double error) {
+    int precision = (int) Math.ceil(2 * Math.log(1.04 / error) / Math.log(2));
+    return new HyperLogLog(Math.clamp(precision, MIN_PRECISION, MAX_PRECISION));
+  }
+
+  public void add(Object value) {
+    addHash(hash(value));
+  }
+
+  public void addHash(long hash) {
+    int index = (int) (hash >>> (64 - precision));
+    // the sentinel bit keeps the count within the bits left after the index
+    int rank = Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1;
+    int current = registers.get(index);
+    while (rank > current && !registers.compareAndSet(index, current, rank)) {
+      current = registers.get(index);
+    }
+  }
+
+  /**
+   * Adds the values seen by the given sketch, which must have the same precision.
+   */
+  public void merge(HyperLogLog other) {
+    if (other.precision != precision) {
+      throw new UnbelievableException("Can't merge sketches with different precisions");
+    }
+    for (int i = 0; i < registers.length(); i++) {
+      int rank = other.registers.get(i);
+      int current = registers.get(i);
+      while (rank > current && !registers.compareAndSet(i, current, rank)) {
+        current = registers.get(i);
+      }
+    }
+  }
+
+  public long estimate() {
+    int size = registers.length();
+    double sum = 0;
+    int zeros = 0;
+    for (int i = 0; i < size; i++) {
+      int register = registers.get(i);
+      sum += Math.scalb(1.0, -register);
+      if (register == 0) {
+        zeros++;
+      }
+    }
+    double alpha = switch (size) {
+      case 16 -> 0.673;
+      case 32 -> 0.697;
+      case 64 -> 0.709;
+      default -> 0.7213 / (1 + 1.079 / size);
+    };
+    double estimate = alpha * size * size / sum;
+    // few values leave lots of registers untouched, which tells the count better
+    if (estimate <= 2.5 * size && zeros > 0) {
+      estimate = size * Math.log((double) size / zeros);
+    }
+    return Math.round(estimate);
+  }
+
+  /**
+   * The relative standard error of the estimates.
+   */
+  public double error() {
+    return 1.04 / Math.sqrt(registers.length());
+  }
+
+  /**
+   * An estimate of the memory taken by the sketch, in bytes.
+   */
+  public long footprint() {
+    return 16L + registers.length() * 4L;
+  }
+
+  /**
+   * Hashes the value to 64 bits, since the 32 bits of the hash codes would collide too often with
+   * millions of values.
+   */
+  public static long hash(Object value) {
+    long hash;
+    if (value instanceof String text) {
+      hash = 0xCBF29CE484222325L;
+      for (int i = 0; i < text.length(); i++) {
+        hash = (hash ^ text.charAt(i)) * 0x100000001B3L;
+      }
+    } else {
+      hash = value.hashCode();
+    }
+    // the finalizer of murmur3, so every bit of the input affects every bit of the hash
+    hash ^= hash >>> 33;
+    hash *= 0xFF51AFD7ED558CCDL;
+    hash ^= hash >>> 33;
+    hash *= 0xC4CEB9FE1A85EC53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+
+}
@@ -0,0 +1,147 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Marcelo "Ataxexe" Guimarães
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.backpackcloud.sherlogholmes.util;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BiConsumer;
+
+/**
+ * A map from primitive longs to values, for the hot paths that can't afford boxing the keys.
+ * <p>
+ * Lookups take no locks and allocate nothing. Keys are only added (under a lock), never removed,
+ * so a lookup sees either the complete mapping or nothing, in which case {@link #putIfAbsent(long, Object)}
+ * settles it.
+ */
+public final class LongTable<V> {
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  private volatile Table<V> table = new Table<>(INITIAL_CAPACITY);
+
+  public V get(long key) {
+    return table.get(key);
+  }
+
+  /**
+   * Maps the key to the given value, unless it's already mapped.
+   *
+   * @return the value mapped to the key after the call
+   */
+  public synchronized V putIfAbsent(long key, V value) {
+    Table<V> current = table;
+    V existing = current.get(key);
+    if (existing != null) {
+      return existing;
+    }
+    // kept at most half full, so the probes stay short
+    if ((current.size + 1) * 2 > current.capacity()) {
+      Table<V> grown = new Table<>(current.capacity() * 2);
+      current.forEach(grown::put);
+      grown.put(key, value);
+      table = grown;
+    } else {
+      current.put(key, value);
+    }
+    return value;
+  }
+
+  public void forEach(BiConsumer<Long, V> action) {
+    table.forEach(action::accept);
+  }
+
+  public synchronized int size() {
+    return table.size;
+  }
+
+  /**
+   * An estimate of the memory taken by the table, in bytes, not counting the values themselves.
+   */
+  public long footprint() {
+    return 32L + table.capacity() * (8L + 4L);
+  }
+
+  private interface Entries<V> {
+
+    void accept(long key, V value);
+
+  }
+
+  private static final class Table<V> {
+
+    private final long[] keys;
+    // a slot is taken once its value is published, after its key
+    private final AtomicReferenceArray<V> values;
+    private final int mask;
+    private int size;
+
+    private Table(int capacity) {
+      this.keys = new long[capacity];
+      this.values = new AtomicReferenceArray<>(capacity);
+      this.mask = capacity - 1;
+    }
+
+    private int capacity() {
+      return keys.length;
+    }
+
+    private static int slot(long key) {
+      long hash = key * 0x9E3779B97F4A7C15L;
+      return (int) (hash ^ (hash >>> 32));
+    }
+
+    private V get(long key) {
+      for (int i = slot(key) & mask; ; i = (i + 1) & mask) {
+        V value = values.getAcquire(i);
+        if (value == null) {
+          return null;
+        }
+        if (keys[i] == key) {
+          return value;
+        }
+      }
+    }
+
+    private void put(long key, V value) {
+      int i = slot(key) & mask;
+      while (values.getPlain(i) != null) {
+        i = (i + 1) & mask;
+      }
+      keys[i] = key;
+      values.setRelease(i, value);
+      size++;
+    }
+
+    private void forEach(Entries<V> action) {
+      for (int i = 0; i < keys.length; i++) {
+        V value = values.getAcquire(i);
+        if (value != null) {
+          action.accept(keys[i], value);
+        }
+      }
+    }
+
+  }
+
+}
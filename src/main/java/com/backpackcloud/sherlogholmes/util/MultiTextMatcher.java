@@ -0,0 +1,281 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Marcelo "Ataxexe" Guimarães
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.backpackcloud.sherlogholmes.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Finds which of a set of texts occur in another one with a single pass over it, no matter how many
+ * texts there are (an Aho-Corasick automaton).
+ * <p>
+ * The texts keep the order they were given in, so the first one in that order can be found even if
+ * another one shows up earlier in the searched text. A few texts are just looked for one by one, which
+ * is faster than the single pass until there are around ten of them.
+ */
+public final class MultiTextMatcher {
+
+  private static final int SINGLE_PASS_MIN_TEXTS = 10;
+  private static final int NONE = Integer.MAX_VALUE;
+  private static final int ASCII = 128;
+
+  private final List<String> texts;
+  private final Automaton automaton;
+
+  private MultiTextMatcher(List<String> texts) {
+    this.texts = List.copyOf(texts);
+    this.automaton = texts.size() < SINGLE_PASS_MIN_TEXTS ? null : new Automaton(this.texts);
+  }
+
+  public static MultiTextMatcher of(List<String> texts) {
+    return new MultiTextMatcher(texts);
+  }
+
+  public List<String> texts() {
+    return texts;
+  }
+
+  /**
+   * Checks if any of the texts occurs in the given one.
+   */
+  public boolean containsAny(String text) {
+    if (automaton != null) {
+      return automaton.containsAny(text);
+    }
+    for (String candidate : texts) {
+      if (text.contains(candidate)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns the index of the first of the texts, in the order they were given, that occurs in the given one.
+   *
+   * @return the index of the text, or {@code -1} if none of them occurs
+   */
+  public int firstInOrder(String text) {
+    if (automaton != null) {
+      return automaton.firstInOrder(text);
+    }
+    for (int i = 0; i < texts.size(); i++) {
+      if (text.contains(texts.get(i))) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the indexes of all the texts that occur in the given one.
+   */
+  public BitSet findAll(String text) {
+    BitSet found = new BitSet(texts.size());
+    if (automaton != null) {
+      automaton.findAll(text, found);
+    } else {
+      for (int i = 0; i < texts.size(); i++) {
+        if (text.contains(texts.get(i))) {
+          found.set(i);
+        }
+      }
+    }
+    return found;
+  }
+
+  private static final class Automaton {
+
+
+    // the symbol of each char, where 0 is any char that isn't in the texts
+    private final int[] asciiSymbols;
+    private final char[] otherChars;
+    private final int width;
+    // the row of the state reached from each row by each symbol, already following the failures, as a
+    // negative number (-row - 1) if some text ends at it, so the search only stops when something is found
+    private final int[] transitions;
+    // the lowest index of the texts ending at each state, including the ones ending at its suffixes
+    private final int[] first;
+    private final int[][] outputs;
+    // the closest suffix of each state with texts ending on it
+    private final int[] suffixes;
+
+    private Automaton(List<String> texts) {
+      TreeSet<Character> alphabet = new TreeSet<>();
+      texts.forEach(text -> text.chars().forEach(c -> alphabet.add((char) c)));
+      this.asciiSymbols = new int[ASCII];
+      List<Character> others = new ArrayList<>();
+      int symbol = 1;
+      for (char c : alphabet) {
+        if (c < ASCII) {
+          asciiSymbols[c] = symbol++;
+        } else {
+          others.add(c);
+        }
+      }
+      this.otherChars = new char[others.size()];
+      for (int i = 0; i < otherChars.length; i++) {
+        otherChars[i] = others.get(i);
+      }
+      int otherSymbols = symbol;
+      this.width = otherSymbols + otherChars.length;
+
+      // the trie, with the texts ending at each node
+      List<Map<Integer, Integer>> children = new ArrayList<>();
+      List<List<Integer>> ends = new ArrayList<>();
+      children.add(new HashMap<>());
+      ends.add(new ArrayList<>());
+      for (int index = 0; index < texts.size(); index++) {
+        String text = texts.get(index);
+        int node = 0;
+        for (int i = 0; i < text.length(); i++) {
+          int s = symbol(text.charAt(i), otherSymbols);
+          Integer next = children.get(node).get(s);
+          if (next == null) {
+            next = children.size();
+            children.get(node).put(s, next);
+            children.add(new HashMap<>());
+            ends.add(new ArrayList<>());
+          }
+          node = next;
+        }
+        ends.get(node).add(index);
+      }
+
+      int states = children.size();
+      this.transitions = new int[states * width];
+      this.first = new int[states];
+      this.outputs = new int[states][];
+      this.suffixes = new int[states];
+      int[] failures = new int[states];
+
+      for (int state = 0; state < states; state++) {
+        outputs[state] = ends.get(state).stream().mapToInt(Integer::intValue).toArray();
+        first[state] = outputs[state].length == 0 ? NONE : outputs[state][0];
+      }
+
+      // breadth first, so the failure of a state is always done before the state itself
+      Deque<Integer> queue = new ArrayDeque<>();
+      for (int s = 1; s < width; s++) {
+        Integer child = children.getFirst().get(s);
+        if (child != null) {
+          transitions[s] = child;
+          queue.add(child);
+        }
+      }
+      while (!queue.isEmpty()) {
+        int state = queue.poll();
+        int failure = failures[state];
+        first[state] = Math.min(first[state], first[failure]);
+        suffixes[state] = outputs[failure].length > 0 ? failure : suffixes[failure];
+        for (int s = 1; s < width; s++) {
+          Integer child = children.get(state).get(s);
+          if (child != null) {
+            failures[child] = transitions[failure * width + s];
+            transitions[state * width + s] = child;
+            queue.add(child);
+          } else {
+            transitions[state * width + s] = transitions[failure * width + s];
+          }
+        }
+      }
+      for (int i = 0; i < transitions.length; i++) {
+        int state = transitions[i];
+        transitions[i] = first[state] == NONE ? state * width : -state * width - 1;
+      }
+    }
+
+    private int symbol(char c, int otherSymbols) {
+      if (c < ASCII) {
+        return asciiSymbols[c];
+      }
+      int index = Arrays.binarySearch(otherChars, c);
+      return index < 0 ? 0 : otherSymbols + index;
+    }
+
+    private int symbol(char c) {
+      return symbol(c, width - otherChars.length);
+    }
+
+    private boolean containsAny(String text) {
+      if (first[0] != NONE) {
+        return true;
+      }
+      int row = 0;
+      for (int i = 0, length = text.length(); i < length; i++) {
+        row = transitions[row + symbol(text.charAt(i))];
+        if (row < 0) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    private int firstInOrder(String text) {
+      int best = first[0];
+      int row = 0;
+      for (int i = 0, length = text.length(); i < length && best != 0; i++) {
+        row = transitions[row + symbol(text.charAt(i))];
+        if (row < 0) {
+          row = -row - 1;
+          best = Math.min(best, first[row / width]);
+        }
+      }
+      return best == NONE ? -1 : best;
+    }
+
+    private void findAll(String text, BitSet found) {
+      collect(0, found);
+      int row = 0;
+      for (int i = 0, length = text.length(); i < length; i++) {
+        row = transitions[row + symbol(text.charAt(i))];
+        if (row < 0) {
+          row = -row - 1;
+          collect(row / width, found);
+        }
+      }
+    }
+
+    private void collect(int state, BitSet found) {
+      for (int current = state; ; current = suffixes[current]) {
+        for (int index : outputs[current]) {
+          found.set(index);
+        }
+        if (current == 0) {
+          return;
+        }
+      }
+    }
+
+  }
+
+}
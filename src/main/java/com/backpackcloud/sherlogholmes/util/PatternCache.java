@@ -0,0 +1,63 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Marcelo "Ataxexe" Guimarães
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.backpackcloud.sherlogholmes.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps the patterns compiled, so the same expression isn't compiled over and over.
+ * <p>
+ * The patterns are looked up for every entry tested, from many threads at once, so there's no lock
+ * and no order to keep: once there are too many of them, they are all dropped.
+ */
+public final class PatternCache {
+
+  private static final int MAX_SIZE = 256;
+
+  private static final Map<String, Pattern> PATTERNS = new ConcurrentHashMap<>();
+
+  private PatternCache() {
+  }
+
+  /**
+   * Returns the compiled pattern for the given expression.
+   *
+   * @throws java.util.regex.PatternSyntaxException if the expression is invalid
+   */
+  public static Pattern compile(String expression) {
+    Pattern pattern = PATTERNS.get(expression);
+    if (pattern == null) {
+      pattern = Pattern.compile(expression);
+      if (PATTERNS.size() >= MAX_SIZE) {
+        PATTERNS.clear();
+      }
+      PATTERNS.putIfAbsent(expression, pattern);
+    }
+    return pattern;
+  }
+
+}
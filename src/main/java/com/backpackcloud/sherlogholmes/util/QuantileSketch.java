@@ -0,0 +1,227 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Marcelo "Ataxexe" Guimarães
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.backpackcloud.sherlogholmes.util;
+
+import com.backpackcloud.UnbelievableException;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.DoubleAccumulator;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Estimates the quantiles of a stream of numbers using the same memory no matter how many there are.
+ * <p>
+ * The numbers are counted in buckets whose bounds grow geometrically (like an HDR histogram), so any
+ * quantile is within a relative accuracy of a number that was actually seen. The minimum, the maximum
+ * and the mean are exact. Numbers can be added from many threads at once, and sketches of the same
+ * accuracy can be merged.
+ */
+public final class QuantileSketch {
+
+  public static final double DEFAULT_ACCURACY = 0.01;
+
+  // the magnitudes told apart, anything closer to zero is zero and anything larger goes in the last bucket
+  private static final double MIN_MAGNITUDE = 1e-9;
+  private static final double MAX_MAGNITUDE = 1e15;
+
+  private final double accuracy;
+  private final double gamma;
+  private final double logGamma;
+  private final int minIndex;
+  private final AtomicLongArray positives;
+  private final AtomicLongArray negatives;
+  private final LongAdder zeros;
+  private final LongAdder count;
+  private final DoubleAdder sum;
+  private final DoubleAccumulator min;
+  private final DoubleAccumulator max;
+
+  public QuantileSketch() {
+    this(DEFAULT_ACCURACY);
+  }
+
+  /**
+   * @param accuracy how far, relative to it, an estimated quantile can be from a number that was seen
+   */
+  public QuantileSketch(double accuracy) {
+    if (accuracy <= 0 || accuracy >= 1) {
+      throw new UnbelievableException("The accuracy must be between 0 and 1: " + accuracy);
+    }
+    this.accuracy = accuracy;
+    this.gamma = (1 + accuracy) / (1 - accuracy);
+    this.logGamma = Math.log(gamma);
+    this.minIndex = (int) Math.ceil(Math.log(MIN_MAGNITUDE) / logGamma);
+    int size = (int) Math.ceil(Math.log(MAX_MAGNITUDE) / logGamma) - minIndex + 1;
+    this.positives = new AtomicLongArray(size);
+    this.negatives = new AtomicLongArray(size);
+    this.zeros = new LongAdder();
+    this.count = new LongAdder();
+    this.sum = new DoubleAdder();
+    this.min = new DoubleAccumulator(Math::min, Double.POSITIVE_INFINITY);
+    this.max = new DoubleAccumulator(Math::max, Double.NEGATIVE_INFINITY);
+  }
+
+  /**
+   * Adds the given number, unless it's not a number or an infinity, which have no bucket and would
+   * take the mean with them.
+   */
+  public void add(double value) {
+    if (!Double.isFinite(value)) {
+      return;
+    }
+    double magnitude = Math.abs(value);
+    if (magnitude < MIN_MAGNITUDE) {
+      zeros.increment();
+    } else if (value > 0) {
+      positives.getAndIncrement(indexOf(magnitude));
+    } else {
+      negatives.getAndIncrement(indexOf(magnitude));
+    }
+    count.increment();
+    sum.add(value);
+    min.accumulate(value);
+    max.accumulate(value);
+  }
+
+  // the bucket holding the magnitudes in (gamma^(i - 1), gamma^i]
+  private int indexOf(double magnitude) {
+    int index = (int) Math.ceil(Math.log(magnitude) / logGamma) - minIndex;
+    return Math.min(index, positives.length() - 1);
+  }
+
+  // the number the bucket stands for, which is within the accuracy of any number in it
+  private double valueOf(int index) {
+    return 2 * Math.pow(gamma, index + minIndex) / (gamma + 1);
+  }
+
+  /**
+   * Adds the numbers of the given sketch to this one.
+   */
+  public QuantileSketch merge(QuantileSketch other) {
+    if (other.accuracy != accuracy) {
+      throw new UnbelievableException("Only sketches of the same accuracy can be merged");
+    }
+    for (int i = 0; i < positives.length(); i++) {
+      long positive = other.positives.get(i);
+      if (positive != 0) {
+        positives.getAndAdd(i, positive);
+      }
+      long negative = other.negatives.get(i);
+      if (negative != 0) {
+        negatives.getAndAdd(i, negative);
+      }
+    }
+    zeros.add(other.zeros.sum());
+    count.add(other.count.sum());
+    sum.add(other.sum.sum());
+    min.accumulate(other.min.get());
+    max.accumulate(other.max.get());
+    return this;
+  }
+
+  public double accuracy() {
+    return accuracy;
+  }
+
+  public long count() {
+    return count.sum();
+  }
+
+  public boolean isEmpty() {
+    return count() == 0;
+  }
+
+  public double min() {
+    return isEmpty() ? Double.NaN : min.get();
+  }
+
+  public double max() {
+    return isEmpty() ? Double.NaN : max.get();
+  }
+
+  public double sum() {
+    return sum.sum();
+  }
+
+  public double mean() {
+    long total = count();
+    return total == 0 ? Double.NaN : sum() / total;
+  }
+
+  /**
+   * Estimates the number below which the given fraction (from 0 to 1) of the numbers are.
+   */
+  public double quantile(double fraction) {
+    if (fraction < 0 || fraction > 1) {
+      throw new UnbelievableException("The quantile must be between 0 and 1: " + fraction);
+    }
+    int size = positives.length();
+    long[] positiveCounts = new long[size];
+    long[] negativeCounts = new long[size];
+    long zeroCount = zeros.sum();
+    long total = zeroCount;
+    for (int i = 0; i < size; i++) {
+      positiveCounts[i] = positives.get(i);
+      negativeCounts[i] = negatives.get(i);
+      total += positiveCounts[i] + negativeCounts[i];
+    }
+    if (total == 0) {
+      return Double.NaN;
+    }
+    long rank = (long) (fraction * (total - 1));
+    long seen = 0;
+    // from the most negative numbers up to the largest ones
+    for (int i = size - 1; i >= 0; i--) {
+      seen += negativeCounts[i];
+      if (seen > rank) {
+        return bounded(-valueOf(i));
+      }
+    }
+    seen += zeroCount;
+    if (seen > rank) {
+      return bounded(0);
+    }
+    for (int i = 0; i < size; i++) {
+      seen += positiveCounts[i];
+      if (seen > rank) {
+        return bounded(valueOf(i));
+      }
+    }
+    return max();
+  }
+
+  private double bounded(double value) {
+    return Math.clamp(value, min.get(), max.get());
+  }
+
+  /**
+   * How many bytes the buckets take.
+   */
+  public long footprint() {
+    return 2L * Long.BYTES * positives.length();
+  }
+
+}
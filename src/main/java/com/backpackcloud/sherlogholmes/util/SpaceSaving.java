@@ -0,0 +1,204 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Marcelo "Ataxexe" Guimarães
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.backpackcloud.sherlogholmes.util;
+
+import com.backpackcloud.UnbelievableException;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps track of the most frequent values using a fixed number of slots (the Space-Saving algorithm).
+ * <p>
+ * A value that isn't tracked takes the slot of the least counted one, inheriting its count as the error,
+ * so counts are only ever overestimated, and by no more than the total divided by the number of slots.
+ * <p>
+ * Values are spread over stripes by their hashes, each one with its own lock and slots. A value always
+ * falls in the same stripe, so its count is never split.
+ */
+public final class SpaceSaving {
+
+  private static final int STRIPES = 8;
+
+  private final Stripe[] stripes;
+
+  public SpaceSaving(int capacity) {
+    if (capacity < STRIPES) {
+      throw new UnbelievableException("Capacity must be at least " + STRIPES);
+    }
+    this.stripes = new Stripe[STRIPES];
+    for (int i = 0; i < STRIPES; i++) {
+      stripes[i] = new Stripe((capacity + STRIPES - 1) / STRIPES);
+    }
+  }
+
+  /**
+   * Creates a tracker that keeps the error of the counts within the given fraction of the total.
+   */
+  public static SpaceSaving withError(double error) {
+    return new SpaceSaving(Math.max(STRIPES, (int) Math.ceil(1 / error)));
+  }
+
+  public void add(Object value) {
+    add(value, HyperLogLog.hash(value));
+  }
+
+  /**
+   * Adds a value that was already hashed with {@link HyperLogLog#hash(Object)}.
+   */
+  public void add(Object value, long hash) {
+    Stripe stripe = stripes[(int) (hash & (STRIPES - 1))];
+    synchronized (stripe) {
+      stripe.add(value);
+    }
+  }
+
+  /**
+   * Returns the most counted values, from the most counted one.
+   */
+  public List<Estimate> top(int size) {
+    List<Estimate> result = new ArrayList<>();
+    for (Stripe stripe : stripes) {
+      synchronized (stripe) {
+        for (int i = 0; i < stripe.size; i++) {
+          result.add(new Estimate(stripe.values[i], stripe.counts[i], stripe.errors[i]));
+        }
+      }
+    }
+    result.sort(Comparator.comparingLong(Estimate::count).reversed());
+    return result.size() > size ? result.subList(0, size) : result;
+  }
+
+  /**
+   * An estimate of the memory taken by the tracker, in bytes, not counting the values themselves.
+   */
+  public long footprint() {
+    long slots = 0;
+    for (Stripe stripe : stripes) {
+      slots += stripe.values.length;
+    }
+    // three arrays and the entries of the map for each slot
+    return slots * (8 + 8 + 8 + 4 + 48);
+  }
+
+  /**
+   * The estimated count of a value, which is at most {@code error} above the real one.
+   */
+  public record Estimate(Object value, long count, long error) {
+
+  }
+
+  /**
+   * The slots of a stripe, kept as a binary min heap on their counts, so the least counted one is always
+   * the first.
+   */
+  private static final class Stripe {
+
+    private final Object[] values;
+    private final long[] counts;
+    private final long[] errors;
+    // where each tracked value is in the heap
+    private final Map<Object, Integer> positions;
+    private int size;
+
+    private Stripe(int capacity) {
+      this.values = new Object[capacity];
+      this.counts = new long[capacity];
+      this.errors = new long[capacity];
+      this.positions = new HashMap<>(capacity * 2);
+    }
+
+    private void add(Object value) {
+      Integer position = positions.get(value);
+      if (position != null) {
+        counts[position]++;
+        siftDown(position);
+      } else if (size < values.length) {
+        values[size] = value;
+        counts[size] = 1;
+        errors[size] = 0;
+        positions.put(value, size);
+        siftUp(size++);
+      } else {
+        // the least counted value gives its slot away
+        positions.remove(values[0]);
+        errors[0] = counts[0];
+        counts[0]++;
+        values[0] = value;
+        positions.put(value, 0);
+        siftDown(0);
+      }
+    }
+
+    private void siftUp(int index) {
+      while (index > 0) {
+        int parent = (index - 1) / 2;
+        if (counts[parent] <= counts[index]) {
+          return;
+        }
+        swap(index, parent);
+        index = parent;
+      }
+    }
+
+    private void siftDown(int index) {
+      while (true) {
+        int smallest = index;
+        int left = index * 2 + 1;
+        int right = left + 1;
+        if (left < size && counts[left] < counts[smallest]) {
+          smallest = left;
+        }
+        if (right < size && counts[right] < counts[smallest]) {
+          smallest = right;
+        }
+        if (smallest == index) {
+          return;
+        }
+        swap(index, smallest);
+        index = smallest;
+      }
+    }
+
+    private void swap(int a, int b) {
+      Object value = values[a];
+      values[a] = values[b];
+      values[b] = value;
+      long count = counts[a];
+      counts[a] = counts[b];
+      counts[b] = count;
+      long error = errors[a];
+      errors[a] = errors[b];
+      errors[b] = error;
+      positions.put(values[a], a);
+      positions.put(values[b], b);
+    }
+
+  }
+
+}
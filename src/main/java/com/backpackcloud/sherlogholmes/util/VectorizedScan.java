@@ -0,0 +1,92 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Marcelo "Ataxexe" Guimarães
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.backpackcloud.sherlogholmes.util;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.util.Arrays;
+
+/**
+ * Compares whole blocks of the text against the first and the last byte of the needle at once, so only
+ * the positions where both match are compared byte by byte.
+ * <p>
+ * Lines are usually shorter than a couple of blocks, so the last block is loaded partially instead of
+ * leaving the rest of the text to a scalar search.
+ */
+final class VectorizedScan implements ByteSearch.Scan {
+
+  // the candidates go through a long, which only has room for 64 lanes (wider vectors exist with SVE)
+  private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED.length() > Long.SIZE
+    ? ByteVector.SPECIES_512
+    : ByteVector.SPECIES_PREFERRED;
+
+  @Override
+  public int indexOf(byte[] text, int from, int to, byte[] needle) {
+    int length = needle.length;
+    if (length == 0) {
+      return from <= to ? from : -1;
+    }
+    int lanes = SPECIES.length();
+    ByteVector first = ByteVector.broadcast(SPECIES, needle[0]);
+    ByteVector last = ByteVector.broadcast(SPECIES, needle[length - 1]);
+
+    // the occurrences can only start before this position
+    int limit = to - length + 1;
+    int i = from;
+    for (; i + lanes <= limit; i += lanes) {
+      long candidates = ByteVector.fromArray(SPECIES, text, i).eq(first)
+        .and(ByteVector.fromArray(SPECIES, text, i + length - 1).eq(last))
+        .toLong();
+      int found = verify(text, i, candidates, needle);
+      if (found >= 0) {
+        return found;
+      }
+    }
+    if (i < limit) {
+      VectorMask<Byte> range = SPECIES.indexInRange(i, limit);
+      long candidates = ByteVector.fromArray(SPECIES, text, i, range).eq(first)
+        .and(ByteVector.fromArray(SPECIES, text, i + length - 1, range).eq(last))
+        .and(range)
+        .toLong();
+      return verify(text, i, candidates, needle);
+    }
+    return -1;
+  }
+
+  private static int verify(byte[] text, int offset, long candidates, byte[] needle) {
+    int length = needle.length;
+    while (candidates != 0) {
+      int candidate = offset + Long.numberOfTrailingZeros(candidates);
+      if (Arrays.equals(text, candidate, candidate + length, needle, 0, length)) {
+        return candidate;
+      }
+      candidates &= candidates - 1;
+    }
+    return -1;
+  }
+
+}
@@ -0,0 +1,128 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Marcelo "Ataxexe" Guimarães
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.backpackcloud.sherlogholmes.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AttributeLayoutTest {
+
+  private final DataModel access = new DataModel("access", null, null)
+    .add("method", AttributeSpec.create("text"))
+    .add("status", AttributeSpec.create("number"))
+    .add("path", AttributeSpec.create("text"));
+
+  private final DataModel app = new DataModel("app", null, null)
+    .add("path", AttributeSpec.create("text"))
+    .add("level", AttributeSpec.create("text"));
+
+  @Test
+  public void testSharedReference() {
+    AttributeRef path = new AttributeRef("path");
+    assertTrue(access.layout().slotOf("path") != app.layout().slotOf("path"));
+
+    // the slot of each layout is kept, so the entries can come in any order
+    for (int i = 0; i < 3; i++) {
+      DataEntry request = access.create();
+      request.attribute("path").ifPresent(attr -> attr.assignFromInput("/index.html"));
+      DataEntry log = app.create();
+      log.attribute("path").ifPresent(attr -> attr.assignFromInput("/var/log/app.log"));
+
+      assertEquals("/index.html", path.find(request).value().orElseThrow());
+      assertEquals("/var/log/app.log", path.find(log).value().orElseThrow());
+    }
+
+    DataEntry log = app.create();
+    path.set(log, new Attribute<>("path", AttributeSpec.create("text")));
+    path.find(log).assignFromInput("/tmp/app.log");
+    assertEquals("/tmp/app.log", log.attribute("path").flatMap(Attribute::value).orElseThrow());
+    assertEquals(2, log.attributes().size());
+  }
+
+  @Test
+  public void testMissingAttribute() {
+    AttributeRef level = new AttributeRef("level");
+    DataEntry request = access.create();
+
+    assertEquals(-1, access.layout().slotOf("level"));
+    assertNull(level.find(request));
+    assertFalse(level.isPresentIn(request));
+    // a layout without the attribute doesn't keep the ones that have it from finding it
+    assertNotNull(level.find(app.create()));
+
+    level.set(request, new Attribute<>("level", AttributeSpec.create("text")));
+    level.find(request).assignFromInput("WARN");
+    assertTrue(request.hasAttribute("level"));
+    assertEquals("WARN", request.attribute("level").flatMap(Attribute::value).orElseThrow());
+    assertEquals(4, request.attributes().size());
+
+    request.remove("level");
+    assertNull(level.find(request));
+
+    // the entries without a model only have their attributes by name
+    DataEntry entry = new DataEntry();
+    assertNull(level.find(entry));
+    entry.addAttribute("level").fromInput("ERROR");
+    assertEquals("ERROR", level.find(entry).value().orElseThrow());
+  }
+
+  @Test
+  public void testReservedAttributes() {
+    AttributeLayout layout = access.layout();
+    assertEquals(3 + 3, layout.size());
+    for (String reserved : List.of("source", "line", "data-model")) {
+      int slot = layout.slotOf(reserved);
+      assertTrue(slot >= 3);
+      assertEquals(reserved, layout.name(slot));
+      assertNull(layout.spec(slot));
+    }
+
+    // no attribute until the pipeline sets one
+    AttributeRef source = new AttributeRef("source");
+    DataEntry request = access.create();
+    assertFalse(request.hasAttribute("source"));
+    assertEquals(3, request.attributes().size());
+    request.addAttribute("source").fromInput("access.log");
+    assertEquals("access.log", source.find(request).value().orElseThrow());
+    assertEquals(4, request.attributes().size());
+
+    // a model may declare one of them, which keeps its own spec
+    DataModel numbered = new DataModel("numbered", null, null)
+      .add("line", AttributeSpec.create("number"));
+    AttributeLayout numberedLayout = numbered.layout();
+    assertEquals(1 + 2, numberedLayout.size());
+    assertEquals(0, numberedLayout.slotOf("line"));
+    assertNotNull(numberedLayout.spec(0));
+    assertTrue(numbered.create().hasAttribute("line"));
+  }
+
+}
@@ -28,6 +28,8 @@ import com.backpackcloud.UnbelievableException;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
@@ -73,4 +75,24 @@ public class AttributeTest {
     verify(type).isValid("bar");
   }
 
+  @Test
+  public void testDictionaryEncoding() {
+    Dictionary dictionary = new Dictionary();
+    AttributeSpec<String> thread = (AttributeSpec<String>) AttributeSpec.create("text | dictionary", dictionary);
+    AttributeSpec<String> level = (AttributeSpec<String>) AttributeSpec.create("enum | INFO,ERROR", dictionary);
+
+    Attribute<String> first = new Attribute<>("thread", thread).assignFromInput(new String("main"));
+    Attribute<String> second = new Attribute<>("thread", thread).assignFromInput(new String("main"));
+    new Attribute<>("level", level).assignFromInput("ERROR");
+
+    assertSame(first.value().orElseThrow(), second.value().orElseThrow());
+    assertEquals(2, dictionary.size());
+    assertTrue(Operation.EQUAL.execute(first, "main"));
+    assertFalse(Operation.EQUAL.execute(first, "worker"));
+    assertTrue(Operation.DIFFERENT.execute(first, "worker"));
+    assertEquals(2, dictionary.size());
+
+    assertThrows(UnbelievableException.class, () -> new Attribute<>("level", level).assignFromInput("DEBUG"));
+  }
+
 }
@@ -0,0 +1,231 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Marcelo "Ataxexe" Guimarães
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.backpackcloud.sherlogholmes.model;
+
+import com.backpackcloud.UnbelievableException;
+import com.backpackcloud.sherlogholmes.util.MultiTextMatcher;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DataFilterTest {
+
+  private final Dictionary dictionary = new Dictionary();
+
+  private final DataModel model = new DataModel("test", null, null, dictionary)
+    .add("line", AttributeSpec.create("number", dictionary))
+    .add("level", AttributeSpec.create("enum | DEBUG,INFO,WARN,ERROR", dictionary))
+    .add("thread", AttributeSpec.create("text | dictionary", dictionary))
+    .add("expected", AttributeSpec.create("text", dictionary))
+    .add("tags", AttributeSpec.create("text[]", dictionary))
+    .add("message", AttributeSpec.create("text", dictionary));
+
+  private DataEntry entry(int line) {
+    DataEntry entry = model.create();
+    entry.attribute("line").ifPresent(attr -> attr.assignFromInput(String.valueOf(line)));
+    entry.attribute("level").ifPresent(attr -> attr.assignFromInput(line % 3 == 0 ? "ERROR" : "INFO"));
+    entry.attribute("thread").ifPresent(attr -> attr.assignFromInput("thread-" + line % 4));
+    entry.attribute("expected").ifPresent(attr -> attr.assignFromInput("message " + line % 5));
+    if (line % 2 == 0) {
+      entry.attribute("tags").ifPresent(attr -> attr.assignFromInput("tag-" + line % 3));
+    }
+    if (line % 7 != 0) {
+      entry.attribute("message").ifPresent(attr -> attr.assignFromInput("message " + line % 10));
+    }
+    return entry;
+  }
+
+  @Test
+  public void testCompiledFilters() {
+    List<DataEntry> entries = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      entries.add(entry(i));
+    }
+
+    FilterFactory factory = new FilterFactory();
+    List<String> expressions = List.of(
+      "level == ERROR",
+      "level != ERROR",
+      "thread == thread-2",
+      "thread == thread-9",
+      "line > 50",
+      "line <= 10",
+      "message * ",
+      "message !* ",
+      "message % age 3",
+      "message !% age 3",
+      "message ~= e [0-4]$",
+      "message !~= e [0-4]$",
+      "tags == tag-1",
+      "message == {expected}",
+      "message != {expected}",
+      "thread == {missing}",
+      "missing == ERROR"
+    );
+    for (String expression : expressions) {
+      DataFilter filter = factory.create(expression);
+      DataFilter compiled = filter.compile();
+      DataFilter negated = filter.negate().compile();
+      for (DataEntry entry : entries) {
+        assertEquals(filter.test(entry), compiled.test(entry), expression);
+        assertEquals(filter.negate().test(entry), negated.test(entry), expression);
+      }
+    }
+
+    // '$' and '\' in the interpolated values are just text
+    DataEntry special = entry(1);
+    special.attribute("expected").ifPresent(attr -> attr.assignFromInput("costs $1 \\ off"));
+    special.attribute("message").ifPresent(attr -> attr.assignFromInput("costs $1 \\ off"));
+    for (String expression : List.of("message == {expected}", "message % {expected}")) {
+      DataFilter filter = factory.create(expression);
+      assertTrue(filter.test(special), expression);
+      assertTrue(filter.compile().test(special), expression);
+    }
+
+    DataFilter composite = factory.create("level == ERROR").and(factory.create("line > 50"))
+      .or(factory.create("message == {expected}"));
+    DataFilter compiled = composite.compile();
+    for (DataEntry entry : entries) {
+      assertEquals(composite.test(entry), compiled.test(entry));
+    }
+  }
+
+  @Test
+  public void testOptimizedFilters() {
+    List<DataEntry> entries = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      entries.add(entry(i));
+    }
+
+    FilterFactory factory = new FilterFactory();
+    DataFilter regex = factory.create("message ~= e [0-4]$");
+    DataFilter selective = factory.create("thread == thread-2");
+    DataFilter filter = regex
+      .and(DataFilter.ALLOW_ALL.and(factory.create("level == ERROR")))
+      .and(selective)
+      .or(factory.create("message == {expected}"))
+      .or(DataFilter.DENY_ALL);
+
+    FilterPlan plan = new FilterOptimizer(entries, entries.size(), new Counter()).plan(filter);
+    for (DataEntry entry : entries) {
+      assertEquals(filter.test(entry), plan.filter().test(entry));
+    }
+
+    // the constant filters are gone and the chain of ands became a single node
+    assertEquals(CompositeFilter.BooleanOperation.OR, ((CompositeFilter) plan.filter()).operation());
+    assertEquals(2, plan.children().size());
+    FilterPlan and = plan.children().stream()
+      .filter(child -> !child.children().isEmpty())
+      .findFirst()
+      .orElseThrow();
+    assertEquals(3, and.children().size());
+    // cheap and selective first, the regex last
+    assertEquals(selective, and.children().getFirst().filter());
+    assertEquals(regex, and.children().getLast().filter());
+
+    assertEquals(DataFilter.DENY_ALL,
+      new FilterOptimizer(entries, entries.size(), new Counter()).optimize(regex.and(DataFilter.DENY_ALL)));
+  }
+
+  @Test
+  public void testGroupedContains() {
+    List<DataEntry> entries = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      entries.add(entry(i));
+    }
+
+    FilterFactory factory = new FilterFactory();
+    DataFilter filter = factory.create("message % age 1")
+      .or(factory.create("level == ERROR"))
+      .or(factory.create("message % age 3").or(factory.create("message % 5")))
+      .or(factory.create("tags % -2"))
+      .or(factory.create("message % {expected}"))
+      .or(factory.create("message % ssa"));
+    DataFilter compiled = filter.compile();
+    DataFilter negated = filter.negate().compile();
+    for (DataEntry entry : entries) {
+      assertEquals(filter.test(entry), compiled.test(entry));
+      assertEquals(filter.negate().test(entry), negated.test(entry));
+    }
+    // the texts looked for in the message took the place of the first of them
+    DataFilter first = compiled;
+    while (first instanceof CompositeFilter composite) {
+      first = composite.left();
+    }
+    assertInstanceOf(ContainsAnyFilter.class, first);
+
+    Random random = new Random(42);
+    for (int i = 0; i < 200; i++) {
+      List<String> texts = new ArrayList<>();
+      for (int j = random.nextInt(30); j >= 0; j--) {
+        texts.add(randomText(random, 4));
+      }
+      String text = randomText(random, 40);
+      MultiTextMatcher matcher = MultiTextMatcher.of(texts);
+
+      BitSet expected = new BitSet();
+      for (int j = 0; j < texts.size(); j++) {
+        if (text.contains(texts.get(j))) {
+          expected.set(j);
+        }
+      }
+      assertEquals(expected, matcher.findAll(text), texts + " in " + text);
+      assertEquals(expected.isEmpty() ? -1 : expected.nextSetBit(0), matcher.firstInOrder(text));
+      assertEquals(!expected.isEmpty(), matcher.containsAny(text));
+    }
+  }
+
+  private static String randomText(Random random, int maxLength) {
+    StringBuilder text = new StringBuilder();
+    for (int i = random.nextInt(maxLength + 1); i > 0; i--) {
+      // a small alphabet with a char out of ascii, so there are plenty of overlaps
+      text.append("abç".charAt(random.nextInt(3)));
+    }
+    return text.toString();
+  }
+
+  @Test
+  public void testPatternValidation() {
+    FilterFactory factory = new FilterFactory();
+    assertThrows(UnbelievableException.class, () -> factory.create("message ~= timeout.*(pool"));
+    assertThrows(UnbelievableException.class, () -> factory.create("message !~= [a-"));
+
+    // the pattern depends on the entry, so it can only be checked when tested
+    DataFilter interpolated = factory.create("message ~= ^{expected}$");
+    assertTrue(interpolated.test(entry(3)));
+    assertFalse(interpolated.test(entry(9)));
+    assertTrue(interpolated.compile().test(entry(3)));
+  }
+
+}
@@ -24,12 +24,29 @@
 
 package com.backpackcloud.sherlogholmes.model;
 
+import com.backpackcloud.UnbelievableException;
+import com.backpackcloud.sherlogholmes.model.storage.StorageEngine;
+import com.backpackcloud.sherlogholmes.util.QuantileSketch;
 import org.junit.jupiter.api.Test;
 
 import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class DataRegistryTest {
@@ -87,4 +104,740 @@ public class DataRegistryTest {
     assertEquals(0, registry.valuesFor("fooBar").size());
   }
 
+  @Test
+  public void testCompositeCounter() {
+    List<DataEntry> entries = IntStream.range(0, 10_000).mapToObj(this::modelEntry).toList();
+    Counter counter = new Counter();
+    counter.add("level:slow:tags");
+    counter.add("level:slow");
+    counter.add("tags");
+    entries.parallelStream().forEach(counter);
+
+    Map<String, Long> expected = entries.stream()
+      .filter(entry -> entry.attribute("tags").flatMap(Attribute::formattedValue).isPresent())
+      .collect(Collectors.groupingBy(entry -> entry.attribute("level").flatMap(Attribute::formattedValue).orElseThrow()
+        + ":" + entry.attribute("slow").flatMap(Attribute::formattedValue).orElseThrow()
+        + ":" + entry.attribute("tags").flatMap(Attribute::formattedValue).orElseThrow(), Collectors.counting()));
+    assertEquals(expected, counter.counterFor("level:slow:tags").orElseThrow());
+    assertEquals(Map.of("INFO:false", 6857L, "INFO:true", 1714L, "ERROR:false", 1143L, "ERROR:true", 286L),
+      counter.counterFor("level:slow").orElseThrow());
+    assertEquals(Map.of("even", 5000L, "tag-0", 1667L, "tag-1", 1666L, "tag-2", 1667L),
+      counter.counterFor("tags").orElseThrow());
+
+    counter.clear();
+    assertTrue(counter.counterFor("level:slow").orElseThrow().isEmpty());
+  }
+
+  @Test
+  public void testEstimatedCounters() {
+    List<DataEntry> entries = skewedSourceEntries(100_000);
+    Counter counter = new Counter();
+    counter.add("message | distinct");
+    counter.add("source | top 4");
+    entries.parallelStream().forEach(counter);
+
+    CounterEstimate messages = counter.estimateFor("message").orElseThrow();
+    assertEquals(90_909, messages.total());
+    assertEquals(90_909, messages.distinct(), 90_909 * 3 * messages.distinctError());
+    assertTrue(counter.counterFor("message").orElseThrow().isEmpty());
+
+    CounterEstimate sources = counter.estimateFor("source").orElseThrow();
+    assertEquals(Set.of("hot-0", "hot-2", "hot-4", "hot-6"),
+      sources.top().stream().map(estimate -> estimate.value()).collect(Collectors.toSet()));
+    sources.top().forEach(estimate -> {
+      assertTrue(estimate.count() >= 12_500);
+      assertTrue(estimate.count() - estimate.error() <= 12_500);
+      assertTrue(estimate.error() <= 100);
+    });
+    assertEquals(50_000 + 4, sources.distinct(), 50_004 * 3 * sources.distinctError());
+    assertTrue(counter.estimateFor("level").isEmpty());
+
+    assertEquals(CounterSpec.parse("source | top 4 0.001"), counter.specFor("source").orElseThrow());
+    assertEquals(counter.specFor("message"), counter.specFor("message").map(spec -> CounterSpec.parse(spec.toString())));
+    assertThrows(UnbelievableException.class, () -> CounterSpec.parse("level:slow | distinct"));
+    assertThrows(UnbelievableException.class, () -> CounterSpec.parse("level | sometimes"));
+  }
+
+  @Test
+  public void testHistogram() {
+    DataRegistry registry = new DataRegistry(new FilterStack());
+    try (DataRegistry.Ingestion ingestion = registry.ingest()) {
+      IntStream.range(0, 10_000).parallel().mapToObj(this::modelEntry).forEach(ingestion);
+    }
+
+    // three entries per second, from 14:22:00 to 15:17:33
+    Histogram minutes = registry.histogram(ChronoUnit.MINUTES, null);
+    assertEquals(56, minutes.size());
+    assertEquals(LocalDateTime.of(2024, 3, 11, 14, 22), minutes.start(0));
+    assertEquals(180, minutes.total(0));
+    assertEquals(100, minutes.total(55));
+
+    // the counts kept per minute are the same as the ones from going through the entries
+    Histogram split = registry.histogram(ChronoUnit.MINUTES, "level");
+    assertEquals(List.of("INFO", "ERROR"), split.series().keySet().stream().map(String::valueOf).toList());
+    for (int bucket = 0; bucket < minutes.size(); bucket++) {
+      int index = bucket;
+      assertEquals(minutes.total(bucket), split.total(bucket));
+      assertEquals(minutes.total(bucket), split.series().values().stream().mapToLong(counts -> counts[index]).sum());
+    }
+
+    Histogram hours = registry.histogram(ChronoUnit.HOURS, null);
+    assertEquals(2, hours.size());
+    assertEquals(38 * 180, hours.total(0));
+    assertEquals(10_000 - 38 * 180, hours.total(1));
+
+    Histogram seconds = registry.histogram(ChronoUnit.SECONDS, null);
+    assertEquals(3334, seconds.size());
+    assertEquals(1, seconds.total(3333));
+
+    assertThrows(UnbelievableException.class, () -> registry.histogram(ChronoUnit.WEEKS, null));
+
+    // the hours start at the minute zero of the offset of the logs, not of UTC
+    long hour = Histogram.widthOf(ChronoUnit.HOURS);
+    OffsetDateTime offset = OffsetDateTime.of(2024, 3, 11, 16, 15, 0, 0, ZoneOffset.ofHoursMinutes(5, 30));
+    Histogram.Timeline offsetTimeline = Histogram.Timeline.of(offset);
+    long time = offset.toEpochSecond() * 1_000_000_000L;
+    assertEquals(offset.withMinute(0), offsetTimeline.temporalOf(Math.floorDiv(offsetTimeline.nanosOf(time), hour) * hour));
+
+    ZonedDateTime zoned = ZonedDateTime.of(2024, 7, 1, 23, 40, 0, 0, ZoneId.of("America/Sao_Paulo"));
+    Histogram.Timeline zonedTimeline = Histogram.Timeline.of(zoned);
+    long day = Histogram.widthOf(ChronoUnit.DAYS);
+    time = zoned.toEpochSecond() * 1_000_000_000L;
+    assertEquals(zoned.truncatedTo(ChronoUnit.DAYS), zonedTimeline.temporalOf(Math.floorDiv(zonedTimeline.nanosOf(time), day) * day));
+  }
+
+  @Test
+  public void testStats() {
+    DataRegistry kept = new DataRegistry(new FilterStack());
+    kept.addCounter("elapsed | stats");
+    DataRegistry computed = new DataRegistry(new FilterStack());
+    try (DataRegistry.Ingestion keptIngestion = kept.ingest();
+         DataRegistry.Ingestion computedIngestion = computed.ingest()) {
+      IntStream.range(0, 10_000).parallel().mapToObj(this::modelEntry).forEach(entry -> {
+        keptIngestion.accept(entry);
+        computedIngestion.accept(entry);
+      });
+    }
+
+    // half of each line, from 0 to 4999.5
+    QuantileSketch sketch = kept.stats("elapsed");
+    assertEquals(10_000, sketch.count());
+    assertEquals(0, sketch.min());
+    assertEquals(4999.5, sketch.max());
+    assertEquals(2499.75, sketch.mean(), 1e-6);
+    assertEquals(2500, sketch.quantile(0.5), 2500 * 0.011);
+    assertEquals(4950, sketch.quantile(0.99), 4950 * 0.011);
+    assertEquals(4995, sketch.quantile(0.999), 4995 * 0.011);
+
+    // the sketches merged from the threads are the same as the one kept
+    QuantileSketch merged = computed.stats("elapsed");
+    for (double fraction : new double[]{0, 0.1, 0.5, 0.9, 0.99, 0.999, 1}) {
+      assertEquals(sketch.quantile(fraction), merged.quantile(fraction));
+    }
+
+    kept.apply(new FilterFactory().create("level == ERROR"));
+    assertEquals(1429, kept.stats("elapsed").count());
+    assertEquals(4998, kept.stats("elapsed").max());
+
+    QuantileSketch signed = new QuantileSketch();
+    IntStream.rangeClosed(-1000, 1000).forEach(signed::add);
+    assertEquals(0, signed.quantile(0.5));
+    assertEquals(-900, signed.quantile(0.05), 900 * 0.011);
+    assertEquals(900, signed.quantile(0.95), 900 * 0.011);
+    assertEquals(-1000, signed.quantile(0));
+    assertEquals(1000, signed.quantile(1));
+
+    signed.add(Double.POSITIVE_INFINITY);
+    signed.add(Double.NEGATIVE_INFINITY);
+    signed.add(Double.NaN);
+    assertEquals(2001, signed.count());
+    assertEquals(0, signed.mean());
+    signed.add(Double.MAX_VALUE);
+    assertEquals(Double.MAX_VALUE, signed.max());
+
+    // a decimal may be parsed as an infinity, which must not stop the ingestion
+    DataRegistry infinite = new DataRegistry(new FilterStack());
+    infinite.addCounter("elapsed | stats");
+    try (DataRegistry.Ingestion ingestion = infinite.ingest()) {
+      for (int line = 0; line < 10; line++) {
+        DataEntry entry = modelEntry(line);
+        if (line == 5) {
+          entry.attribute("elapsed").ifPresent(attr -> attr.assignFromInput("Infinity"));
+        }
+        ingestion.accept(entry);
+      }
+    }
+    assertEquals(10, infinite.size());
+    assertEquals(9, infinite.stats("elapsed").count());
+  }
+
+  @Test
+  public void testGroupBy() {
+    List<DataEntry> entries = skewedSourceEntries(20_000);
+
+    GroupBy.Result counts = new GroupBy(List.of("level", "slow"), GroupBy.Aggregation.COUNT, 1_000_000)
+      .aggregate(entries);
+    Counter counter = new Counter();
+    counter.add("level:slow");
+    entries.forEach(counter);
+    assertFalse(counts.approximate());
+    assertEquals(counter.counterFor("level:slow").orElseThrow(), counts.groups().stream()
+      .collect(Collectors.toMap(GroupBy.Group::name, GroupBy.Group::count)));
+
+    GroupBy.Result averages = new GroupBy(List.of("level"), GroupBy.Aggregation.parse("avg(elapsed)"), 1_000_000)
+      .aggregate(entries);
+    Map<String, Double> expected = entries.stream().collect(Collectors.groupingBy(
+      entry -> entry.attribute("level").flatMap(Attribute::formattedValue).orElseThrow(),
+      Collectors.averagingDouble(entry -> entry.attribute("elapsed", Double.class)
+        .flatMap(Attribute::value).orElseThrow())));
+    averages.groups().forEach(group -> assertEquals(expected.get(group.name()), group.value(), 1e-6));
+
+    GroupBy.Result distinct = new GroupBy(List.of("tags"), GroupBy.Aggregation.parse("distinct(level)"), 1_000_000)
+      .aggregate(entries);
+    assertEquals(List.of(2.0, 2.0, 2.0, 2.0), distinct.groups().stream().map(GroupBy.Group::value).toList());
+
+    // most values land in a couple of tables, which is fine as long as all of them fit the limit
+    GroupBy.Result lines = new GroupBy(List.of("level"), GroupBy.Aggregation.parse("distinct(line)"), 25_000)
+      .aggregate(entries);
+    assertFalse(lines.approximate());
+    assertEquals(List.of(17_142.0, 2_858.0), lines.groups().stream().map(GroupBy.Group::value).toList());
+
+    // too many distinct values for the limit, so they are estimated instead of dropping groups
+    GroupBy.Result estimated = new GroupBy(List.of("level"), GroupBy.Aggregation.parse("distinct(line)"), 1_000)
+      .aggregate(entries);
+    assertTrue(estimated.approximate());
+    assertTrue(estimated.estimated());
+    assertEquals(0, estimated.floor());
+    assertEquals(17_142, estimated.groups().get(0).value(), 17_142 * 0.1);
+    assertEquals(2_858, estimated.groups().get(1).value(), 2_858 * 0.1);
+    assertEquals(17_142, estimated.groups().get(0).count());
+
+    // too many groups for the limit, only the largest ones are kept
+    GroupBy.Result sources = new GroupBy(List.of("source"), GroupBy.Aggregation.COUNT, 1)
+      .aggregate(entries);
+    assertTrue(sources.approximate());
+    assertEquals(Set.of("hot-0", "hot-2", "hot-4", "hot-6"),
+      sources.groups().subList(0, 4).stream().map(GroupBy.Group::name).collect(Collectors.toSet()));
+    sources.groups().subList(0, 4).forEach(group -> {
+      assertTrue(group.count() <= 2500);
+      assertTrue(group.count() + group.error() >= 2500);
+    });
+
+    assertThrows(UnbelievableException.class, () -> GroupBy.Aggregation.parse("sum"));
+    assertThrows(UnbelievableException.class, () -> GroupBy.Aggregation.parse("median(elapsed)"));
+  }
+
+  private final DataModel model = new DataModel("test", null, null)
+    .add("timestamp", AttributeSpec.create("datetime"))
+    .add("source", AttributeSpec.create("text"))
+    .add("line", AttributeSpec.create("number"))
+    .add("level", AttributeSpec.create("enum | DEBUG,INFO,WARN,ERROR"))
+    .add("elapsed", AttributeSpec.create("decimal"))
+    .add("slow", AttributeSpec.create("flag"))
+    .add("tags", AttributeSpec.create("text[]"))
+    .add("message", AttributeSpec.create("text"));
+
+  private DataEntry modelEntry(int line) {
+    DataEntry entry = model.create();
+    entry.attribute("timestamp").ifPresent(attr -> attr.assignFromInput(
+      LocalDateTime.of(2024, 3, 11, 14, 22).plusSeconds(line / 3).toString()
+    ));
+    entry.attribute("source").ifPresent(attr -> attr.assignFromInput("server.log"));
+    entry.attribute("line").ifPresent(attr -> attr.assignFromInput(String.valueOf(line)));
+    entry.attribute("level").ifPresent(attr -> attr.assignFromInput(line % 7 == 0 ? "ERROR" : "INFO"));
+    entry.attribute("elapsed").ifPresent(attr -> attr.assignFromInput(String.valueOf(line * 0.5)));
+    entry.attribute("slow").ifPresent(attr -> attr.assignFromInput(String.valueOf(line % 5 == 0)));
+    if (line % 2 == 0) {
+      entry.attribute("tags").ifPresent(attr -> {
+        attr.assignFromInput("even");
+        attr.assignFromInput("tag-" + line % 3);
+      });
+    }
+    if (line % 11 != 0) {
+      entry.attribute("message").ifPresent(attr -> attr.assignFromInput("message " + line));
+    }
+    return entry;
+  }
+
+  // half of the entries share a few hot sources and the rest are all different
+  private List<DataEntry> skewedSourceEntries(int count) {
+    return IntStream.range(0, count).mapToObj(line -> {
+      DataEntry entry = modelEntry(line);
+      String source = line % 2 == 0 ? "hot-" + line % 8 : "cold-" + line;
+      entry.attribute("source").ifPresent(attr -> attr.assignFromInput(source));
+      return entry;
+    }).toList();
+  }
+
+  @Test
+  public void testColumnarStorage() {
+    DataRegistry objects = new DataRegistry(new FilterStack());
+    DataRegistry columnar = new DataRegistry(new FilterStack());
+    columnar.useEngine(StorageEngine.COLUMNAR);
+
+    for (DataRegistry registry : List.of(objects, columnar)) {
+      registry.addCounter("level");
+      // out of order and with a repeated entry, which is kept only once
+      for (int i = 500; i > 0; i--) {
+        registry.add(modelEntry(i));
+      }
+      registry.add(modelEntry(42));
+    }
+
+    assertEquals(500, columnar.size());
+    assertEquals(objects.entries().toList(), columnar.entries().toList());
+    assertEquals(objects.tail(10).toList(), columnar.tail(10).toList());
+    assertEquals(objects.head(2, ChronoUnit.SECONDS).toList(), columnar.head(2, ChronoUnit.SECONDS).toList());
+    assertEquals(objects.duration(), columnar.duration());
+    assertEquals(objects.counter("level").get("ERROR"), columnar.counter("level").get("ERROR"));
+
+    DataFilter errors = new BaseDataFilter("level", Operation.EQUAL, "ERROR");
+    objects.apply(errors);
+    columnar.apply(errors);
+    assertEquals(71, columnar.size());
+    assertEquals(objects.entries().toList(), columnar.entries().toList());
+
+    // the entries are views of the stored rows
+    columnar.entries().forEach(entry -> entry.attribute("message").ifPresent(attr -> attr.assignFromInput("changed")));
+    objects.removeFilter();
+    columnar.removeFilter();
+    assertEquals(71, columnar.entries()
+      .filter(entry -> entry.attribute("message").flatMap(Attribute::value).filter("changed"::equals).isPresent())
+      .count());
+
+    columnar.useEngine(StorageEngine.OBJECTS);
+    assertEquals(500, columnar.size());
+    assertEquals(objects.tail(1).toList(), columnar.tail(1).toList());
+  }
+
+  @Test
+  public void testIngestion() throws InterruptedException {
+    for (StorageEngine engine : StorageEngine.values()) {
+      DataRegistry expected = new DataRegistry(new FilterStack());
+      DataRegistry registry = new DataRegistry(new FilterStack());
+      expected.useEngine(engine);
+      registry.useEngine(engine);
+      registry.addCounter("level");
+
+      try (DataRegistry.Ingestion ingestion = registry.ingest()) {
+        // two "files" ingested at the same time, each one in order
+        Thread first = Thread.ofVirtual().start(() -> {
+          for (int i = 1; i <= 300; i += 2) {
+            ingestion.accept(modelEntry(i));
+          }
+        });
+        Thread second = Thread.ofVirtual().start(() -> {
+          for (int i = 2; i <= 300; i += 2) {
+            ingestion.accept(modelEntry(i));
+          }
+        });
+        first.join();
+        second.join();
+        // nothing is visible until the ingestion is done
+        assertTrue(registry.isEmpty());
+      }
+      for (int i = 1; i <= 300; i++) {
+        expected.add(modelEntry(i));
+      }
+
+      assertEquals(300, registry.size());
+      assertEquals(expected.entries().toList(), registry.entries().toList());
+      assertEquals(42L, registry.counter("level").get("ERROR"));
+
+      // later entries are merged into the ordered ones
+      registry.add(modelEntry(0));
+      registry.add(modelEntry(150));
+      expected.add(modelEntry(0));
+      assertEquals(301, registry.size());
+      assertEquals(expected.entries().toList(), registry.entries().toList());
+    }
+  }
+
+  private DataEntry orderedEntry(Object timestamp, String source, Integer line) {
+    DataEntry entry = new DataEntry();
+    if (timestamp != null) {
+      entry.addAttribute("timestamp", timestamp);
+    }
+    entry.addAttribute("source", source);
+    if (line != null) {
+      entry.addAttribute("line", line);
+    }
+    return entry;
+  }
+
+  @Test
+  public void testClearWithPushedFilter() {
+    FilterStack stack = new FilterStack();
+    DataRegistry registry = new DataRegistry(stack);
+    Dictionary dictionary = registry.dictionary();
+    DataModel levels = new DataModel("levels", null, null, dictionary)
+      .add("line", AttributeSpec.create("number"))
+      .add("level", AttributeSpec.create("enum | INFO,ERROR", dictionary));
+    stack.push(new FilterFactory().create("level == ERROR"));
+
+    // the pushed filter holds the instances of the dictionary from before it was cleared
+    for (int round = 0; round < 3; round++) {
+      for (int i = 0; i < 4; i++) {
+        DataEntry entry = levels.create();
+        String line = String.valueOf(i);
+        // parsed from the lines, so never the same instance twice
+        String level = new String(i % 2 == 0 ? "ERROR" : "INFO");
+        entry.attribute("line").ifPresent(attr -> attr.assignFromInput(line));
+        entry.attribute("level").ifPresent(attr -> attr.assignFromInput(level));
+        registry.add(entry);
+      }
+      assertEquals(2, registry.size(), "round " + round);
+      registry.clear();
+    }
+  }
+
+  @Test
+  public void testOrdering() {
+    DataRegistry registry = new DataRegistry(new FilterStack());
+    LocalDateTime now = LocalDateTime.of(2024, 3, 11, 14, 22);
+    DataEntry third = orderedEntry(now.plusNanos(1), "a.log", 1);
+    DataEntry first = orderedEntry(now, "b.log", 9);
+    DataEntry second = orderedEntry(now, "b.log", 10);
+    DataEntry fourth = orderedEntry(now.plusDays(1), "a.log", 2);
+    registry.add(third);
+    registry.add(fourth);
+    registry.add(second);
+    registry.add(first);
+    assertEquals(List.of(first, second, third, fourth), registry.entries().toList());
+
+    // with only the time of the day, the source and the line come first, unless missing
+    registry.clear();
+    LocalTime time = LocalTime.of(10, 0);
+    DataEntry b = orderedEntry(time, "b.log", 1);
+    DataEntry a2 = orderedEntry(time.minusHours(1), "a.log", 2);
+    DataEntry a1 = orderedEntry(time, "a.log", 1);
+    DataEntry noLine = orderedEntry(time.minusHours(2), "a.log", null);
+    registry.add(b);
+    registry.add(a2);
+    registry.add(a1);
+    registry.add(noLine);
+    assertEquals(List.of(noLine, a1, a2, b), registry.entries().toList());
+
+    // the encoded values go away with the entries
+    registry.dictionary().code("a.log");
+    registry.clear();
+    assertEquals(0, registry.dictionary().size());
+    assertEquals(-1, registry.dictionary().find("a.log"));
+  }
+
+  @Test
+  public void testPositions() {
+    for (StorageEngine engine : StorageEngine.values()) {
+      DataRegistry registry = new DataRegistry(new FilterStack());
+      registry.useEngine(engine);
+      for (int i = 1000; i > 0; i--) {
+        registry.add(modelEntry(i));
+      }
+      List<DataEntry> entries = registry.entries().toList();
+
+      assertEquals(entries.subList(0, 10), registry.head(10).toList());
+      assertEquals(entries.subList(980, 1000), registry.tail(20).toList());
+      assertEquals(entries, registry.tail(2000).toList());
+      assertEquals(entries.subList(500, 520), registry.page(500, 20));
+      assertEquals(entries.subList(990, 1000), registry.page(-10, 20));
+      assertTrue(registry.page(1000, 20).isEmpty());
+
+      registry.setLimit(new Limit(100, Limit.Position.TAIL));
+      assertEquals(entries.subList(900, 1000), registry.list());
+      assertEquals(entries.subList(900, 910), registry.page(0, 10));
+      assertEquals(registry.entries().toList(), registry.list());
+    }
+  }
+
+  @Test
+  public void testTimeRanges() {
+    LocalDateTime start = LocalDateTime.of(2024, 3, 11, 14, 22);
+    for (StorageEngine engine : StorageEngine.values()) {
+      DataRegistry registry = new DataRegistry(new FilterStack());
+      registry.useEngine(engine);
+      // three entries per second
+      for (int i = 300; i > 0; i--) {
+        registry.add(modelEntry(i));
+      }
+      List<DataEntry> entries = registry.entries().toList();
+
+      assertEquals(entries.subList(0, 8), registry.head(2, ChronoUnit.SECONDS).toList());
+      assertEquals(entries.subList(296, 300), registry.tail(1, ChronoUnit.SECONDS).toList());
+      assertEquals(entries.subList(29, 35), registry.between(start.plusSeconds(10), start.plusSeconds(11)).toList());
+      assertTrue(registry.between(start.plusDays(1), start.plusDays(2)).toList().isEmpty());
+
+      registry.setLimit(new Limit(1, ChronoUnit.SECONDS, Limit.Position.TAIL));
+      assertEquals(entries.subList(296, 300), registry.list());
+
+      // without a timestamp in every entry, the entries are filtered instead of searched
+      registry.clearLimit();
+      DataEntry untimed = new DataEntry();
+      untimed.addAttribute("source", "server.log");
+      untimed.addAttribute("line", 1000);
+      registry.add(untimed);
+      assertEquals(entries.subList(29, 35), registry.between(start.plusSeconds(10), start.plusSeconds(11)).toList());
+    }
+  }
+
+  @Test
+  public void testFilteredView() {
+    DataRegistry registry = new DataRegistry(new FilterStack());
+    registry.addCounter("level");
+    // enough entries to need more than one container of positions
+    for (int i = 1; i <= 140_000; i++) {
+      registry.add(modelEntry(i));
+    }
+    List<DataEntry> entries = registry.entries().toList();
+
+    // dense enough to keep the positions as bits
+    DataFilter errors = new BaseDataFilter("level", Operation.EQUAL, "ERROR");
+    registry.apply(errors);
+    List<DataEntry> expected = entries.stream().filter(errors).toList();
+    assertEquals(20_000, registry.size());
+    assertEquals(expected, registry.entries().toList());
+    assertEquals(expected.subList(19_990, 20_000), registry.tail(10).toList());
+    assertEquals(expected.subList(9_000, 9_050), registry.page(9_000, 50));
+    assertEquals(expected.get(12_345), registry.list().get(12_345));
+    assertEquals(20_000L, registry.counter("level").get("ERROR"));
+    assertFalse(registry.counter("level").containsKey("INFO"));
+
+    // sparse enough to keep the positions in arrays
+    DataFilter slow = new BaseDataFilter("line", Operation.GREATER_THAN, "139900");
+    registry.apply(slow);
+    assertEquals(entries.subList(139_900, 140_000), registry.entries().toList());
+    assertEquals(entries.get(139_950), registry.page(50, 1).getFirst());
+
+    // entries added after the filter show up in the view
+    registry.add(modelEntry(140_001));
+    assertEquals(101, registry.size());
+    assertTrue(registry.hasFilter());
+
+    registry.removeFilter();
+    assertEquals(140_001, registry.size());
+  }
+
+  @Test
+  public void testNarrowingFilters() {
+    FilterStack stack = new FilterStack();
+    DataRegistry registry = new DataRegistry(stack);
+    for (int i = 1; i <= 70_000; i++) {
+      registry.add(modelEntry(i));
+    }
+    List<DataEntry> entries = registry.entries().toList();
+
+    AtomicInteger tested = new AtomicInteger();
+    DataFilter even = new DataFilter() {
+      @Override
+      public boolean test(DataEntry entry) {
+        tested.incrementAndGet();
+        return entry.attribute("line")
+          .flatMap(Attribute::formattedValue)
+          .map(line -> Integer.parseInt(line) % 2 == 0)
+          .orElse(false);
+      }
+
+      @Override
+      public DataFilter or(DataFilter other) {
+        return new CompositeFilter(this, other, CompositeFilter.BooleanOperation.OR);
+      }
+
+      @Override
+      public DataFilter and(DataFilter other) {
+        return new CompositeFilter(this, other, CompositeFilter.BooleanOperation.AND);
+      }
+
+      @Override
+      public DataFilter negate() {
+        throw new UnsupportedOperationException();
+      }
+    };
+
+    DataFilter errors = new BaseDataFilter("level", Operation.EQUAL, "ERROR");
+    stack.push(errors);
+    registry.apply(stack.filter());
+    assertEquals(10_000, registry.size());
+
+    // only the entries that passed the first filter, plus the sample for the estimates
+    stack.push(even);
+    registry.apply(stack.filter());
+    assertTrue(tested.get() < 20_000, "tested " + tested.get());
+    assertEquals(5_000, registry.size());
+    assertEquals(entries.stream().filter(errors.and(even)).toList(), registry.entries().toList());
+
+    stack.pop();
+    registry.apply(stack.filter());
+    assertEquals(entries.stream().filter(errors).toList(), registry.entries().toList());
+
+    // the same condition typed again still narrows the entries already filtered
+    tested.set(0);
+    registry.apply(even.and(new BaseDataFilter("level", Operation.EQUAL, "ERROR")));
+    assertTrue(tested.get() < 20_000, "tested " + tested.get());
+    assertEquals(entries.stream().filter(errors.and(even)).toList(), registry.entries().toList());
+  }
+
+  @Test
+  public void testFilterCache() {
+    DataRegistry registry = new DataRegistry(new FilterStack());
+    for (int i = 1; i <= 70_000; i++) {
+      registry.add(modelEntry(i));
+    }
+    DataFilter errors = new BaseDataFilter("level", Operation.EQUAL, "ERROR");
+    DataFilter slow = new BaseDataFilter("slow", Operation.EQUAL, "true");
+
+    registry.apply(errors.and(slow));
+    List<DataEntry> expected = registry.entries().toList();
+    assertEquals(2_000, expected.size());
+    registry.apply(errors);
+    assertEquals(0, registry.filterCache().hits());
+
+    // the same conditions, combined in another order
+    registry.apply(new BaseDataFilter("slow", Operation.EQUAL, "true").and(errors).and(slow));
+    assertEquals(1, registry.filterCache().hits());
+    assertEquals(expected, registry.entries().toList());
+    assertTrue(registry.filterCache().memory() > 0);
+
+    registry.apply(errors.or(slow));
+    assertEquals(1, registry.filterCache().hits());
+
+    // the entries are added to the results, so they can't come from the cache
+    registry.add(modelEntry(70_000 + 7 * 5));
+    assertEquals(0, registry.filterCache().size());
+    registry.apply(slow.and(errors));
+    assertEquals(1, registry.filterCache().hits());
+    assertEquals(2_001, registry.size());
+  }
+
+  @Test
+  public void testFilterCacheFootprint() {
+    DataRegistry registry = new DataRegistry(new FilterStack());
+    registry.addCounter("slow");
+    for (int i = 1; i <= 70_000; i++) {
+      registry.add(modelEntry(i));
+    }
+    DataFilter errors = new BaseDataFilter("level", Operation.EQUAL, "ERROR");
+
+    registry.apply(errors);
+    long positions = registry.filterCache().memory();
+    assertTrue(positions > 0);
+
+    // counted from the index after the results were kept
+    assertEquals(2, registry.counter("slow").size());
+    long counted = registry.filterCache().memory();
+    assertTrue(counted > positions);
+
+    // the estimated counters are kept in the results themselves
+    registry.addCounter("message | distinct");
+    registry.apply(errors);
+    assertEquals(1, registry.filterCache().size());
+    assertTrue(registry.filterCache().memory() > counted);
+  }
+
+  @Test
+  public void testTokenIndex() {
+    DataModel indexed = new DataModel("indexed", null, null)
+      .add("line", AttributeSpec.create("number"))
+      .add("level", AttributeSpec.create("enum | INFO,ERROR"))
+      .add("message", AttributeSpec.create("text | indexed"));
+    DataRegistry registry = new DataRegistry(new FilterStack());
+    try (DataRegistry.Ingestion ingestion = registry.ingest()) {
+      for (int i = 1; i <= 100_000; i++) {
+        DataEntry entry = indexed.create();
+        int line = i;
+        entry.attribute("line").ifPresent(attr -> attr.assignFromInput(String.valueOf(line)));
+        entry.attribute("level").ifPresent(attr -> attr.assignFromInput(line % 13 == 0 ? "ERROR" : "INFO"));
+        entry.attribute("message").ifPresent(attr -> attr.assignFromInput(line % 13 == 0
+          ? "ConnectionReset by peer id=" + line
+          : "Request " + line + " served in " + line % 100 + "ms"));
+        ingestion.accept(entry);
+      }
+    }
+    assertTrue(registry.tokenIndexes().containsKey("message"));
+    assertTrue(registry.tokenIndexes().get("message").footprint() > 0);
+
+    List<DataEntry> entries = registry.entries().toList();
+    FilterFactory factory = new FilterFactory();
+    List<String> expressions = List.of(
+      "message % ConnectionReset",
+      "message % nectionRes",
+      "message % Reset by p",
+      "message % id=13",
+      "message % 5 served in 4",
+      "message % ms",
+      "message % =",
+      "message % nowhere to be found",
+      "message !% Reset"
+    );
+    for (String expression : expressions) {
+      DataFilter filter = factory.create(expression);
+      registry.apply(filter);
+      assertEquals(entries.stream().filter(filter).toList(), registry.entries().toList(), expression);
+    }
+
+    DataFilter either = factory.create("message % peer").or(factory.create("message % served in 7ms"));
+    registry.apply(either);
+    assertEquals(entries.stream().filter(either).toList(), registry.entries().toList());
+
+    // the index is rebuilt once new entries are searched
+    DataEntry late = indexed.create();
+    late.attribute("line").ifPresent(attr -> attr.assignFromInput("100001"));
+    late.attribute("message").ifPresent(attr -> attr.assignFromInput("late ConnectionReset"));
+    registry.add(late);
+    registry.apply(factory.create("message % ConnectionReset").and(factory.create("line > 99990")));
+    assertEquals(List.of(entries.get(99_995), late), registry.entries().toList());
+  }
+
+  @Test
+  public void testValueIndexes() {
+    DataRegistry registry = new DataRegistry(new FilterStack());
+    registry.addCounter("tags");
+    registry.addCounter("slow");
+    try (DataRegistry.Ingestion ingestion = registry.ingest()) {
+      // enough entries to need more than one container of positions
+      for (int i = 1; i <= 140_000; i++) {
+        ingestion.accept(modelEntry(i));
+      }
+    }
+    assertEquals(Set.of("level", "tags", "slow"), registry.valueIndexes().keySet());
+
+    List<DataEntry> entries = registry.entries().toList();
+    FilterFactory factory = new FilterFactory();
+    DataFilter errors = factory.create("level == ERROR");
+    DataFilter even = factory.create("tags == even");
+    DataFilter slow = factory.create("slow == true");
+    List<DataFilter> filters = List.of(
+      errors,
+      errors.negate(),
+      even,
+      even.negate(),
+      factory.create("tags *"),
+      factory.create("tags !*"),
+      errors.and(even),
+      errors.and(even).negate(),
+      errors.or(slow).and(even.negate()),
+      // only partially answered by the indexes
+      errors.and(factory.create("message !*")),
+      errors.or(factory.create("message !*"))
+    );
+    for (DataFilter filter : filters) {
+      registry.apply(filter);
+      assertEquals(entries.stream().filter(filter).toList(), registry.entries().toList());
+    }
+
+    // counted from the intersections with the filtered entries
+    registry.apply(errors.and(slow.negate()));
+    Map<Object, Long> expected = registry.entries()
+      .flatMap(entry -> entry.attribute("tags").stream().flatMap(Attribute::values))
+      .collect(Collectors.groupingBy(value -> value, Collectors.counting()));
+    Map<?, Long> counted = registry.counter("tags");
+    assertEquals(expected.keySet(), counted.keySet());
+    expected.forEach((value, count) -> assertEquals(count, counted.get(value)));
+    // kept until the entries change
+    assertSame(counted, registry.counter("tags"));
+
+    // a few positions against a lot of them
+    registry.apply(factory.create("line == 5").or(factory.create("line == 65540")).or(factory.create("line == 131075")));
+    assertEquals(Map.of("true", 3L), registry.counter("slow").entrySet().stream()
+      .collect(Collectors.toMap(entry -> entry.getKey().toString(), Map.Entry::getValue)));
+  }
+
 }
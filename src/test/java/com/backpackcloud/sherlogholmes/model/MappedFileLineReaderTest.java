@@ -0,0 +1,203 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Marcelo "Ataxexe" Guimarães
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.backpackcloud.sherlogholmes.model;
+
+import com.backpackcloud.preferences.UserPreferences;
+import com.backpackcloud.sherlogholmes.model.parsers.CsvDataParser;
+import com.backpackcloud.sherlogholmes.model.parsers.RegexDataParser;
+import com.backpackcloud.sherlogholmes.model.readers.FileLineReader;
+import com.backpackcloud.sherlogholmes.model.readers.MappedFileLineReader;
+import com.backpackcloud.sherlogholmes.model.steps.AttributeReplaceStep;
+import com.backpackcloud.sherlogholmes.model.steps.AttributeSetStep;
+import com.backpackcloud.sherlogholmes.model.steps.RegexMapperStep;
+import com.backpackcloud.sherlogholmes.util.ByteSearch;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class MappedFileLineReaderTest {
+
+  @TempDir
+  Path directory;
+
+  private List<String> read(DataReader<String> reader, Path file) {
+    List<String> result = new ArrayList<>();
+    reader.read(file.toString(), (metadata, line) ->
+      result.add(metadata.source() + ":" + metadata.line() + ":" + line));
+    return result;
+  }
+
+  private Path write(String content) throws IOException {
+    Path file = directory.resolve("test.log");
+    Files.writeString(file, content, StandardCharsets.UTF_8);
+    return file;
+  }
+
+  @Test
+  public void testSameLinesAsFileLineReader() throws IOException {
+    StringBuilder content = new StringBuilder();
+    for (int i = 0; i < 1000; i++) {
+      content.append("2022-09-26T20:59:24 INFO [chat] (room-").append(i).append(") ação número ").append(i);
+      content.append(i % 7 == 0 ? "\r\n" : "\n");
+      if (i % 13 == 0) {
+        content.append("\n");
+      }
+    }
+    content.append("last line without a line break");
+    Path file = write(content.toString());
+
+    List<String> expected = read(new FileLineReader(StandardCharsets.UTF_8), file);
+
+    assertEquals(expected, read(new MappedFileLineReader(StandardCharsets.UTF_8, 1, 3), file));
+    assertEquals(expected, read(new MappedFileLineReader(StandardCharsets.UTF_8, 100, 4), file));
+    assertEquals(expected, read(new MappedFileLineReader(StandardCharsets.UTF_8), file));
+  }
+
+  @Test
+  public void testByteSearch() {
+    Random random = new Random(42);
+    for (int i = 0; i < 500; i++) {
+      // a small alphabet, so there are plenty of partial matches
+      byte[] text = new byte[random.nextInt(300)];
+      for (int j = 0; j < text.length; j++) {
+        text[j] = (byte) ('a' + random.nextInt(3));
+      }
+      String content = new String(text, StandardCharsets.ISO_8859_1);
+      String needle = content.isEmpty() || random.nextBoolean()
+        ? "abcab".substring(0, 1 + random.nextInt(5))
+        : content.substring(random.nextInt(content.length()), content.length());
+      ByteSearch search = ByteSearch.of(needle, StandardCharsets.ISO_8859_1);
+      int from = Math.min(text.length, random.nextInt(10));
+
+      assertEquals(content.indexOf(needle, from), search.indexOf(text, from, text.length), needle + " in " + content);
+    }
+  }
+
+  @Test
+  public void testPrefilter() throws IOException {
+    StringBuilder content = new StringBuilder();
+    for (int i = 0; i < 1000; i++) {
+      content.append("2022-09-26T20:59:24 ").append(i % 3 == 0 ? "ERROR" : "INFO");
+      content.append(" (room-").append(i % 10).append(") ação número ").append(i);
+      content.append(i == 500 ? " \u001B[0m" : "").append("\n");
+    }
+    Path file = write(content.toString());
+    FilterFactory factory = new FilterFactory();
+    DataFilter filter = factory.create("level % ERROR")
+      .and(factory.create("room % room-1").or(factory.create("room % room-2")))
+      .and(factory.create("line > 10"));
+    DataModel model = new DataModel("test", null, null)
+      .add("level", AttributeSpec.create("text"))
+      .add("room", AttributeSpec.create("text | dictionary"))
+      .add("number", AttributeSpec.create("number"))
+      .add("message", AttributeSpec.create("text"));
+    Pattern pattern = Pattern.compile("(?<level>[A-Z]+) \\((?<room>[^)]+)\\) ação número (?<number>\\d+)");
+    Pipeline pipeline = pipeline(new RegexDataParser("test", model, pattern, false));
+    LinePrefilter prefilter = LinePrefilter.of(filter, pipeline, StandardCharsets.UTF_8);
+
+    List<String> expected = read(new FileLineReader(StandardCharsets.UTF_8, prefilter), file);
+    // 1 in 3 lines have the level, 1 in 5 the room, plus the one with an escape sequence
+    assertEquals(66 + 1, expected.size());
+    assertTrue(expected.contains("test.log:13:2022-09-26T20:59:24 ERROR (room-2) ação número 12"));
+    assertTrue(expected.contains("test.log:501:2022-09-26T20:59:24 INFO (room-0) ação número 500 \u001B[0m"));
+    assertEquals(expected, read(new MappedFileLineReader(StandardCharsets.UTF_8, 100, 3, prefilter), file));
+
+    assertTrue(LinePrefilter.of(factory.create("level % ERROR").or(factory.create("line > 10")), pipeline, StandardCharsets.UTF_8)
+      .isEmpty());
+    // set by the pipeline, formatted from the value or not captured at all
+    assertTrue(LinePrefilter.of(factory.create("source % test"), pipeline, StandardCharsets.UTF_8).isEmpty());
+    assertTrue(LinePrefilter.of(factory.create("number % 12"), pipeline, StandardCharsets.UTF_8).isEmpty());
+    assertTrue(LinePrefilter.of(factory.create("message % número"), pipeline, StandardCharsets.UTF_8).isEmpty());
+  }
+
+  @Test
+  public void testPrefilterWithSteps() {
+    DataModel model = new DataModel("test", null, null)
+      .add("level", AttributeSpec.create("text"))
+      .add("thread", AttributeSpec.create("text"))
+      .add("summary", AttributeSpec.create("text"));
+    RegexDataParser parser = new RegexDataParser("test", model,
+      Pattern.compile("(?<level>\\w+) (?<thread>\\w+) (?<summary>.+)"), false);
+    FilterFactory factory = new FilterFactory();
+    String line = "ERROR main boom";
+
+    // the assigned value is made of parts of the line, but isn't in it
+    Pipeline assigned = pipeline(parser, new AttributeSetStep(Map.of("summary", "{level}-{thread}")));
+    LinePrefilter prefilter = LinePrefilter.of(factory.create("summary % ERROR-main"), assigned, StandardCharsets.UTF_8);
+    assertTrue(prefilter.isEmpty());
+    assertTrue(prefilter.test(line));
+    // the attributes no step touches still tell
+    assertFalse(LinePrefilter.of(factory.create("level % ERROR"), assigned, StandardCharsets.UTF_8).isEmpty());
+
+    Pipeline replaced = pipeline(parser, PipelineStep.create(factory.create("level == ERROR"),
+      null, null, null, null, new AttributeReplaceStep("thread", "main", "worker"), null, null));
+    assertTrue(LinePrefilter.of(factory.create("thread % worker"), replaced, StandardCharsets.UTF_8).isEmpty());
+
+    Pipeline mapped = pipeline(parser, RegexMapperStep.create("summary", "(?<level>\\w+)"));
+    assertTrue(LinePrefilter.of(factory.create("level % boom"), mapped, StandardCharsets.UTF_8).isEmpty());
+
+    // a step that can't tell what it assigns may assign anything
+    Pipeline unknown = pipeline(parser, entry -> {});
+    assertTrue(LinePrefilter.of(factory.create("level % ERROR"), unknown, StandardCharsets.UTF_8).isEmpty());
+
+    // the values of the other parsers may be decoded from escapes
+    Pipeline csv = pipeline(new CsvDataParser("test", model, false, new String[]{"level", "thread", "summary"}));
+    assertTrue(LinePrefilter.of(factory.create("level % ERROR"), csv, StandardCharsets.UTF_8).isEmpty());
+  }
+
+  private Pipeline pipeline(DataParser parser, PipelineStep... steps) {
+    return new Pipeline("test", parser, List.of(steps), mock(UserPreferences.class));
+  }
+
+  @Test
+  public void testEmptyFile() throws IOException {
+    Path file = write("");
+
+    assertTrue(read(new MappedFileLineReader(StandardCharsets.UTF_8, 16, 2), file).isEmpty());
+  }
+
+  @Test
+  public void testSplittableCharsets() {
+    assertTrue(MappedFileLineReader.isSplittable(StandardCharsets.UTF_8));
+    assertTrue(MappedFileLineReader.isSplittable(StandardCharsets.ISO_8859_1));
+    assertTrue(MappedFileLineReader.isSplittable(StandardCharsets.US_ASCII));
+    assertFalse(MappedFileLineReader.isSplittable(StandardCharsets.UTF_16));
+  }
+
+}
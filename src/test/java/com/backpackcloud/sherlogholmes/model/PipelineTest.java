@@ -0,0 +1,158 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Marcelo "Ataxexe" Guimarães
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.backpackcloud.sherlogholmes.model;
+
+import com.backpackcloud.preferences.UserPreferences;
+import com.backpackcloud.sherlogholmes.model.parsers.RegexDataParser;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class PipelineTest {
+
+  private final DataModel model = new DataModel("test", null, null)
+    .add("level", new AttributeSpec<>(AttributeType.enumOf("DEBUG", "INFO", "WARN", "ERROR"), false))
+    .add("message", new AttributeSpec<>(AttributeType.text(), false));
+
+  private final Pattern pattern = Pattern.compile("(?<level>[A-Z]+) (?<message>.+)", Pattern.DOTALL);
+
+  private final List<String> lines = new ArrayList<>();
+
+  {
+    for (int i = 1; i <= 1000; i++) {
+      lines.add(i % 10 == 0 ? "  at line " + i : (i % 3 == 0 ? "WARN" : "INFO") + " message " + i);
+    }
+  }
+
+  private final DataReader<List<String>> reader = (location, consumer) -> {
+    for (int i = 0; i < location.size(); i++) {
+      consumer.accept(new Metadata("test", i + 1), location.get(i));
+    }
+  };
+
+  private Pipeline pipeline(boolean multiline) {
+    return new Pipeline("test", new RegexDataParser("test", model, pattern, multiline), List.of(), mock(UserPreferences.class));
+  }
+
+  private List<DataEntry> run(Pipeline pipeline, IngestionSettings settings) {
+    List<DataEntry> result = Collections.synchronizedList(new ArrayList<>());
+    pipeline.run(reader, lines, settings, result::add);
+    return result;
+  }
+
+  private List<String> describe(List<DataEntry> entries) {
+    List<String> result = new ArrayList<>();
+    entries.forEach(entry -> result.add(
+      entry.attribute("line").flatMap(Attribute::value).orElseThrow() + "|" +
+        entry.attribute("level").flatMap(Attribute::value).orElseThrow() + "|" +
+        entry.attribute("message").flatMap(Attribute::value).orElseThrow()
+    ));
+    Collections.sort(result);
+    return result;
+  }
+
+  private Set<Integer> lineNumbers(List<DataEntry> entries) {
+    Set<Integer> result = new TreeSet<>();
+    entries.forEach(entry -> result.add(entry.attribute("line", Integer.class).flatMap(Attribute::value).orElseThrow()));
+    return result;
+  }
+
+  @Test
+  public void testBatchedIngestion() {
+    Pipeline pipeline = pipeline(false);
+
+    for (IngestionSettings settings : List.of(
+      new IngestionSettings(1, 1),
+      new IngestionSettings(7, 3),
+      new IngestionSettings(1000, 2),
+      new IngestionSettings(4096, 4),
+      IngestionSettings.DEFAULT
+    )) {
+      List<DataEntry> entries = run(pipeline, settings);
+
+      assertEquals(900, entries.size());
+      assertEquals(900, lineNumbers(entries).size());
+      entries.forEach(entry -> assertEquals("test", entry.attribute("data-model").flatMap(Attribute::value).orElseThrow()));
+    }
+  }
+
+  @Test
+  public void testChunkedMultilineIngestion() {
+    lines.add(0, "orphan line");
+    lines.add(1, "");
+    lines.add("  trailing line");
+    lines.add("");
+
+    Pipeline pipeline = pipeline(true);
+    List<String> expected = describe(run(pipeline, new IngestionSettings(8192, 1)));
+
+    assertEquals(900, expected.size());
+    assertTrue(expected.contains("3|INFO|message 1\norphan line\n"));
+    assertTrue(expected.contains("1001|WARN|message 999\n  at line 1000\n  trailing line\n"));
+
+    for (IngestionSettings settings : List.of(
+      new IngestionSettings(1, 2),
+      new IngestionSettings(3, 3),
+      new IngestionSettings(7, 4),
+      new IngestionSettings(64, 2),
+      IngestionSettings.DEFAULT
+    )) {
+      assertEquals(expected, describe(run(pipeline, settings)));
+    }
+  }
+
+  @Test
+  public void testConsumerFailure() {
+    // the lines go to the workers in batches and, for multiline entries, in chunks
+    for (boolean multiline : List.of(false, true)) {
+      Pipeline pipeline = pipeline(multiline);
+      for (IngestionSettings settings : List.of(
+        new IngestionSettings(1, 2),
+        new IngestionSettings(7, 3),
+        new IngestionSettings(64, 4)
+      )) {
+        AtomicInteger count = new AtomicInteger();
+        // the entries that can't be stored are not taken as lines that can't be parsed
+        assertThrows(RuntimeException.class, () -> pipeline.run(reader, lines, settings, entry -> {
+          if (count.incrementAndGet() == 100) {
+            throw new IllegalStateException("full");
+          }
+        }));
+      }
+    }
+  }
+
+}